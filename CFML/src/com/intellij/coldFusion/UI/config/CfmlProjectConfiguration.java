@@ -8,8 +8,11 @@ import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Comparing;
 import com.intellij.openapi.util.JDOMUtil;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.util.NlsSafe;
+import com.intellij.openapi.util.SimpleModificationTracker;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiManager;
 import com.intellij.util.xmlb.annotations.Property;
 import com.intellij.util.xmlb.annotations.Tag;
 import org.jdom.Element;
@@ -17,8 +20,14 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 @State(name = "CfmlProjectConfiguration", storages = @Storage("cfml.xml"))
-public class CfmlProjectConfiguration implements PersistentStateComponent<CfmlProjectConfiguration.State> {
+public class CfmlProjectConfiguration implements PersistentStateComponent<CfmlProjectConfiguration.State>, ModificationTracker {
+  private final Project myProject;
   private State myState = new State();
+  private final SimpleModificationTracker myModificationTracker = new SimpleModificationTracker();
+
+  public CfmlProjectConfiguration(@NotNull Project project) {
+    myProject = project;
+  }
 
   public static CfmlProjectConfiguration getInstance(Project project) {
     return project.getService(CfmlProjectConfiguration.class);
@@ -33,6 +42,19 @@ public class CfmlProjectConfiguration implements PersistentStateComponent<CfmlPr
   public void loadState(@NotNull State state) {
     myState = state;
     state.migrateIfNeeded();
+    myModificationTracker.incModificationCount();
+    // component references are resolved against the mappings
+    if (!myProject.isDefault()) {
+      PsiManager.getInstance(myProject).dropResolveCaches();
+    }
+  }
+
+  /**
+   * Incremented whenever the state, and so the mappings, are replaced.
+   */
+  @Override
+  public long getModificationCount() {
+    return myModificationTracker.getModificationCount();
   }
 
   /*
@@ -0,0 +1,70 @@
+// Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.intellij.coldFusion.model.psi;
+
+import com.intellij.coldFusion.UI.config.CfmlMappingsConfig;
+import com.intellij.coldFusion.UI.config.CfmlProjectConfiguration;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Project mappings, or the content roots if there are none, and the directories the dotted directory names of components are mapped to.
+ * Dropped when the mappings, the roots or the VFS structure change.
+ */
+final class CfmlComponentDirectories {
+  private final CfmlMappingsConfig myMappings;
+  private final Map<String, List<VirtualFile>> myDirectories = new ConcurrentHashMap<>();
+
+  private CfmlComponentDirectories(@NotNull CfmlMappingsConfig mappings) {
+    myMappings = mappings;
+  }
+
+  static @NotNull CfmlComponentDirectories getInstance(@NotNull Project project) {
+    return CachedValuesManager.getManager(project).getCachedValue(project, () -> {
+      CfmlProjectConfiguration configuration = CfmlProjectConfiguration.getInstance(project);
+      CfmlProjectConfiguration.State state = configuration.getState();
+      CfmlMappingsConfig mappings = state != null ? state.getMapps().clone() : new CfmlMappingsConfig();
+      if (mappings.getServerMappings().isEmpty()) {
+        for (VirtualFile root : ProjectRootManager.getInstance(project).getContentRoots()) {
+          mappings.putToServerMappings("", root.getPresentableUrl());
+        }
+      }
+      return CachedValueProvider.Result.create(new CfmlComponentDirectories(mappings), configuration,
+                                               ProjectRootManager.getInstance(project), VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+    });
+  }
+
+  /**
+   * @return shared mappings, clone them before adding any
+   */
+  @NotNull CfmlMappingsConfig getMappings() {
+    return myMappings;
+  }
+
+  /**
+   * @param directoryName dotted name of the directory, e.g. {@code "a.b"} for the component {@code "a.b.C"}
+   */
+  @NotNull List<VirtualFile> getDirectories(@NotNull String directoryName) {
+    return myDirectories.computeIfAbsent(directoryName, name -> {
+      List<VirtualFile> result = new ArrayList<>();
+      for (String realPath : myMappings.mapVirtualToReal(name)) {
+        VirtualFile directory = LocalFileSystem.getInstance().findFileByPath(FileUtil.toSystemIndependentName(realPath));
+        if (directory != null && directory.isDirectory() && !result.contains(directory)) {
+          result.add(directory);
+        }
+      }
+      return result;
+    });
+  }
+}
@@ -6,17 +6,14 @@ import com.intellij.codeInsight.completion.InsertionContext;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.coldFusion.UI.config.CfmlMappingsConfig;
-import com.intellij.coldFusion.UI.config.CfmlProjectConfiguration;
 import com.intellij.coldFusion.model.CfmlUtil;
 import com.intellij.coldFusion.model.files.CfmlFile;
 import com.intellij.coldFusion.model.psi.stubs.CfmlIndex;
 import com.intellij.lang.ASTNode;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.Couple;
 import com.intellij.openapi.util.TextRange;
-import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -150,50 +147,13 @@ public class CfmlComponentReference extends CfmlCompositeElement implements Cfml
         directoryName = componentQualifiedName.substring(0, i);
       }
 
-      CfmlProjectConfiguration.State state = CfmlProjectConfiguration.getInstance(project).getState();
-      CfmlMappingsConfig mappings = state != null ? state.getMapps().clone() : new CfmlMappingsConfig();
-      adjustMappingsIfEmpty(mappings, originalFile.getProject());
-      // addFakeMappingsForResolution(mappings);
-      List<String> realPossiblePaths = mappings.mapVirtualToReal(directoryName);
-      // Collections.sort(realPossiblePaths);
-
-      final Collection<CfmlComponent> components = CfmlIndex.getInstance(project).getComponentsByName(
-        componentName);
-      components.addAll(CfmlIndex.getInstance(project).getInterfacesByName(
-        componentName));
-
-      for (CfmlComponent component : components) {
-        PsiDirectory parent = component.getContainingFile().getParent();
-        if (parent == null) {
-          continue;
-        }
-        VirtualFile virtualFile = parent.getVirtualFile();
-        for (String realPath : realPossiblePaths) {
-          if (FileUtil.toSystemIndependentName(realPath).equals(FileUtil.toSystemIndependentName(virtualFile.getPresentableUrl()))) {
-            result.add(component);
-            break;
-          }
-        }
-      }
-
-      for (String realPath : realPossiblePaths) {
-        VirtualFile fileByUrl = LocalFileSystem.getInstance().findFileByPath(realPath);
-        if (fileByUrl != null) {
-          PsiFile file = PsiManager.getInstance(project).findFile(fileByUrl);
-          if (file != null) {
-            PsiDirectory directory = file.getParent();
-            if (directory != null) {
-              GlobalSearchScope searchScope = GlobalSearchScopesCore.directoryScope(directory, false);
-
-              final Collection<CfmlComponent> componentsFromGlobalScope = CfmlIndex.getInstance(project).getComponentsByNameInScope(
-                componentName, searchScope);
-              componentsFromGlobalScope.addAll(CfmlIndex.getInstance(project).getInterfacesByNameInScope(
-                componentName, searchScope));
-
-              result.addAll(componentsFromGlobalScope);
-            }
-          }
-        }
+      // look for the component in the directories its path is mapped to, not among all the components with its name
+      CfmlIndex index = CfmlIndex.getInstance(project);
+      for (VirtualFile directory : CfmlComponentDirectories.getInstance(project).getDirectories(directoryName)) {
+        GlobalSearchScope searchScope =
+          GlobalSearchScopesCore.directoryScope(project, directory, false).intersectWith(index.getSearchScope());
+        result.addAll(index.getComponentsByNameInScope(componentName, searchScope));
+        result.addAll(index.getInterfacesByNameInScope(componentName, searchScope));
       }
     }
 
@@ -213,17 +173,17 @@ public class CfmlComponentReference extends CfmlCompositeElement implements Cfml
     return result;
   }
 
-  private final ResolveCache.PolyVariantResolver<CfmlComponentReference> MY_RESOLVER =
+  private static final ResolveCache.PolyVariantResolver<CfmlComponentReference> MY_RESOLVER =
     (expression, incompleteCode) -> {
       String componentQualifiedName;
       CfmlImport parentOfType = PsiTreeUtil.getParentOfType(expression, CfmlImport.class);
       if (parentOfType != null) {
-        componentQualifiedName = getText();
+        componentQualifiedName = expression.getText();
       }
       else {
-        componentQualifiedName = getComponentQualifiedName(getText());
+        componentQualifiedName = expression.getComponentQualifiedName(expression.getText());
       }
-      PsiFile containingFile = getContainingFile().getOriginalFile();
+      PsiFile containingFile = expression.getContainingFile().getOriginalFile();
       if (containingFile instanceof CfmlFile) {
         return CfmlResolveResult.create(resolveFromQualifiedName(componentQualifiedName, ((CfmlFile)containingFile)));
       }
@@ -233,14 +193,8 @@ public class CfmlComponentReference extends CfmlCompositeElement implements Cfml
   @Override
   public ResolveResult @NotNull [] multiResolve(boolean incompleteCode) {
     // incompleteCode = true, when autocompletion is executed,
-    // in this case, containingFile is not physical and there is no way to get parent directory
-    return MY_RESOLVER.resolve(this, incompleteCode);
-    // if(incompleteCode)
-    // return (getManager()).getResolveCache().resolveWithCaching(this, MY_RESOLVER, true, false);
-    /*
-    else
-      return MY_RESOLVER.resolve(this, incompleteCode);
-    */
+    // in this case, containingFile is not physical and the original file is used to get parent directory
+    return ResolveCache.getInstance(getProject()).resolveWithCaching(this, MY_RESOLVER, false, incompleteCode);
   }
 
   private static String getComponentName(@NotNull String componentName) {
@@ -331,11 +285,11 @@ public class CfmlComponentReference extends CfmlCompositeElement implements Cfml
       int i = text.lastIndexOf(".");
       directoryName = text.substring(0, i);
     }
-    CfmlProjectConfiguration.State state = CfmlProjectConfiguration.getInstance(project).getState();
-    CfmlMappingsConfig mappings = state != null ? state.getMapps().clone() : new CfmlMappingsConfig();
-
-    adjustMappingsIfEmpty(mappings, project);
-    if (reference != null) addFakeMappingsForImports(reference, mappings);
+    CfmlMappingsConfig mappings = CfmlComponentDirectories.getInstance(project).getMappings();
+    if (reference != null) {
+      mappings = mappings.clone();
+      addFakeMappingsForImports(reference, mappings);
+    }
 
     List<String> realPossiblePaths = mappings.mapVirtualToReal(directoryName);
 
@@ -409,16 +363,6 @@ public class CfmlComponentReference extends CfmlCompositeElement implements Cfml
     });
   }
 
-  private static void adjustMappingsIfEmpty(CfmlMappingsConfig mappings, Project project) {
-    if (!mappings.getServerMappings().isEmpty()) {
-      return;
-    }
-
-    for (VirtualFile root : ProjectRootManager.getInstance(project).getContentRoots()) {
-      mappings.putToServerMappings("", root.getPresentableUrl());
-    }
-  }
-
   private static void addFakeMappingsForImports(CfmlComponentReference ref, CfmlMappingsConfig mappings) {
     if (PsiTreeUtil.getParentOfType(ref, CfmlImport.class) != null) {
       // create fake mappings for imports
@@ -469,6 +469,18 @@ public class CfscriptResolveTest extends JavaCodeInsightFixtureTestCase {
     restoreDefaultState();
   }
 
+  public void testResolveNewWithRemovedMappings() {
+    addComponentsTo(myFixture);
+    setDefaultState();
+    try {
+      assertEquals(assertInstanceOf(resolveReferenceAtCaret(), CfmlComponent.class).getName(), "ComponentName");
+    }
+    finally {
+      restoreDefaultState();
+    }
+    assertNull(resolveReferenceAtCaret());
+  }
+
   public void testResolveNewWithImportWithMappings() {
     addComponentsTo(myFixture);
     setDefaultState();
@@ -128,6 +128,7 @@ public final class DartAnalysisServerService implements Disposable {
   private static final long GET_TYPE_HIERARCHY_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
   private static final long EXECUTION_CREATE_CONTEXT_TIMEOUT = TimeUnit.SECONDS.toMillis(1);
   private static final long EXECUTION_MAP_URI_TIMEOUT = TimeUnit.SECONDS.toMillis(1);
+  private static final long EXECUTION_MAP_URIS_TIMEOUT_PER_URI = 20L;
   private static final long ANALYSIS_IN_TESTS_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
   private static final long LSP_MESSAGE_TEXT_DOCUMENT_CONTENT_TIMEOUT = TimeUnit.SECONDS.toMillis(50);
   private static final long TESTS_TIMEOUT_COEFF = 10;
@@ -153,6 +154,8 @@ public final class DartAnalysisServerService implements Disposable {
 
   private final DartServerRootsHandler myRootsHandler;
   private final Map<String, Long> myFilePathWithOverlaidContentToTimestamp = Collections.synchronizedMap(new HashMap<>());
+  // guarded by myLock
+  private final DartOverlayDeltaTracker myOverlayDeltaTracker = new DartOverlayDeltaTracker();
   private final List<String> myVisibleFileUris = new ArrayList<>();
   private final Set<Document> myChangedDocuments = new HashSet<>();
   private final Alarm myUpdateFilesAlarm;
@@ -348,6 +351,10 @@ public final class DartAnalysisServerService implements Disposable {
       if (RequestErrorCode.SERVER_ERROR.equals(error.getCode())) {
         serverError(false, error.getMessage(), error.getStackTrace());
       }
+      else if (RequestErrorCode.INVALID_OVERLAY_CHANGE.equals(error.getCode())) {
+        LOG.info(getShortErrorMessage("analysis.updateContent", null, error));
+        resyncContentOverlays();
+      }
       else {
         LOG.info(getShortErrorMessage("unknown", null, error));
       }
@@ -790,6 +797,18 @@ public final class DartAnalysisServerService implements Disposable {
         myUpdateFilesAlarm.cancelAllRequests();
         myUpdateFilesAlarm.addRequest(DartAnalysisServerService.this::updateFilesContent, UPDATE_FILES_TIMEOUT);
       }
+
+      @Override
+      public void documentChanged(@NotNull DocumentEvent e) {
+        if (myServer == null || !isIncrementalContentOverlayEnabled()) return;
+
+        final VirtualFile file = FileDocumentManager.getInstance().getFile(e.getDocument());
+        if (file != null && file.isInLocalFileSystem() && myFilePathWithOverlaidContentToTimestamp.containsKey(file.getPath())) {
+          synchronized (myLock) {
+            myOverlayDeltaTracker.documentChanged(file.getPath(), e);
+          }
+        }
+      }
     };
 
     EditorFactory.getInstance().getEventMulticaster().addDocumentListener(documentListener, this);
@@ -941,9 +960,27 @@ public final class DartAnalysisServerService implements Disposable {
     }
   }
 
-  private void doUpdateFilesContent() {
-    // may be use DocumentListener to collect deltas instead of sending the whole Document.getText() each time?
+  private static boolean isIncrementalContentOverlayEnabled() {
+    return Registry.is("dart.server.incremental.content.overlay", true);
+  }
 
+  /**
+   * Makes the next {@link #updateFilesContent()} send the whole text for all overlaid files. Used when the server and the IDE may disagree
+   * about the overlaid content, for example, after the server has rejected a {@link ChangeContentOverlay}.
+   */
+  private void resyncContentOverlays() {
+    synchronized (myLock) {
+      myOverlayDeltaTracker.clear();
+      synchronized (myFilePathWithOverlaidContentToTimestamp) {
+        myFilePathWithOverlaidContentToTimestamp.replaceAll((path, timestamp) -> -1L);
+      }
+    }
+
+    myUpdateFilesAlarm.cancelAllRequests();
+    myUpdateFilesAlarm.addRequest(this::updateFilesContent, 0);
+  }
+
+  private void doUpdateFilesContent() {
     AnalysisServer server = myServer;
     if (server == null) {
       return;
@@ -974,7 +1011,14 @@ public final class DartAnalysisServerService implements Disposable {
 
           final Long oldTimestamp = myFilePathWithOverlaidContentToTimestamp.get(file.getPath());
           if (oldTimestamp == null || document.getModificationStamp() != oldTimestamp) {
-            fileUriToContentOverlay.put(getLocalFileUri(file.getPath()), new AddContentOverlay(document.getText()));
+            final ChangeContentOverlay changeOverlay = oldTimestamp != null && isIncrementalContentOverlayEnabled()
+                                                       ? myOverlayDeltaTracker.pollChangeOverlay(file.getPath(), oldTimestamp, document)
+                                                       : null;
+            if (changeOverlay == null) {
+              myOverlayDeltaTracker.forget(file.getPath());
+            }
+            fileUriToContentOverlay.put(getLocalFileUri(file.getPath()),
+                                        changeOverlay != null ? changeOverlay : new AddContentOverlay(document.getText()));
             myFilePathWithOverlaidContentToTimestamp.put(file.getPath(), document.getModificationStamp());
           }
         }
@@ -986,6 +1030,7 @@ public final class DartAnalysisServerService implements Disposable {
         if (myFilePathWithOverlaidContentToTimestamp.get(oldPath) != null) {
           fileUriToContentOverlay.put(getLocalFileUri(oldPath), new RemoveContentOverlay());
         }
+        myOverlayDeltaTracker.forget(oldPath);
       }
 
       if (LOG.isDebugEnabled()) {
@@ -2112,6 +2157,51 @@ public final class DartAnalysisServerService implements Disposable {
     return resultRef.get();
   }
 
+  /**
+   * Maps many execution context URIs at once. All requests are sent before waiting for responses, so this takes about one round trip
+   * instead of one per URI.
+   *
+   * @return map from the URI to the system-independent file path or to the not-local file URI; URIs that failed to map are not included
+   */
+  public @NotNull Map<String, String> execution_mapUris(@NotNull String _id, @NotNull Collection<String> _executionContextUris) {
+    final AnalysisServer server = myServer;
+    if (server == null || _executionContextUris.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    final Map<String, String> result = Collections.synchronizedMap(new HashMap<>());
+    final CountDownLatch latch = new CountDownLatch(_executionContextUris.size());
+    for (String executionContextUri : _executionContextUris) {
+      server.execution_mapUri(_id, null, executionContextUri, new MapUriConsumer() {
+        @Override
+        public void computedFileOrUri(final String file, final String uri) {
+          final String fileOrUri = uri != null ? uri : file;
+          if (fileOrUri != null) {
+            result.put(executionContextUri, FileUtil.toSystemIndependentName(fileOrUri));
+          }
+          latch.countDown();
+        }
+
+        @Override
+        public void onError(final RequestError error) {
+          latch.countDown();
+        }
+      });
+    }
+
+    final long timeout = EXECUTION_MAP_URI_TIMEOUT + _executionContextUris.size() * EXECUTION_MAP_URIS_TIMEOUT_PER_URI;
+    awaitForLatchCheckingCanceled(server, latch, timeout);
+
+    if (latch.getCount() > 0) {
+      LOG.info("execution_mapUris() took longer than " + timeout + "ms, " + latch.getCount() + " of " + _executionContextUris.size() +
+               " URIs not mapped, Dart SDK version: " + mySdkVersion);
+    }
+
+    synchronized (result) {
+      return new HashMap<>(result);
+    }
+  }
+
   // LSP over Legacy Dart Analysis Server protocols
   public @Nullable String lspMessage_dart_textDocumentContent(@NotNull String fileUri) {
     RemoteAnalysisServerImpl server = myServer;
@@ -2383,6 +2473,7 @@ public final class DartAnalysisServerService implements Disposable {
       mySdkVersion = "";
       myServerVersion = "";
       myFilePathWithOverlaidContentToTimestamp.clear();
+      myOverlayDeltaTracker.clear();
       myVisibleFileUris.clear();
       myChangedDocuments.clear();
       myServerData.clearData();
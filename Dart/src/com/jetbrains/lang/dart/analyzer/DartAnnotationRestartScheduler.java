@@ -0,0 +1,89 @@
+// Copyright 2000-2025 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.jetbrains.lang.dart.analyzer;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
+import com.intellij.util.Alarm;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Coalesces highlighting restarts requested by Analysis Server notifications. A burst of notifications (for example, after 'pub get')
+ * results in a single EDT event that restarts highlighting only for the files that got new data, instead of an
+ * {@code invokeLater(DaemonCodeAnalyzer.restart())} of all open editors per notification.
+ */
+final class DartAnnotationRestartScheduler {
+  private static final int COALESCING_PERIOD_MS = 50;
+
+  private final @NotNull Project myProject;
+
+  private final Object myLock = new Object(); // use this lock to access myScheduledFiles, myClearResolveCache and myAlarm
+  private final Set<VirtualFile> myScheduledFiles = new LinkedHashSet<>();
+  private boolean myClearResolveCache;
+  private final Alarm myAlarm;
+
+  DartAnnotationRestartScheduler(@NotNull Project project, @NotNull Disposable parentDisposable) {
+    myProject = project;
+    // Restarting on EDT also makes sure that RemoteAnalysisServerImpl$ServerResponseReaderThread is not cached in FileStatusMap.threads,
+    // otherwise DartAnalysisServerService.myProject would be leaked in tests
+    myAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, parentDisposable);
+  }
+
+  void scheduleRestart(@NotNull VirtualFile file, boolean clearResolveCache) {
+    synchronized (myLock) {
+      if (myScheduledFiles.isEmpty()) {
+        myAlarm.addRequest(this::restartScheduled, COALESCING_PERIOD_MS, ModalityState.nonModal());
+      }
+
+      myScheduledFiles.add(file);
+      myClearResolveCache |= clearResolveCache;
+    }
+  }
+
+  void cancelAll() {
+    synchronized (myLock) {
+      myAlarm.cancelAllRequests();
+      myScheduledFiles.clear();
+      myClearResolveCache = false;
+    }
+  }
+
+  private void restartScheduled() {
+    final VirtualFile[] files;
+    final boolean clearResolveCache;
+    synchronized (myLock) {
+      files = myScheduledFiles.toArray(VirtualFile.EMPTY_ARRAY);
+      clearResolveCache = myClearResolveCache;
+      myScheduledFiles.clear();
+      myClearResolveCache = false;
+    }
+
+    if (myProject.isDisposed()) return;
+
+    if (clearResolveCache) {
+      ResolveCache.getInstance(myProject).clearCache(true);
+    }
+
+    final FileEditorManager fileEditorManager = FileEditorManager.getInstance(myProject);
+    final PsiManager psiManager = PsiManager.getInstance(myProject);
+    final DaemonCodeAnalyzer daemonCodeAnalyzer = DaemonCodeAnalyzer.getInstance(myProject);
+    for (VirtualFile file : files) {
+      // closed files are highlighted from scratch when opened, and loading their PSI here would be a waste of EDT time
+      if (!file.isValid() || !fileEditorManager.isFileOpen(file)) continue;
+
+      final PsiFile psiFile = psiManager.findFile(file);
+      if (psiFile != null) {
+        daemonCodeAnalyzer.restart(psiFile);
+      }
+    }
+  }
+}
@@ -0,0 +1,96 @@
+// Copyright 2000-2025 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.jetbrains.lang.dart.analyzer;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import org.dartlang.analysis.server.protocol.ChangeContentOverlay;
+import org.dartlang.analysis.server.protocol.SourceEdit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects document changes of the files that already have overlaid content in the Analysis Server, so that
+ * {@link DartAnalysisServerService} can send a {@link ChangeContentOverlay} with the accumulated {@link SourceEdit}s
+ * instead of the whole document text.
+ * <p>
+ * Edits are recorded in the order they happen, which matches the server semantics: each edit is applied to the result of the previous one.
+ * If the chain of modification stamps is broken (an event is missed, or the document was reloaded), the collected edits are dropped and
+ * the caller falls back to {@link org.dartlang.analysis.server.protocol.AddContentOverlay}.
+ * <p>
+ * Not thread-safe, all calls are expected to be guarded by the {@code DartAnalysisServerService.myLock}.
+ */
+final class DartOverlayDeltaTracker {
+  // there's no point in sending thousands of small edits when the whole text is likely to be shorter
+  private static final int MAX_EDITS_COUNT = 1000;
+
+  private static final class PendingEdits {
+    private final long myBaseStamp;
+    private long myLastStamp;
+    private int myReplacementsLength;
+    private boolean myValid = true;
+    private final List<SourceEdit> myEdits = new ArrayList<>();
+
+    private PendingEdits(long baseStamp) {
+      myBaseStamp = baseStamp;
+      myLastStamp = baseStamp;
+    }
+  }
+
+  private final Map<String, PendingEdits> myFilePathToPendingEdits = new HashMap<>();
+
+  /**
+   * Must be called from {@link com.intellij.openapi.editor.event.DocumentListener#documentChanged(DocumentEvent)}
+   * only for files that currently have overlaid content in the Analysis Server.
+   */
+  void documentChanged(@NotNull String filePath, @NotNull DocumentEvent e) {
+    PendingEdits pending = myFilePathToPendingEdits.get(filePath);
+    if (pending == null) {
+      pending = new PendingEdits(e.getOldTimeStamp());
+      myFilePathToPendingEdits.put(filePath, pending);
+    }
+
+    if (!pending.myValid) return;
+
+    if (pending.myLastStamp != e.getOldTimeStamp() || pending.myEdits.size() >= MAX_EDITS_COUNT) {
+      pending.myValid = false;
+      pending.myEdits.clear();
+      return;
+    }
+
+    String replacement = e.getNewFragment().toString();
+    pending.myEdits.add(new SourceEdit(e.getOffset(), e.getOldLength(), replacement, null, null));
+    pending.myReplacementsLength += replacement.length();
+    pending.myLastStamp = e.getDocument().getModificationStamp();
+  }
+
+  /**
+   * Returns edits that turn the content sent to the server with {@code overlaidStamp} into the current document content, or {@code null}
+   * if the whole text should be sent instead. In both cases the collected edits are forgotten.
+   */
+  @Nullable ChangeContentOverlay pollChangeOverlay(@NotNull String filePath, long overlaidStamp, @NotNull Document document) {
+    PendingEdits pending = myFilePathToPendingEdits.remove(filePath);
+    if (pending == null ||
+        !pending.myValid ||
+        pending.myEdits.isEmpty() ||
+        pending.myBaseStamp != overlaidStamp ||
+        pending.myLastStamp != document.getModificationStamp() ||
+        pending.myReplacementsLength >= document.getTextLength()) {
+      return null;
+    }
+
+    return new ChangeContentOverlay(pending.myEdits);
+  }
+
+  void forget(@NotNull String filePath) {
+    myFilePathToPendingEdits.remove(filePath);
+  }
+
+  void clear() {
+    myFilePathToPendingEdits.clear();
+  }
+}
@@ -2,7 +2,6 @@
 package com.jetbrains.lang.dart.analyzer;
 
 import com.google.common.collect.Sets;
-import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.diagnostic.Logger;
@@ -11,16 +10,18 @@ import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.NlsSafe;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.search.SearchScope;
 import com.intellij.testFramework.LightVirtualFile;
 import com.intellij.util.EventDispatcher;
 import com.intellij.util.PathUtil;
 import com.intellij.util.SmartList;
+import com.intellij.util.containers.ContainerUtil;
 import org.dartlang.analysis.server.protocol.*;
 import org.jetbrains.annotations.*;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
 
 public final class DartServerData {
   public interface OutlineListener extends EventListener {
@@ -31,13 +32,51 @@ public final class DartServerData {
 
   private final EventDispatcher<OutlineListener> myEventDispatcher = EventDispatcher.create(OutlineListener.class);
 
-  private final Map<DartFileInfo, List<DartError>> myErrorData = Collections.synchronizedMap(new HashMap<>());
-  private final Map<DartFileInfo, List<DartHighlightRegion>> myHighlightData = Collections.synchronizedMap(new HashMap<>());
-  private final Map<DartFileInfo, List<DartNavigationRegion>> myNavigationData = Collections.synchronizedMap(new HashMap<>());
-  private final Map<DartFileInfo, List<DartOverrideMember>> myOverrideData = Collections.synchronizedMap(new HashMap<>());
-  private final Map<DartFileInfo, List<DartRegion>> myImplementedClassData = Collections.synchronizedMap(new HashMap<>());
-  private final Map<DartFileInfo, List<DartRegion>> myImplementedMemberData = Collections.synchronizedMap(new HashMap<>());
-  private final Map<DartFileInfo, Outline> myOutlineData = Collections.synchronizedMap(new HashMap<>());
+  /**
+   * All data received from the server for a file. Instances are never modified, each notification publishes a new snapshot,
+   * so readers (highlighting passes, Problems View) never block the thread that reads server responses.
+   * {@code null} component means that the corresponding notification has not been received yet.
+   */
+  private record FileData(@Nullable List<DartError> errors,
+                          @Nullable List<DartHighlightRegion> highlights,
+                          @Nullable List<DartNavigationRegion> navigation,
+                          @Nullable List<DartOverrideMember> overrides,
+                          @Nullable List<DartRegion> implementedClasses,
+                          @Nullable List<DartRegion> implementedMembers,
+                          @Nullable Outline outline) {
+    private static final FileData EMPTY = new FileData(null, null, null, null, null, null, null);
+
+    FileData withErrors(@Nullable List<DartError> errors) {
+      return new FileData(errors, highlights, navigation, overrides, implementedClasses, implementedMembers, outline);
+    }
+
+    FileData withHighlights(@Nullable List<DartHighlightRegion> highlights) {
+      return new FileData(errors, highlights, navigation, overrides, implementedClasses, implementedMembers, outline);
+    }
+
+    FileData withNavigation(@Nullable List<DartNavigationRegion> navigation) {
+      return new FileData(errors, highlights, navigation, overrides, implementedClasses, implementedMembers, outline);
+    }
+
+    FileData withOverrides(@Nullable List<DartOverrideMember> overrides) {
+      return new FileData(errors, highlights, navigation, overrides, implementedClasses, implementedMembers, outline);
+    }
+
+    FileData withImplemented(@Nullable List<DartRegion> implementedClasses, @Nullable List<DartRegion> implementedMembers) {
+      return new FileData(errors, highlights, navigation, overrides, implementedClasses, implementedMembers, outline);
+    }
+
+    FileData withOutline(@Nullable Outline outline) {
+      return new FileData(errors, highlights, navigation, overrides, implementedClasses, implementedMembers, outline);
+    }
+
+    boolean isEmpty() {
+      return errors == null && highlights == null && navigation == null && overrides == null &&
+             implementedClasses == null && implementedMembers == null && outline == null;
+    }
+  }
+
+  private final Map<DartFileInfo, FileData> myFileData = new ConcurrentHashMap<>();
 
   private final Map<Integer, AvailableSuggestionSet> myAvailableSuggestionSetMap = Collections.synchronizedMap(new HashMap<>());
   private final Map<String, Map<String, Map<String, Set<String>>>> myExistingImports = Collections.synchronizedMap(new HashMap<>());
@@ -49,8 +88,11 @@ public final class DartServerData {
 
   private final Map<String, LightVirtualFile> myNotLocalFileUriToVirtualFileMap = Collections.synchronizedMap(new HashMap<>());
 
+  private final DartAnnotationRestartScheduler myRestartScheduler;
+
   DartServerData(@NotNull DartAnalysisServerService service) {
     myService = service;
+    myRestartScheduler = new DartAnnotationRestartScheduler(service.getProject(), service);
   }
 
   boolean isErrorInfoUpToDate(@NotNull DartLocalFileInfo fileInfo) {
@@ -76,7 +118,7 @@ public final class DartServerData {
     if (fileInfo instanceof DartLocalFileInfo) {
       myLocalFilesWithOutdatedErrorInfo.remove(fileInfo);
     }
-    myErrorData.put(fileInfo, newErrors);
+    updateFileData(fileInfo, data -> data.withErrors(Collections.unmodifiableList(newErrors)));
 
     if (restartHighlighting) {
       forceFileAnnotation(file, false);
@@ -105,7 +147,7 @@ public final class DartServerData {
       }
     }
 
-    myHighlightData.put(fileInfo, newRegions);
+    updateFileData(fileInfo, data -> data.withHighlights(Collections.unmodifiableList(newRegions)));
     forceFileAnnotation(file, false);
   }
 
@@ -122,14 +164,14 @@ public final class DartServerData {
       }
     }
 
-    myNavigationData.put(fileInfo, newRegions);
+    updateFileData(fileInfo, data -> data.withNavigation(Collections.unmodifiableList(newRegions)));
     forceFileAnnotation(file, true);
   }
 
   void computedOutline(@NotNull DartFileInfo fileInfo, @NotNull Outline outline) {
     if (myLocalFilesWithUnsentChanges.contains(fileInfo)) return;
 
-    myOutlineData.put(fileInfo, outline);
+    updateFileData(fileInfo, data -> data.withOutline(outline));
     ApplicationManager.getApplication().invokeLater(() -> myEventDispatcher.getMulticaster().outlineUpdated(fileInfo),
                                                     ModalityState.nonModal(),
                                                     myService.getDisposedCondition());
@@ -181,7 +223,7 @@ public final class DartServerData {
       }
     }
 
-    myOverrideData.put(fileInfo, newOverrides);
+    updateFileData(fileInfo, data -> data.withOverrides(Collections.unmodifiableList(newOverrides)));
     forceFileAnnotation(file, false);
   }
 
@@ -206,20 +248,13 @@ public final class DartServerData {
       newImplementedMembers.add(new DartRegion(offset, length));
     }
 
-    boolean hasChanges = false;
-    List<DartRegion> oldClasses = myImplementedClassData.get(fileInfo);
-    if (oldClasses == null || !oldClasses.equals(newImplementedClasses)) {
-      hasChanges = true;
-      myImplementedClassData.put(fileInfo, newImplementedClasses);
-    }
-
-    List<DartRegion> oldMembers = myImplementedMemberData.get(fileInfo);
-    if (oldMembers == null || !oldMembers.equals(newImplementedMembers)) {
-      hasChanges = true;
-      myImplementedMemberData.put(fileInfo, newImplementedMembers);
-    }
+    FileData oldData = getFileData(fileInfo);
+    boolean hasChanges = !newImplementedClasses.equals(oldData.implementedClasses()) ||
+                         !newImplementedMembers.equals(oldData.implementedMembers());
 
     if (hasChanges) {
+      updateFileData(fileInfo, data -> data.withImplemented(Collections.unmodifiableList(newImplementedClasses),
+                                                            Collections.unmodifiableList(newImplementedMembers)));
       forceFileAnnotation(file, false);
     }
   }
@@ -272,13 +307,15 @@ public final class DartServerData {
   List<DartError> getErrors(final @NotNull SearchScope scope) {
     final List<DartError> errors = new ArrayList<>();
 
-    synchronized (myErrorData) {
-      for (Map.Entry<DartFileInfo, List<DartError>> entry : myErrorData.entrySet()) {
-        DartFileInfo fileInfo = entry.getKey();
-        VirtualFile file = fileInfo instanceof DartLocalFileInfo localFileInfo ? localFileInfo.findFile() : null;
-        if (file != null && scope.contains(file)) {
-          errors.addAll(entry.getValue());
-        }
+    // ConcurrentHashMap iteration is weakly consistent and doesn't block the server response reader thread
+    for (Map.Entry<DartFileInfo, FileData> entry : myFileData.entrySet()) {
+      List<DartError> fileErrors = entry.getValue().errors();
+      if (fileErrors == null || fileErrors.isEmpty()) continue;
+
+      DartFileInfo fileInfo = entry.getKey();
+      VirtualFile file = fileInfo instanceof DartLocalFileInfo localFileInfo ? localFileInfo.findFile() : null;
+      if (file != null && scope.contains(file)) {
+        errors.addAll(fileErrors);
       }
     }
 
@@ -288,49 +325,49 @@ public final class DartServerData {
   @NotNull
   List<DartError> getErrors(@NotNull VirtualFile file) {
     DartFileInfo fileInfo = DartFileInfoKt.getDartFileInfo(myService.getProject(), file);
-    List<DartError> errors = myErrorData.get(fileInfo);
+    List<DartError> errors = getFileData(fileInfo).errors();
     return errors != null ? errors : Collections.emptyList();
   }
 
   @NotNull
   List<DartHighlightRegion> getHighlight(@NotNull VirtualFile file) {
     DartFileInfo fileInfo = DartFileInfoKt.getDartFileInfo(myService.getProject(), file);
-    List<DartHighlightRegion> regions = myHighlightData.get(fileInfo);
+    List<DartHighlightRegion> regions = getFileData(fileInfo).highlights();
     return regions != null ? regions : Collections.emptyList();
   }
 
   @NotNull
   List<DartNavigationRegion> getNavigation(@NotNull VirtualFile file) {
     DartFileInfo fileInfo = DartFileInfoKt.getDartFileInfo(myService.getProject(), file);
-    List<DartNavigationRegion> regions = myNavigationData.get(fileInfo);
+    List<DartNavigationRegion> regions = getFileData(fileInfo).navigation();
     return regions != null ? regions : Collections.emptyList();
   }
 
   @NotNull
   List<DartOverrideMember> getOverrideMembers(@NotNull VirtualFile file) {
     DartFileInfo fileInfo = DartFileInfoKt.getDartFileInfo(myService.getProject(), file);
-    List<DartOverrideMember> regions = myOverrideData.get(fileInfo);
+    List<DartOverrideMember> regions = getFileData(fileInfo).overrides();
     return regions != null ? regions : Collections.emptyList();
   }
 
   @NotNull
   List<DartRegion> getImplementedClasses(@NotNull VirtualFile file) {
     DartFileInfo fileInfo = DartFileInfoKt.getDartFileInfo(myService.getProject(), file);
-    List<DartRegion> classes = myImplementedClassData.get(fileInfo);
+    List<DartRegion> classes = getFileData(fileInfo).implementedClasses();
     return classes != null ? classes : Collections.emptyList();
   }
 
   @NotNull
   List<DartRegion> getImplementedMembers(@NotNull VirtualFile file) {
     DartFileInfo fileInfo = DartFileInfoKt.getDartFileInfo(myService.getProject(), file);
-    List<DartRegion> classes = myImplementedMemberData.get(fileInfo);
+    List<DartRegion> classes = getFileData(fileInfo).implementedMembers();
     return classes != null ? classes : Collections.emptyList();
   }
 
   @Nullable
   Outline getOutline(@NotNull VirtualFile file) {
     DartFileInfo fileInfo = DartFileInfoKt.getDartFileInfo(myService.getProject(), file);
-    return myOutlineData.get(fileInfo);
+    return getFileData(fileInfo).outline();
   }
 
   void addOutlineListener(final @NotNull OutlineListener listener) {
@@ -350,13 +387,14 @@ public final class DartServerData {
     assert ApplicationManager.getApplication().isUnitTestMode();
 
     DartLocalFileInfo fileInfo = (DartLocalFileInfo)DartFileInfoKt.getDartFileInfo(myService.getProject(), file);
+    FileData data = getFileData(fileInfo);
     return isErrorInfoUpToDate(fileInfo) &&
-           myHighlightData.get(fileInfo) != null &&
-           myNavigationData.get(fileInfo) != null &&
-           myOverrideData.get(fileInfo) != null &&
-           myImplementedClassData.get(fileInfo) != null &&
-           myImplementedMemberData.get(fileInfo) != null &&
-           myOutlineData.get(fileInfo) != null;
+           data.highlights() != null &&
+           data.navigation() != null &&
+           data.overrides() != null &&
+           data.implementedClasses() != null &&
+           data.implementedMembers() != null &&
+           data.outline() != null;
   }
 
   @Nullable
@@ -365,22 +403,24 @@ public final class DartServerData {
     return myExistingImports.get(filePathSD);
   }
 
+  private @NotNull FileData getFileData(@NotNull DartFileInfo fileInfo) {
+    FileData data = myFileData.get(fileInfo);
+    return data != null ? data : FileData.EMPTY;
+  }
+
+  /**
+   * Atomically replaces the data of the file; all other files are not affected and readers are never blocked.
+   */
+  private void updateFileData(@NotNull DartFileInfo fileInfo, @NotNull UnaryOperator<FileData> update) {
+    myFileData.compute(fileInfo, (key, oldData) -> {
+      FileData newData = update.apply(oldData != null ? oldData : FileData.EMPTY);
+      return newData.isEmpty() ? null : newData;
+    });
+  }
+
   private void forceFileAnnotation(final @Nullable VirtualFile file, final boolean clearCache) {
     if (file != null) {
-      final Project project = myService.getProject();
-      if (clearCache) {
-        ResolveCache.getInstance(project).clearCache(true);
-      }
-
-      // It's ok to call DaemonCodeAnalyzer.restart() right in this thread, without invokeLater(),
-      // but it will cache RemoteAnalysisServerImpl$ServerResponseReaderThread in FileStatusMap.threads and as a result,
-      // DartAnalysisServerService.myProject will be leaked in tests
-      ApplicationManager.getApplication()
-        .invokeLater(() -> {
-                       DaemonCodeAnalyzer.getInstance(project).restart();
-                     },
-                     ModalityState.nonModal(),
-                     myService.getDisposedCondition());
+      myRestartScheduler.scheduleRestart(file, clearCache);
     }
   }
 
@@ -392,41 +432,21 @@ public final class DartServerData {
     DartFileInfo fileInfo = DartFileInfoKt.getDartFileInfo(myService.getProject(), file);
     if (!(fileInfo instanceof DartLocalFileInfo localFileInfo)) return;
 
-    // do not remove from myErrorData, this map is always kept up-to-date for all files, not only for visible
-    myHighlightData.remove(localFileInfo);
-    myNavigationData.remove(localFileInfo);
-    myOverrideData.remove(localFileInfo);
-    myImplementedClassData.remove(localFileInfo);
-    myImplementedMemberData.remove(localFileInfo);
-    myOutlineData.remove(localFileInfo);
+    // do not remove errors, they are always kept up-to-date for all files, not only for visible
+    updateFileData(localFileInfo, data -> FileData.EMPTY.withErrors(data.errors()));
   }
 
   void onFlushedResults(@NotNull List<DartFileInfo> fileInfos) {
-    removeAllFromMap(myErrorData, fileInfos);
-    removeAllFromMap(myHighlightData, fileInfos);
-    removeAllFromMap(myNavigationData, fileInfos);
-    removeAllFromMap(myOverrideData, fileInfos);
-    removeAllFromMap(myImplementedClassData, fileInfos);
-    removeAllFromMap(myImplementedMemberData, fileInfos);
-    removeAllFromMap(myOutlineData, fileInfos);
-  }
-
-  private static <T> void removeAllFromMap(@NotNull Map<T, ?> map, @NotNull List<? extends T> keys) {
-    if (map.isEmpty()) return;
+    if (myFileData.isEmpty()) return;
 
-    for (T key : keys) {
-      map.remove(key);
+    for (DartFileInfo fileInfo : fileInfos) {
+      myFileData.remove(fileInfo);
     }
   }
 
   void clearData() {
-    myErrorData.clear();
-    myHighlightData.clear();
-    myNavigationData.clear();
-    myOverrideData.clear();
-    myImplementedClassData.clear();
-    myImplementedMemberData.clear();
-    myOutlineData.clear();
+    myRestartScheduler.cancelAll();
+    myFileData.clear();
     myAvailableSuggestionSetMap.clear();
   }
 
@@ -439,110 +459,119 @@ public final class DartServerData {
 
     myLocalFilesWithUnsentChanges.add(localFileInfo);
 
-    boolean regionsUpdated = updateRegionsDeletingTouched(localFileInfo, myErrorData.get(localFileInfo), e);
-    if (regionsUpdated) {
+    FileData data = myFileData.get(localFileInfo);
+    if (data == null) return;
+
+    // regions in the published snapshot are never modified: the regions that move are copied, lists without such regions are kept
+    List<DartError> errors = updateRegions(localFileInfo, data.errors(), e, true);
+    if (errors != data.errors()) {
       myLocalFilesWithOutdatedErrorInfo.add(localFileInfo);
     }
-    updateRegionsUpdatingTouched(myHighlightData.get(localFileInfo), e);
-    updateRegionsDeletingTouched(localFileInfo, myNavigationData.get(localFileInfo), e);
-    updateRegionsDeletingTouched(localFileInfo, myOverrideData.get(localFileInfo), e);
-    updateRegionsDeletingTouched(localFileInfo, myImplementedClassData.get(localFileInfo), e);
-    updateRegionsDeletingTouched(localFileInfo, myImplementedMemberData.get(localFileInfo), e);
+    List<DartHighlightRegion> highlights = updateRegions(localFileInfo, data.highlights(), e, false);
+    List<DartNavigationRegion> navigation = updateRegions(localFileInfo, data.navigation(), e, true);
+    List<DartOverrideMember> overrides = updateRegions(localFileInfo, data.overrides(), e, true);
+    List<DartRegion> implementedClasses = updateRegions(localFileInfo, data.implementedClasses(), e, true);
+    List<DartRegion> implementedMembers = updateRegions(localFileInfo, data.implementedMembers(), e, true);
     // A bit outdated outline data is not a big problem, updated data will come shortly
+
+    if (errors == data.errors() && highlights == data.highlights() && navigation == data.navigation() && overrides == data.overrides() &&
+        implementedClasses == data.implementedClasses() && implementedMembers == data.implementedMembers()) {
+      return;
+    }
+
+    // replace only if the server hasn't published newer data for this file in the meantime
+    FileData newData = new FileData(errors, highlights, navigation, overrides, implementedClasses, implementedMembers, data.outline());
+    myFileData.computeIfPresent(localFileInfo, (key, currentData) -> currentData == data ? newData : currentData);
   }
 
   /**
-   * @return {@code true} if at least one region has been updated or deleted, {@code false} if nothing done at all
+   * @param deleteTouched whether regions touched by the change are deleted, otherwise they are resized if possible
+   * @return the same list if no region has been moved, resized or deleted, otherwise a new list where only such regions are replaced
    */
-  private static boolean updateRegionsDeletingTouched(final @NotNull DartFileInfo fileInfo,
-                                                      final @Nullable List<? extends DartRegion> regions,
-                                                      final @NotNull DocumentEvent e) {
-    if (regions == null) return false;
-
-    boolean regionUpdated = false;
-
-    // delete touched regions, shift untouched
-    final int eventOffset = e.getOffset();
-    final int deltaLength = e.getNewLength() - e.getOldLength();
-
-    final Iterator<? extends DartRegion> iterator = regions.iterator();
-    while (iterator.hasNext()) {
-      final DartRegion region = iterator.next();
-
-      if (region instanceof DartNavigationRegion) {
-        // may be we'd better delete target touched by editing?
-        for (DartNavigationTarget target : ((DartNavigationRegion)region).getTargets()) {
-          if (target.myFileInfo.equals(fileInfo) && target.myConvertedOffset >= eventOffset) {
-            target.myConvertedOffset += deltaLength;
-          }
-        }
+  private static <T extends DartRegion> @Nullable List<T> updateRegions(final @NotNull DartFileInfo fileInfo,
+                                                                         final @Nullable List<T> regions,
+                                                                         final @NotNull DocumentEvent e,
+                                                                         final boolean deleteTouched) {
+    if (regions == null) return null;
+
+    List<T> result = null;
+    for (int i = 0; i < regions.size(); i++) {
+      final T region = regions.get(i);
+      final T updated = updateRegion(fileInfo, region, e, deleteTouched);
+      if (updated != region && result == null) {
+        result = new ArrayList<>(regions.size());
+        result.addAll(regions.subList(0, i));
       }
-
-      if (deltaLength > 0) {
-        // Something was typed. Shift untouched regions, delete touched.
-        if (eventOffset <= region.myOffset) {
-          region.myOffset += deltaLength;
-          regionUpdated = true;
-        }
-        else if (eventOffset < region.myOffset + region.myLength) {
-          iterator.remove();
-          regionUpdated = true;
-        }
-      }
-      else if (deltaLength < 0) {
-        // Some text was deleted. Shift untouched regions, delete touched.
-        final int eventRightOffset = eventOffset - deltaLength;
-
-        if (eventRightOffset <= region.myOffset) {
-          region.myOffset += deltaLength;
-          regionUpdated = true;
-        }
-        else if (eventOffset < region.myOffset + region.myLength) {
-          iterator.remove();
-          regionUpdated = true;
-        }
+      if (result != null && updated != null) {
+        result.add(updated);
       }
     }
-
-    return regionUpdated;
+    return result != null ? result : regions;
   }
 
-  private static void updateRegionsUpdatingTouched(final @Nullable List<? extends DartRegion> regions,
-                                                   final @NotNull DocumentEvent e) {
-    if (regions == null) return;
-
+  /**
+   * @return {@code region} itself if it is not affected by the change, {@code null} if it is deleted, or its updated copy
+   */
+  private static <T extends DartRegion> @Nullable T updateRegion(final @NotNull DartFileInfo fileInfo,
+                                                                 final @NotNull T region,
+                                                                 final @NotNull DocumentEvent e,
+                                                                 final boolean deleteTouched) {
     final int eventOffset = e.getOffset();
     final int deltaLength = e.getNewLength() - e.getOldLength();
+    int newOffset = region.myOffset;
+    int newLength = region.myLength;
 
-    final Iterator<? extends DartRegion> iterator = regions.iterator();
-    while (iterator.hasNext()) {
-      final DartRegion region = iterator.next();
+    if (deltaLength > 0) {
+      // Something was typed. Shift untouched regions, delete or update touched.
+      if (eventOffset <= region.myOffset) {
+        newOffset += deltaLength;
+      }
+      else if (eventOffset < region.myOffset + region.myLength) {
+        if (deleteTouched) return null;
+        newLength += deltaLength;
+      }
+    }
+    else if (deltaLength < 0) {
+      // Some text was deleted. Shift untouched regions, delete or update touched.
+      final int eventRightOffset = eventOffset - deltaLength;
+      final int regionRightOffset = region.myOffset + region.myLength;
 
-      if (deltaLength > 0) {
-        // Something was typed. Shift untouched regions, update touched.
-        if (eventOffset <= region.myOffset) {
-          region.myOffset += deltaLength;
-        }
-        else if (eventOffset < region.myOffset + region.myLength) {
-          region.myLength += deltaLength;
-        }
+      if (eventRightOffset <= region.myOffset) {
+        newOffset += deltaLength;
+      }
+      else if (!deleteTouched &&
+               region.myOffset <= eventOffset && eventRightOffset <= regionRightOffset && region.myLength != -deltaLength) {
+        newLength += deltaLength;
       }
-      else if (deltaLength < 0) {
-        // Some text was deleted. Shift untouched regions, delete or update touched.
-        final int eventRightOffset = eventOffset - deltaLength;
-        final int regionRightOffset = region.myOffset + region.myLength;
+      else if (eventOffset < regionRightOffset) {
+        return null;
+      }
+    }
 
-        if (eventRightOffset <= region.myOffset) {
-          region.myOffset += deltaLength;
-        }
-        else if (region.myOffset <= eventOffset && eventRightOffset <= regionRightOffset && region.myLength != -deltaLength) {
-          region.myLength += deltaLength;
-        }
-        else if (eventOffset < regionRightOffset) {
-          iterator.remove();
+    // may be we'd better delete target touched by editing?
+    final boolean shiftTargets =
+      deltaLength != 0 && region instanceof DartNavigationRegion navigationRegion &&
+      ContainerUtil.exists(navigationRegion.getTargets(), target -> isShiftedTarget(fileInfo, target, eventOffset));
+    if (newOffset == region.myOffset && newLength == region.myLength && !shiftTargets) return region;
+
+    //noinspection unchecked
+    final T copy = (T)region.copy();
+    copy.myOffset = newOffset;
+    copy.myLength = newLength;
+    if (shiftTargets) {
+      for (DartNavigationTarget target : ((DartNavigationRegion)copy).getTargets()) {
+        if (isShiftedTarget(fileInfo, target, eventOffset)) {
+          target.myConvertedOffset += deltaLength;
         }
       }
     }
+    return copy;
+  }
+
+  private static boolean isShiftedTarget(final @NotNull DartFileInfo fileInfo,
+                                         final @NotNull DartNavigationTarget target,
+                                         final int eventOffset) {
+    return target.myFileInfo.equals(fileInfo) && target.myConvertedOffset >= eventOffset;
   }
 
   public static class DartRegion {
@@ -562,6 +591,14 @@ public final class DartServerData {
       return myLength;
     }
 
+    /**
+     * Published regions are never modified, a region moved by a document change is replaced with its updated copy.
+     */
+    @NotNull
+    DartRegion copy() {
+      return new DartRegion(myOffset, myLength);
+    }
+
     @Override
     public boolean equals(Object o) {
       return o instanceof DartRegion && myOffset == ((DartRegion)o).myOffset && myLength == ((DartRegion)o).myLength;
@@ -584,6 +621,12 @@ public final class DartServerData {
     public String getType() {
       return type;
     }
+
+    @Override
+    @NotNull
+    DartHighlightRegion copy() {
+      return new DartHighlightRegion(myOffset, myLength, type);
+    }
   }
 
   public static final class DartError extends DartRegion {
@@ -628,6 +671,12 @@ public final class DartServerData {
       myUrl = url;
     }
 
+    @Override
+    @NotNull
+    DartError copy() {
+      return new DartError(myOffset, myLength, mySeverity, myCode, myMessage, myContextMessages, myCorrection, myUrl);
+    }
+
     public @NotNull @NonNls String getSeverity() {
       return mySeverity;
     }
@@ -673,6 +722,16 @@ public final class DartServerData {
     public List<DartNavigationTarget> getTargets() {
       return myTargets;
     }
+
+    @Override
+    @NotNull
+    DartNavigationRegion copy() {
+      final SmartList<DartNavigationTarget> targets = new SmartList<>();
+      for (DartNavigationTarget target : myTargets) {
+        targets.add(target.copy());
+      }
+      return new DartNavigationRegion(myOffset, myLength, targets);
+    }
   }
 
   public static final class DartNavigationTarget {
@@ -702,6 +761,12 @@ public final class DartServerData {
     public String getKind() {
       return myKind;
     }
+
+    private @NotNull DartNavigationTarget copy() {
+      final DartNavigationTarget copy = new DartNavigationTarget(myFileInfo, myOriginalOffset, myKind);
+      copy.myConvertedOffset = myConvertedOffset;
+      return copy;
+    }
   }
 
   public static final class DartOverrideMember extends DartRegion {
@@ -724,5 +789,11 @@ public final class DartServerData {
     public @Nullable List<OverriddenMember> getInterfaceMembers() {
       return myInterfaceMembers;
     }
+
+    @Override
+    @NotNull
+    DartOverrideMember copy() {
+      return new DartOverrideMember(myOffset, myLength, mySuperclassMember, myInterfaceMembers);
+    }
   }
 }
@@ -1,70 +1,161 @@
 // Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
 package com.jetbrains.lang.dart.coverage;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.intellij.openapi.progress.ProgressManager;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.*;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
-public class DartCoverageData {
-  private @Nullable List<DartFileCoverageData> coverage;
+/**
+ * Streaming reader of the coverage JSON produced by {@code package:coverage}:
+ * <pre>{"type": "CodeCoverage", "coverage": [{"source": "package:foo/foo.dart", "hits": [line, count, line, count, ...]}, ...]}</pre>
+ * Coverage reports of big Flutter apps reach hundreds of MB, so the file is never deserialized as a whole:
+ * hits of all entries with the same source are merged right away into a primitive {@link LineHits} array.
+ */
+public final class DartCoverageData {
+  private final @NotNull Map<String, LineHits> mySourceToHits = new HashMap<>();
 
-  public @Nullable List<DartFileCoverageData> getCoverage() {
-    return coverage;
+  private DartCoverageData() {
   }
 
-  public void setCoverage(@Nullable List<DartFileCoverageData> coverage) {
-    this.coverage = coverage;
+  public @NotNull Map<String, LineHits> getMergedDartFileCoverageData() {
+    return mySourceToHits;
   }
 
-  public @NotNull Map<String, SortedMap<Integer, Integer>> getMergedDartFileCoverageData() {
-    Map<String, SortedMap<Integer, Integer>> mergedCoverageData = new HashMap<>();
-    List<DartFileCoverageData> coverageData = getCoverage();
-    if (coverageData != null) {
-      for (DartFileCoverageData item : coverageData) {
-        String source = item.getSource();
-        if (source == null) {
-          continue;
-        }
-        SortedMap<Integer, Integer> fileData = mergedCoverageData.computeIfAbsent(source, k -> new TreeMap<>());
-        List<Integer> hits = item.getHits();
-        if (hits == null) {
-          continue;
-        }
-        for (int i = 0; i < hits.size(); i += 2) {
-          Integer lineNumber = hits.get(i);
-          Integer hitCount = hits.get(i + 1);
-          if (!fileData.containsKey(lineNumber)) {
-            fileData.put(lineNumber, 0);
-          }
+  /**
+   * @return {@code null} if the report is empty or {@code null}
+   */
+  public static @Nullable DartCoverageData load(@NotNull Reader reader) throws IOException {
+    final DartCoverageData data = new DartCoverageData();
+
+    try (JsonReader jsonReader = new JsonReader(reader)) {
+      try {
+        if (jsonReader.peek() == JsonToken.NULL) return null;
+      }
+      catch (EOFException e) {
+        return null;
+      }
 
-          fileData.put(lineNumber, fileData.get(lineNumber) + hitCount);
+      jsonReader.beginObject();
+      while (jsonReader.hasNext()) {
+        if ("coverage".equals(jsonReader.nextName()) && jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+          jsonReader.beginArray();
+          while (jsonReader.hasNext()) {
+            ProgressManager.checkCanceled();
+            data.readFileCoverage(jsonReader);
+          }
+          jsonReader.endArray();
+        }
+        else {
+          jsonReader.skipValue();
         }
       }
+      jsonReader.endObject();
     }
 
-    return mergedCoverageData;
+    return data;
   }
-}
 
+  private void readFileCoverage(@NotNull JsonReader jsonReader) throws IOException {
+    if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+      jsonReader.skipValue();
+      return;
+    }
 
-class DartFileCoverageData {
-  private @Nullable String source;
-  private @Nullable List<Integer> hits;
+    String source = null;
+    LineHits pendingHits = null; // 'hits' may come before 'source'
 
-  public @Nullable String getSource() {
-    return source;
-  }
+    jsonReader.beginObject();
+    while (jsonReader.hasNext()) {
+      final String name = jsonReader.nextName();
+      if ("source".equals(name) && jsonReader.peek() == JsonToken.STRING) {
+        source = jsonReader.nextString();
+      }
+      else if ("hits".equals(name) && jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+        final LineHits hits = source != null ? mySourceToHits.computeIfAbsent(source, s -> new LineHits()) : new LineHits();
+        readHits(jsonReader, hits);
+        if (source == null) {
+          pendingHits = hits;
+        }
+      }
+      else {
+        jsonReader.skipValue();
+      }
+    }
+    jsonReader.endObject();
+
+    if (source == null) return;
 
-  public void setSource(@Nullable String source) {
-    this.source = source;
+    final LineHits hits = mySourceToHits.computeIfAbsent(source, s -> new LineHits());
+    if (pendingHits != null) {
+      hits.addAll(pendingHits);
+    }
   }
 
-  public @Nullable List<Integer> getHits() {
-    return hits;
+  private static void readHits(@NotNull JsonReader jsonReader, @NotNull LineHits hits) throws IOException {
+    jsonReader.beginArray();
+    while (jsonReader.hasNext()) {
+      final int line = jsonReader.nextInt();
+      if (!jsonReader.hasNext()) break;
+      hits.add(line, jsonReader.nextInt());
+    }
+    jsonReader.endArray();
   }
 
-  public void setHits(@Nullable List<Integer> hits) {
-    this.hits = hits;
+  /**
+   * Hit counts indexed by line number, {@code -1} for lines that are not mentioned in the report.
+   */
+  public static final class LineHits {
+    private static final int NO_DATA = -1;
+
+    private int[] myHits = new int[0];
+    private int myMaxLine = -1;
+
+    void add(int line, int count) {
+      if (line < 0) return;
+
+      if (line >= myHits.length) {
+        final int oldLength = myHits.length;
+        myHits = Arrays.copyOf(myHits, Math.max(line + 1, oldLength * 2));
+        Arrays.fill(myHits, oldLength, myHits.length, NO_DATA);
+      }
+
+      myHits[line] = Math.max(myHits[line], 0) + count;
+      myMaxLine = Math.max(myMaxLine, line);
+    }
+
+    private void addAll(@NotNull LineHits other) {
+      for (int line = 0; line <= other.myMaxLine; line++) {
+        if (other.myHits[line] != NO_DATA) {
+          add(line, other.myHits[line]);
+        }
+      }
+    }
+
+    /**
+     * @return {@code -1} if there are no lines
+     */
+    public int getMaxLine() {
+      return myMaxLine;
+    }
+
+    public boolean hasLine(int line) {
+      return line >= 0 && line <= myMaxLine && myHits[line] != NO_DATA;
+    }
+
+    /**
+     * Must be called only for lines for which {@link #hasLine(int)} is {@code true}
+     */
+    public int getHits(int line) {
+      return myHits[line];
+    }
   }
-}
\ No newline at end of file
+}
@@ -1,8 +1,6 @@
 // Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
 package com.jetbrains.lang.dart.coverage;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
 import com.intellij.coverage.CoverageEngine;
 import com.intellij.coverage.CoverageLoadErrorReporter;
 import com.intellij.coverage.CoverageRunner;
@@ -31,9 +29,9 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
-import java.util.Map;
-import java.util.SortedMap;
+import java.util.*;
 
 public final class DartCoverageRunner extends CoverageRunner {
   private static final String ID = "DartCoverageRunner";
@@ -107,18 +105,23 @@ public final class DartCoverageRunner extends CoverageRunner {
     final ProjectData projectData = new ProjectData();
 
     try {
-      DartCoverageData data =
-        new Gson().fromJson(new BufferedReader(new FileReader(sessionDataFile, StandardCharsets.UTF_8)), DartCoverageData.class);
+      final DartCoverageData data;
+      try (Reader reader = new BufferedReader(new FileReader(sessionDataFile, StandardCharsets.UTF_8))) {
+        data = DartCoverageData.load(reader);
+      }
       if (data == null) {
         String message = "Coverage file does not contain valid data.";
         LOG.warn(message);
         return new FailedCoverageLoadingResult(message);
       }
 
-      for (Map.Entry<String, SortedMap<Integer, Integer>> entry : data.getMergedDartFileCoverageData().entrySet()) {
+      final Map<String, DartCoverageData.LineHits> sourceToHits = data.getMergedDartFileCoverageData();
+      final Map<String, String> uriToFilePath = getFilesForUris(project, contextId, sourceToHits.keySet());
+
+      for (Map.Entry<String, DartCoverageData.LineHits> entry : sourceToHits.entrySet()) {
         ProgressManager.checkCanceled();
 
-        String filePath = getFileForUri(project, contextId, entry.getKey());
+        String filePath = uriToFilePath.get(entry.getKey());
         if (filePath == null) {
           // File is not found.
           String message = "Could not find source: " + entry.getKey();
@@ -126,22 +129,24 @@ public final class DartCoverageRunner extends CoverageRunner {
           reporter.reportWarning(message, null);
           continue;
         }
-        SortedMap<Integer, Integer> lineHits = entry.getValue();
+        DartCoverageData.LineHits lineHits = entry.getValue();
         ClassData classData = projectData.getOrCreateClassData(filePath);
-        if (lineHits.isEmpty()) {
+        if (lineHits.getMaxLine() < 0) {
           classData.setLines(new LineData[1]);
           continue;
         }
-        LineData[] lines = new LineData[lineHits.lastKey() + 1];
-        for (Map.Entry<Integer, Integer> hit : lineHits.entrySet()) {
-          LineData lineData = new LineData(hit.getKey(), null);
-          lineData.setHits(hit.getValue());
-          lines[hit.getKey()] = lineData;
+        LineData[] lines = new LineData[lineHits.getMaxLine() + 1];
+        for (int line = 0; line < lines.length; line++) {
+          if (lineHits.hasLine(line)) {
+            LineData lineData = new LineData(line, null);
+            lineData.setHits(lineHits.getHits(line));
+            lines[line] = lineData;
+          }
         }
         classData.setLines(lines);
       }
     }
-    catch (JsonSyntaxException | IOException e) {
+    catch (IllegalStateException | NumberFormatException | IOException e) {
       LOG.warn(e);
       reporter.reportWarning(e);
     }
@@ -151,18 +156,29 @@ public final class DartCoverageRunner extends CoverageRunner {
     return new SuccessCoverageLoadingResult(projectData);
   }
 
-  private static @Nullable String getFileForUri(final @NotNull Project project, final @NotNull String contextId, final @NotNull String uri) {
-    if (uri.startsWith("dart:_") || uri.startsWith("dart:") && uri.contains("-patch/")) {
-      // dart:_builtin or dart:core-patch/core_patch.dart
-      return null;
+  /**
+   * @return map from the source URI to the local file path; URIs that can't be mapped to local files are not included
+   */
+  private static @NotNull Map<String, String> getFilesForUris(final @NotNull Project project,
+                                                              final @NotNull String contextId,
+                                                              final @NotNull Collection<String> uris) {
+    final List<String> urisToMap = new ArrayList<>(uris.size());
+    for (String uri : uris) {
+      if (uri.startsWith("dart:_") || uri.startsWith("dart:") && uri.contains("-patch/")) {
+        // dart:_builtin or dart:core-patch/core_patch.dart
+        continue;
+      }
+      urisToMap.add(uri);
     }
 
-    String filePathOrUri = DartAnalysisServerService.getInstance(project).execution_mapUri(contextId, uri);
-    DartFileInfo fileInfo = filePathOrUri != null ? DartFileInfoKt.getDartFileInfo(project, filePathOrUri) : null;
-    if (fileInfo instanceof DartLocalFileInfo localFileInfo) {
-      return localFileInfo.getFilePath();
+    final Map<String, String> result = new HashMap<>();
+    for (Map.Entry<String, String> entry : DartAnalysisServerService.getInstance(project).execution_mapUris(contextId, urisToMap).entrySet()) {
+      DartFileInfo fileInfo = DartFileInfoKt.getDartFileInfo(project, entry.getValue());
+      if (fileInfo instanceof DartLocalFileInfo localFileInfo) {
+        result.put(entry.getKey(), localFileInfo.getFilePath());
+      }
     }
-    return null;
+    return result;
   }
 
   @Override
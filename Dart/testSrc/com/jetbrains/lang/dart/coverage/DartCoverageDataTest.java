@@ -0,0 +1,42 @@
+// Copyright 2000-2025 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.jetbrains.lang.dart.coverage;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+public class DartCoverageDataTest extends TestCase {
+  public void testMergedHits() throws IOException {
+    final String json = """
+      {"type": "CodeCoverage", "coverage": [
+        {"source": "package:foo/foo.dart", "script": {"type": "@Script"}, "hits": [1, 0, 3, 2]},
+        {"hits": [3, 1, 5, 0], "source": "package:foo/foo.dart"},
+        {"source": "package:foo/bar.dart", "hits": []}
+      ]}""";
+
+    final DartCoverageData coverageData = DartCoverageData.load(new StringReader(json));
+    assertNotNull(coverageData);
+    final Map<String, DartCoverageData.LineHits> data = coverageData.getMergedDartFileCoverageData();
+    assertEquals(2, data.size());
+
+    final DartCoverageData.LineHits foo = data.get("package:foo/foo.dart");
+    assertEquals(5, foo.getMaxLine());
+    assertFalse(foo.hasLine(0));
+    assertTrue(foo.hasLine(1));
+    assertEquals(0, foo.getHits(1));
+    assertFalse(foo.hasLine(2));
+    assertEquals(3, foo.getHits(3));
+    assertFalse(foo.hasLine(4));
+    assertEquals(0, foo.getHits(5));
+    assertFalse(foo.hasLine(6));
+
+    assertEquals(-1, data.get("package:foo/bar.dart").getMaxLine());
+  }
+
+  public void testEmptyReport() throws IOException {
+    assertNull(DartCoverageData.load(new StringReader("")));
+    assertNull(DartCoverageData.load(new StringReader("null")));
+  }
+}
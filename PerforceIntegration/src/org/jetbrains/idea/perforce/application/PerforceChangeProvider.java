@@ -52,6 +52,8 @@ public class PerforceChangeProvider implements ChangeProvider {
   private final Map<VirtualFile, Boolean> myAlwaysWritable = new ConcurrentHashMap<>();
   private final PerforceShelf myShelf;
   private final PerforceVcs myVcs;
+  // the changes of the previous refresh, reused for the pending changelists that haven't been modified since then
+  private volatile PerforceChangeCache myLastChangeCache;
 
   public PerforceChangeProvider(final PerforceVcs vcs) {
     myVcs = vcs;
@@ -92,8 +94,10 @@ public class PerforceChangeProvider implements ChangeProvider {
     myShelf.clearShelf();
     PerforceManager.getInstance(myProject).clearInfoClientCache();
 
-    PerforceChangeCache changeCache = new PerforceChangeCache(myProject);
+    PerforceChangeCache changeCache = new PerforceChangeCache(myProject, myLastChangeCache);
+    myLastChangeCache = null;
     MultiMap<ConnectionKey, PerforceChangeList> allLists = calcChangeListMap(changeCache);
+    myLastChangeCache = changeCache;
     PerforceSettings settings = PerforceSettings.getSettings(myProject);
     HashSet<String> ideaLists = new HashSet<>();
     refreshSynchronizer(settings, addGate, allLists, ideaLists);
@@ -351,6 +355,7 @@ public class PerforceChangeProvider implements ChangeProvider {
   public void discardCache() {
     myReadOnlyFileStateManager.discardUnversioned();
     myAlwaysWritable.clear();
+    myLastChangeCache = null;
   }
 
   @TestOnly
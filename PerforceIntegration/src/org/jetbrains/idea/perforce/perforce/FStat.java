@@ -16,6 +16,7 @@
 package org.jetbrains.idea.perforce.perforce;
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vcs.VcsException;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.Nullable;
@@ -28,6 +29,7 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 
 public final class FStat {
@@ -222,6 +224,45 @@ public final class FStat {
     return result;
   }
 
+  /**
+   * Fields of {@code p4 -G fstat} records that are read by {@link #fromMarshalled(Map)}
+   */
+  static final Set<String> MARSHALLED_FIELDS = Set.of(MOVED_FILE_STATUS_FIELD,
+                                                      CLIENT_FILE_STATUS_FIELD.trim(),
+                                                      DEPOT_FILE_STATUS_FIELD.trim(),
+                                                      HEAD_ACTION_STATUS_FIELD.trim(),
+                                                      HEAD_CHANGE_STATUS_FIELD.trim(),
+                                                      HEAD_REV_STATUS_FIELD.trim(),
+                                                      HEAD_TYPE_STATUS_FIELD.trim(),
+                                                      HEAD_TIME_STATUS_FIELD.trim(),
+                                                      HAVE_REV_STATUS_FIELD.trim(),
+                                                      ACTION_STATUS_FIELD.trim(),
+                                                      ACTION_OWNER_STATUS_FIELD.trim(),
+                                                      CHANGE_STATUS_FIELD.trim(),
+                                                      UNRESOLVED_STATUS_FIELD.trim());
+
+  /**
+   * Creates {@code FStat} from a {@code p4 -G fstat} record, the counterpart of {@link #parseFStat(BufferedReader)}
+   */
+  static FStat fromMarshalled(Map<String, String> record) throws VcsException {
+    FStat result = new FStat();
+    result.clientFile = StringUtil.notNullize(record.get(CLIENT_FILE_STATUS_FIELD.trim()));
+    result.depotFile = StringUtil.notNullize(record.get(DEPOT_FILE_STATUS_FIELD.trim()));
+    result.headAction = StringUtil.notNullize(record.get(HEAD_ACTION_STATUS_FIELD.trim()));
+    result.headChange = StringUtil.notNullize(record.get(HEAD_CHANGE_STATUS_FIELD.trim()));
+    result.headRev = StringUtil.notNullize(record.get(HEAD_REV_STATUS_FIELD.trim()));
+    result.headType = StringUtil.notNullize(record.get(HEAD_TYPE_STATUS_FIELD.trim()));
+    result.headTime = StringUtil.notNullize(record.get(HEAD_TIME_STATUS_FIELD.trim()));
+    result.haveRev = StringUtil.notNullize(record.get(HAVE_REV_STATUS_FIELD.trim()));
+    result.action = StringUtil.notNullize(record.get(ACTION_STATUS_FIELD.trim()));
+    result.actionOwner = StringUtil.notNullize(record.get(ACTION_OWNER_STATUS_FIELD.trim()));
+    result.change = StringUtil.notNullize(record.get(CHANGE_STATUS_FIELD.trim()));
+    result.unresolved = record.get(UNRESOLVED_STATUS_FIELD.trim());
+    result.movedFile = StringUtil.notNullize(record.get(MOVED_FILE_STATUS_FIELD));
+    result.resolveStatus();
+    return result;
+  }
+
   public static Map<File, String> splitOutputForEachFile(final String stdOut) throws IOException {
     final BufferedReader reader = new BufferedReader(new StringReader(stdOut));
     String line;
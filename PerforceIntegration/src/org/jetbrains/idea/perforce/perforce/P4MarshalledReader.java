@@ -0,0 +1,159 @@
+package org.jetbrains.idea.perforce.perforce;
+
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming decoder of the Python-marshalled output produced by {@code p4 -G}.
+ * <p>
+ * Each record is a marshalled dictionary of string keys and string or integer values, records follow each other till the end
+ * of the stream. The reader keeps a single growing buffer for all strings and creates {@link String} objects only for the keys
+ * listed in {@code fields}, values of the other keys are skipped without decoding.
+ */
+public final class P4MarshalledReader {
+  public static final @NonNls String CODE_FIELD = "code";
+  public static final @NonNls String DATA_FIELD = "data";
+  public static final @NonNls String ERROR_CODE = "error";
+  public static final @NonNls String INFO_CODE = "info";
+
+  private static final int TYPE_DICT = '{';
+  private static final int TYPE_DICT_END = '0';
+  private static final int TYPE_STRING = 's';
+  private static final int TYPE_INTERNED = 't';
+  private static final int TYPE_UNICODE = 'u';
+  private static final int TYPE_INT = 'i';
+  private static final int TYPE_NONE = 'N';
+  private static final int TYPE_TRUE = 'T';
+  private static final int TYPE_FALSE = 'F';
+
+  private final InputStream myStream;
+  private final Charset myCharset;
+  private final Set<String> myFields;
+  private byte[] myBuffer = new byte[256];
+
+  /**
+   * @param fields keys whose values should be decoded, {@link #CODE_FIELD} and {@link #DATA_FIELD} are always decoded
+   */
+  public P4MarshalledReader(@NotNull InputStream stream, @NotNull Charset charset, @NotNull Set<String> fields) {
+    myStream = stream;
+    myCharset = charset;
+    myFields = fields;
+  }
+
+  /**
+   * @return the next record, or {@code null} if the end of the stream is reached
+   */
+  public @Nullable Map<String, String> readRecord() throws IOException {
+    int type = myStream.read();
+    if (type < 0) return null;
+    if (type != TYPE_DICT) {
+      throw new IOException("Unexpected p4 -G output: dictionary expected, got type '" + (char)type + "'");
+    }
+
+    Map<String, String> record = new HashMap<>();
+    while (true) {
+      int keyType = readByte();
+      if (keyType == TYPE_DICT_END) break;
+
+      int keyLength = readStringIntoBuffer(keyType);
+      String key = new String(myBuffer, 0, keyLength, myCharset);
+
+      if (myFields.contains(key) || CODE_FIELD.equals(key) || DATA_FIELD.equals(key)) {
+        record.put(key, readValue());
+      }
+      else {
+        skipValue();
+      }
+    }
+    return record;
+  }
+
+  public static boolean isError(@NotNull Map<String, String> record) {
+    return ERROR_CODE.equals(record.get(CODE_FIELD));
+  }
+
+  private @Nullable String readValue() throws IOException {
+    int type = readByte();
+    return switch (type) {
+      case TYPE_STRING, TYPE_INTERNED, TYPE_UNICODE -> new String(myBuffer, 0, readStringIntoBuffer(type), myCharset);
+      case TYPE_INT -> String.valueOf(readInt());
+      case TYPE_TRUE -> "true";
+      case TYPE_FALSE -> "false";
+      case TYPE_NONE -> null;
+      default -> throw new IOException("Unsupported p4 -G value type '" + (char)type + "'");
+    };
+  }
+
+  private void skipValue() throws IOException {
+    int type = readByte();
+    switch (type) {
+      case TYPE_STRING, TYPE_INTERNED, TYPE_UNICODE -> skipFully(readInt());
+      case TYPE_INT -> skipFully(4);
+      case TYPE_TRUE, TYPE_FALSE, TYPE_NONE -> { }
+      default -> throw new IOException("Unsupported p4 -G value type '" + (char)type + "'");
+    }
+  }
+
+  /**
+   * Reads a string of the given type into {@link #myBuffer}.
+   */
+  private int readStringIntoBuffer(int type) throws IOException {
+    if (type != TYPE_STRING && type != TYPE_INTERNED && type != TYPE_UNICODE) {
+      throw new IOException("Unexpected p4 -G output: string expected, got type '" + (char)type + "'");
+    }
+    int length = readInt();
+    if (length < 0) {
+      throw new IOException("Unexpected p4 -G output: negative string length " + length);
+    }
+    if (length > myBuffer.length) {
+      myBuffer = new byte[Math.max(length, myBuffer.length * 2)];
+    }
+    readFully(length);
+    return length;
+  }
+
+  private int readInt() throws IOException {
+    // marshal writes little-endian 32-bit integers
+    int b0 = readByte();
+    int b1 = readByte();
+    int b2 = readByte();
+    int b3 = readByte();
+    return b0 | (b1 << 8) | (b2 << 16) | (b3 << 24);
+  }
+
+  private int readByte() throws IOException {
+    int b = myStream.read();
+    if (b < 0) throw new EOFException("Unexpected end of p4 -G output");
+    return b;
+  }
+
+  private void readFully(int length) throws IOException {
+    int offset = 0;
+    while (offset < length) {
+      int read = myStream.read(myBuffer, offset, length - offset);
+      if (read < 0) throw new EOFException("Unexpected end of p4 -G output");
+      offset += read;
+    }
+  }
+
+  private void skipFully(int length) throws IOException {
+    long remaining = length;
+    while (remaining > 0) {
+      long skipped = myStream.skip(remaining);
+      if (skipped <= 0) {
+        readByte();
+        skipped = 1;
+      }
+      remaining -= skipped;
+    }
+  }
+}
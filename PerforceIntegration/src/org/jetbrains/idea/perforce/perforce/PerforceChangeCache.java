@@ -2,10 +2,10 @@ package org.jetbrains.idea.perforce.perforce;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.SystemInfoRt;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vcs.VcsException;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
@@ -14,48 +14,166 @@ import org.jetbrains.idea.perforce.application.PerforceManager;
 import org.jetbrains.idea.perforce.perforce.connections.P4Connection;
 
 import java.io.File;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class PerforceChangeCache {
+  private static final Comparator<String> PATH_ORDER = SystemInfoRt.isFileSystemCaseSensitive
+                                                       ? Comparator.naturalOrder()
+                                                       : String.CASE_INSENSITIVE_ORDER;
+
   private final PerforceRunner myRunner;
   private final PerforceManager myPerforceManager;
-  private final Map<Pair<Long, ConnectionKey>, List<PerforceChange>> myCache = new ConcurrentHashMap<>();
+  private final Map<Pair<Long, ConnectionKey>, IndexedChanges> myCache = new ConcurrentHashMap<>();
+  private final Map<Pair<Long, ConnectionKey>, ChangeListState> myStates = new ConcurrentHashMap<>();
+  private final Map<Pair<Long, ConnectionKey>, IndexedChanges> myPreviousCache;
+  private final Map<Pair<Long, ConnectionKey>, ChangeListState> myPreviousStates;
 
   public PerforceChangeCache(Project project) {
+    this(project, null);
+  }
+
+  /**
+   * @param previous the cache of the previous refresh, its changes are reused for the changelists that haven't been modified since then,
+   *                 see {@link #retainUnchanged}
+   */
+  public PerforceChangeCache(Project project, @Nullable PerforceChangeCache previous) {
     myRunner = PerforceRunner.getInstance(project);
     myPerforceManager = PerforceManager.getInstance(project);
+    myPreviousCache = previous == null ? Collections.emptyMap() : previous.myCache;
+    myPreviousStates = previous == null ? Collections.emptyMap() : previous.myStates;
   }
 
   public @Unmodifiable List<PerforceChange> getChanges(P4Connection connection, final long changeListNumber, final @Nullable VirtualFile vcsRoot) {
-    List<PerforceChange> all = myCache.get(createKey(connection, changeListNumber));
+    IndexedChanges all = myCache.get(createKey(connection, changeListNumber));
     if (all == null) {
+      List<PerforceChange> changes;
       try {
-        all = myRunner.getChanges(connection, changeListNumber);
+        changes = myRunner.getChanges(connection, changeListNumber);
       }
       catch (VcsException e) {
-        all = Collections.emptyList();
+        changes = Collections.emptyList();
       }
-      setChanges(connection, changeListNumber, all);
+      all = putChanges(connection, changeListNumber, changes);
     }
     if (vcsRoot == null) {
-      return all;
+      return all.myChanges;
     }
     final String rootPath = FileUtil.toSystemDependentName(myPerforceManager.convertP4ParsedPath(null, vcsRoot.getPath()));
-
-    return ContainerUtil.findAll(all, change -> {
-      File file = change.getFile();
-      return file != null && FileUtil.startsWith(file.getAbsolutePath(), rootPath);
-    });
+    return all.getChangesUnder(rootPath);
   }
 
   public void setChanges(P4Connection connection, final long changeListNumber, @NotNull List<PerforceChange> changes) {
-    myCache.put(createKey(connection, changeListNumber), changes);
+    putChanges(connection, changeListNumber, changes);
+  }
+
+  private IndexedChanges putChanges(P4Connection connection, long changeListNumber, @NotNull List<PerforceChange> changes) {
+    IndexedChanges indexed = new IndexedChanges(changes);
+    myCache.put(createKey(connection, changeListNumber), indexed);
+    return indexed;
+  }
+
+  /**
+   * Remembers the modification date, description and opened file revisions of the given pending changelists,
+   * and takes the changes of the previous refresh for those of them which are the same as they were then.
+   *
+   * @param opened the result of 'p4 opened' for the whole client
+   * @return the changelists which have to be described again
+   */
+  public @NotNull List<PerforceChangeList> retainUnchanged(P4Connection connection,
+                                                           @NotNull List<PerforceChangeList> lists,
+                                                           @NotNull List<PerforceChange> opened) {
+    Map<Long, Map<String, String>> revisions = new HashMap<>();
+    for (PerforceChange change : opened) {
+      revisions.computeIfAbsent(change.getChangeList(), number -> new HashMap<>())
+        .put(change.getDepotPath(), change.getRevision() + " " + change.getType());
+    }
+
+    List<PerforceChangeList> modified = new ArrayList<>();
+    for (PerforceChangeList list : lists) {
+      Pair<Long, ConnectionKey> key = createKey(connection, list.getNumber());
+      ChangeListState state = new ChangeListState(list.getCommitDate(), list.getComment(),
+                                                  revisions.getOrDefault(list.getNumber(), Collections.emptyMap()));
+      myStates.put(key, state);
+
+      IndexedChanges previousChanges = myPreviousCache.get(key);
+      if (previousChanges != null && state.equals(myPreviousStates.get(key))) {
+        myCache.put(key, previousChanges);
+      }
+      else {
+        modified.add(list);
+      }
+    }
+    return modified;
   }
 
   private static Pair<Long, ConnectionKey> createKey(P4Connection connection, long changeListNumber) {
     return new Pair<>(changeListNumber, connection.getConnectionKey());
   }
+
+  private record ChangeListState(Date date, String description, Map<String, String> revisions) {
+  }
+
+  /**
+   * Changes of a changelist sorted by their local paths, so that the changes under a VCS root are found by a binary search
+   * instead of checking every change of the list
+   */
+  private static final class IndexedChanges {
+    private final @Unmodifiable List<PerforceChange> myChanges;
+    private final String[] myPaths;
+    private final PerforceChange[] mySorted;
+    private final Map<String, List<PerforceChange>> myChangesUnder = new ConcurrentHashMap<>();
+
+    IndexedChanges(@NotNull List<PerforceChange> changes) {
+      myChanges = Collections.unmodifiableList(changes);
+
+      List<Pair<String, PerforceChange>> withPaths = new ArrayList<>(changes.size());
+      for (PerforceChange change : changes) {
+        File file = change.getFile();
+        if (file != null) {
+          withPaths.add(Pair.create(file.getAbsolutePath(), change));
+        }
+      }
+      withPaths.sort((o1, o2) -> PATH_ORDER.compare(o1.first, o2.first));
+
+      myPaths = new String[withPaths.size()];
+      mySorted = new PerforceChange[withPaths.size()];
+      for (int i = 0; i < withPaths.size(); i++) {
+        myPaths[i] = withPaths.get(i).first;
+        mySorted[i] = withPaths.get(i).second;
+      }
+    }
+
+    @Unmodifiable List<PerforceChange> getChangesUnder(@NotNull String rootPath) {
+      return myChangesUnder.computeIfAbsent(rootPath, this::findChangesUnder);
+    }
+
+    private @Unmodifiable List<PerforceChange> findChangesUnder(@NotNull String rootPath) {
+      int index = lowerBound(rootPath);
+
+      // all paths starting with the root path are sorted together, though some of them may be its siblings like "root-1"
+      List<PerforceChange> result = new ArrayList<>();
+      for (; index < myPaths.length && myPaths[index].regionMatches(!SystemInfoRt.isFileSystemCaseSensitive, 0, rootPath, 0, rootPath.length()); index++) {
+        if (FileUtil.startsWith(myPaths[index], rootPath)) {
+          result.add(mySorted[index]);
+        }
+      }
+      return Collections.unmodifiableList(result);
+    }
+
+    private int lowerBound(@NotNull String path) {
+      int low = 0;
+      int high = myPaths.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (PATH_ORDER.compare(myPaths[mid], path) < 0) {
+          low = mid + 1;
+        }
+        else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
 }
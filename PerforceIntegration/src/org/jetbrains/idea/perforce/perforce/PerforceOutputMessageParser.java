@@ -28,11 +28,14 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
 public final class PerforceOutputMessageParser extends OutputMessageParser {
   private static final Logger LOG = Logger.getInstance(PerforceOutputMessageParser.class);
   private static final @NonNls String CHANGE_PREFIX = "change";
+  private static final @NonNls String DEFAULT_CHANGE = "default";
 
   private PerforceOutputMessageParser(final String output) throws IOException {
     super(output);
@@ -49,6 +52,28 @@ public final class PerforceOutputMessageParser extends OutputMessageParser {
     return result;
   }
 
+  /**
+   * Fields of {@code p4 -G opened} records that are read by {@link #createOpenedChange(Map)}
+   */
+  static final Set<String> OPENED_MARSHALLED_FIELDS = Set.of("depotFile", "rev", "action", "change");
+
+  /**
+   * Creates {@code PerforceChange} from a {@code p4 -G opened} record, the counterpart of {@link #processOpenedOutput(String)}
+   */
+  static @NotNull PerforceChange createOpenedChange(final @NotNull Map<String, String> record) throws VcsException {
+    final String depotPath = record.get("depotFile");
+    final String revision = record.get("rev");
+    final String action = record.get("action");
+    if (depotPath == null || revision == null || action == null) {
+      throw new VcsException(PerforceBundle.message("error.unexpected.p4.opened.output.format", record.toString()));
+    }
+
+    final String change = record.get("change");
+    final long changeListNumber = change == null || DEFAULT_CHANGE.equals(change) ? -1 : Long.parseLong(change);
+    final long revisionNumber = "none".equals(revision) ? 0 : Long.parseLong(revision);
+    return new PerforceChange(PerforceAbstractChange.convertToType(action), null, depotPath, revisionNumber, changeListNumber, null);
+  }
+
   private @Nullable PerforceChange readNextOpened() {
     if (myLines.isEmpty()) return null;
     myCurrentLine = myLines.remove(0);
@@ -75,6 +75,7 @@ import org.jetbrains.idea.perforce.perforce.jobs.PerforceJob;
 import org.jetbrains.idea.perforce.perforce.login.LoginSupport;
 import org.jetbrains.idea.perforce.perforce.login.PerforceLoginManager;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
@@ -159,6 +160,13 @@ public final class PerforceRunner implements PerforceRunnerI {
   public static final @NonNls String CLIENT_FILE_PREFIX = "... clientFile ";
 
   private static final int CHUNK_SIZE = SystemProperties.getIntProperty("p4.chunk.size", 2000);
+  // how many '-x' arguments a single p4 process sends to the server in one request (p4 default is 128)
+  private static final int ARGUMENTS_BATCH_SIZE = SystemProperties.getIntProperty("p4.arguments.batch.size", 512);
+  private static final boolean PASS_ARGUMENTS_VIA_STDIN = SystemProperties.getBooleanProperty("p4.arguments.via.stdin", true);
+  // parse 'fstat' and 'opened' output from 'p4 -G' instead of the human-readable text
+  private static final boolean USE_MARSHALLED_OUTPUT = SystemProperties.getBooleanProperty("p4.marshalled.output", true);
+  // describe only the pending changelists that have been modified since the previous refresh
+  private static final boolean INCREMENTAL_CHANGES_REFRESH = SystemProperties.getBooleanProperty("p4.incremental.changes.refresh", true);
 
   public static final String[] CHANGE_FORM_FIELDS = new String[]{CHANGE,
     DATE,
@@ -286,16 +294,21 @@ public final class PerforceRunner implements PerforceRunnerI {
     for (P4File file : files) {
       p4Args.add(file.getEscapedPath());
     }
-    ExecResult execResult = executeP4Command(new String[]{"fstat"}, p4Args, null, new PerforceContext(connection));
-
-    final Map<P4File, FStat> result = new LinkedHashMap<>();
-    String stderr = execResult.getStderr();
 
     final Map<String, P4File> path2File = CollectionFactory.createFilePathMap();
     for (P4File file : files) {
       path2File.put(FileUtil.toSystemIndependentName(file.getLocalPath()), file);
     }
 
+    if (USE_MARSHALLED_OUTPUT) {
+      return fstatBulkMarshalled(connection, p4Args, path2File);
+    }
+
+    ExecResult execResult = executeP4Command(new String[]{"fstat"}, p4Args, null, new PerforceContext(connection));
+
+    final Map<P4File, FStat> result = new LinkedHashMap<>();
+    String stderr = execResult.getStderr();
+
     for (String line : StringUtil.splitByLines(stderr)) {
       int index = line.indexOf(NO_SUCH_FILE_MESSAGE);
       if (index < 0) index = line.indexOf(NOT_IN_CLIENT_VIEW_MESSAGE);
@@ -335,6 +348,122 @@ public final class PerforceRunner implements PerforceRunnerI {
     return result;
   }
 
+  private @NotNull Map<P4File, FStat> fstatBulkMarshalled(P4Connection connection,
+                                                          Collection<String> p4Args,
+                                                          Map<String, P4File> path2File) throws VcsException {
+    final Map<P4File, FStat> result = new LinkedHashMap<>();
+    final StringBuilder errors = new StringBuilder();
+    executeMarshalledP4Command(new String[]{"fstat"}, p4Args, FStat.MARSHALLED_FIELDS, new PerforceContext(connection), record -> {
+      if (P4MarshalledReader.isError(record)) {
+        String line = StringUtil.notNullize(record.get(P4MarshalledReader.DATA_FIELD)).trim();
+        int index = line.indexOf(NO_SUCH_FILE_MESSAGE);
+        if (index < 0) index = line.indexOf(NOT_IN_CLIENT_VIEW_MESSAGE);
+        if (index >= 0) {
+          FStat fStat = new FStat();
+          fStat.status = line.contains(NO_SUCH_FILE_MESSAGE) ? FStat.Status.NOT_ADDED : FStat.Status.NOT_IN_CLIENTSPEC;
+          result.put(getP4FileByPath(line.substring(0, index), path2File), fStat);
+        }
+        else {
+          errors.append(line).append('\n');
+        }
+      }
+      else {
+        FStat fStat = FStat.fromMarshalled(record);
+        result.put(getP4FileByPath(fStat.clientFile, path2File), fStat);
+      }
+      return true;
+    });
+    if (!errors.isEmpty()) {
+      // the same as checkError() does with the stderr of the text command
+      throw createCorrectException(errors.toString(), mySettings, connection);
+    }
+    return result;
+  }
+
+  /**
+   * Runs {@code p4 -G} with the given command and passes the decoded records to {@code processor}.
+   * <p>
+   * With {@code -G} errors are reported as records on stdout, stderr and exceptions are left for failures to run the command.
+   * Login failures are reported as the only error record, they are handled the same way as on stderr of text commands:
+   * the connection is marked as not logged in and the command is run again after a silent login.
+   */
+  private void executeMarshalledP4Command(@NonNls String[] p4cmd,
+                                          Collection<String> args,
+                                          @NotNull Set<String> fields,
+                                          @NotNull PerforceContext ctx,
+                                          @NotNull MarshalledRecordProcessor processor) throws VcsException {
+    ExecResult execResult = executeP4Command(ArrayUtil.mergeArrays(new String[]{"-G"}, p4cmd), args, null, ctx);
+    if (execResult.getException() != null || !execResult.getStderr().isEmpty()) {
+      checkError(execResult, ctx.connection);
+    }
+
+    final Ref<String> loginError = Ref.create();
+    readMarshalledOutput(execResult, fields, new MarshalledRecordProcessor() {
+      private boolean myFirst = true;
+
+      @Override
+      public boolean process(@NotNull Map<String, String> record) throws VcsException {
+        if (myFirst && P4MarshalledReader.isError(record)) {
+          String error = StringUtil.notNullize(record.get(P4MarshalledReader.DATA_FIELD));
+          if (isLoginError(error)) {
+            loginError.set(error.trim());
+            return false;
+          }
+        }
+        myFirst = false;
+        return processor.process(record);
+      }
+    });
+
+    if (loginError.get() != null) {
+      execResult.cleanup();
+      if (relogin(loginError.get(), ctx)) {
+        executeMarshalledP4Command(p4cmd, args, fields, new PerforceContext(ctx.connection, ctx.longTimeout, true), processor);
+        return;
+      }
+      throw createCorrectException(loginError.get(), mySettings, ctx.connection);
+    }
+  }
+
+  private static boolean isLoginError(@NotNull String error) {
+    return error.contains(SESSION_EXPIRED_MESSAGE) || error.contains(PASSWORD_INVALID_MESSAGE) ||
+           error.contains(PASSWORD_NOT_ALLOWED_MESSAGE) || error.contains(PASSWORD_EXPIRED);
+  }
+
+  private interface MarshalledRecordProcessor {
+    /**
+     * @return {@code false} to stop reading
+     */
+    boolean process(@NotNull Map<String, String> record) throws VcsException;
+  }
+
+  private static void readMarshalledOutput(@NotNull ExecResult execResult,
+                                           @NotNull Set<String> fields,
+                                           @NotNull MarshalledRecordProcessor processor) throws VcsException {
+    try {
+      execResult.allowSafeStdoutUsage(stream -> {
+        P4MarshalledReader reader = new P4MarshalledReader(new BufferedInputStream(stream), execResult.getCharset(), fields);
+        Map<String, String> record;
+        while ((record = reader.readRecord()) != null) {
+          try {
+            if (!processor.process(record)) {
+              break;
+            }
+          }
+          catch (VcsException e) {
+            throw new IOException(e);
+          }
+        }
+      });
+    }
+    catch (IOException e) {
+      if (e.getCause() instanceof VcsException) {
+        throw (VcsException)e.getCause();
+      }
+      throw new VcsException(e);
+    }
+  }
+
   private static P4File getP4FileByPath(String path, Map<String, P4File> path2File) throws VcsException {
     String clientFile = P4File.unescapeWildcards(FileUtil.toSystemIndependentName(path));
     P4File p4File = path2File.get(clientFile);
@@ -783,24 +912,22 @@ public final class PerforceRunner implements PerforceRunnerI {
                               PerforceChangeCache changeCache,
                               PerforceShelf shelf,
                               List<PerforceChangeList> lists) throws VcsException {
-    List<Long> numbers;
-    if (lists.isEmpty()) {
-      numbers = Collections.emptyList();
-    }
-    else {
-      LongArrayList list1 = new LongArrayList(lists.size());
-      for (PerforceChangeList t : lists) {
-        list1.add(t.getNumber());
-      }
-      numbers = list1;
-    }
+    List<Long> numbers = getNumbers(lists);
     PerforceClient client = myPerforceManager.getClient(connection);
 
-    Map<Long, Pair<ChangeListData, List<FileChange>>> changeMap = describeAll(connection, numbers, false);
-    for (PerforceChangeList list : lists) {
-      Pair<ChangeListData, List<FileChange>> changes = changeMap.get(list.getNumber());
-      if (changes != null) {
-        changeCache.setChanges(connection, list.getNumber(), createPerforceChanges(client, changes.first, changes.second));
+    List<PerforceChangeList> modified = lists;
+    if (INCREMENTAL_CHANGES_REFRESH && !lists.isEmpty()) {
+      modified = changeCache.retainUnchanged(connection, lists, openedInClient(connection));
+      LOG.debug("describing " + modified.size() + " of " + lists.size() + " pending changelists");
+    }
+
+    if (!modified.isEmpty()) {
+      Map<Long, Pair<ChangeListData, List<FileChange>>> changeMap = describeAll(connection, getNumbers(modified), false);
+      for (PerforceChangeList list : modified) {
+        Pair<ChangeListData, List<FileChange>> changes = changeMap.get(list.getNumber());
+        if (changes != null) {
+          changeCache.setChanges(connection, list.getNumber(), createPerforceChanges(client, changes.first, changes.second));
+        }
       }
     }
 
@@ -816,6 +943,17 @@ public final class PerforceRunner implements PerforceRunnerI {
     }
   }
 
+  private static List<Long> getNumbers(List<PerforceChangeList> lists) {
+    if (lists.isEmpty()) {
+      return Collections.emptyList();
+    }
+    LongArrayList numbers = new LongArrayList(lists.size());
+    for (PerforceChangeList list : lists) {
+      numbers.add(list.getNumber());
+    }
+    return numbers;
+  }
+
   private void appendTArg(final CommandArguments arguments, final @Nullable P4Connection connection) throws VcsException {
     if (mySettings.getServerVersion(connection) >= 2003) {
       arguments.append("-t");
@@ -1091,6 +1229,28 @@ public final class PerforceRunner implements PerforceRunnerI {
     }
   }
 
+  /**
+   * @return all files opened in the connection's client, with their revisions, actions and changelist numbers
+   */
+  public List<PerforceChange> openedInClient(final P4Connection connection) throws VcsException {
+    if (USE_MARSHALLED_OUTPUT) {
+      return openedMarshalled(connection, Collections.emptyList(), false);
+    }
+
+    final ExecResult execResult = executeP4Command(new String[]{P4Command.opened.getName()}, connection);
+    if (StringUtil.toLowerCase(execResult.getStderr()).contains(STANDARD_REVERT_UNCHANGED_ERROR_MESSAGE)) {
+      // no files opened
+      return new ArrayList<>();
+    }
+    checkError(execResult, connection);
+    try {
+      return PerforceOutputMessageParser.processOpenedOutput(execResult.getStdout());
+    }
+    catch (IOException e) {
+      throw new VcsException(e);
+    }
+  }
+
   public List<PerforceChange> opened(final P4Connection connection, final Collection<FilePath> paths, boolean throwIfNotUnderClient) throws VcsException {
     if (paths.size() > OPENED_SIZE) {
       List<PerforceChange> result = new ArrayList<>();
@@ -1103,6 +1263,10 @@ public final class PerforceRunner implements PerforceRunnerI {
   }
 
   private List<PerforceChange> openedImpl(final P4Connection connection, final Collection<FilePath> paths, final boolean throwIfNotUnderClient) throws VcsException {
+    if (USE_MARSHALLED_OUTPUT) {
+      return openedMarshalled(connection, paths, throwIfNotUnderClient);
+    }
+
     final CommandArguments args = CommandArguments.createOn(P4Command.opened);
     for (FilePath path : paths) {
       args.append(P4File.create(path).getEscapedPath());
@@ -1122,6 +1286,35 @@ public final class PerforceRunner implements PerforceRunnerI {
     }
   }
 
+  private @NotNull List<PerforceChange> openedMarshalled(final P4Connection connection,
+                                                         final Collection<FilePath> paths,
+                                                         final boolean throwIfNotUnderClient) throws VcsException {
+    final List<String> args = new ArrayList<>(paths.size());
+    for (FilePath path : paths) {
+      args.add(P4File.create(path).getEscapedPath());
+    }
+    final List<PerforceChange> result = new ArrayList<>();
+    final StringBuilder errors = new StringBuilder();
+    executeMarshalledP4Command(new String[]{P4Command.opened.getName()}, args, PerforceOutputMessageParser.OPENED_MARSHALLED_FIELDS,
+                               new PerforceContext(connection), record -> {
+      if (P4MarshalledReader.isError(record)) {
+        errors.append(StringUtil.notNullize(record.get(P4MarshalledReader.DATA_FIELD)).trim()).append('\n');
+      }
+      else {
+        result.add(PerforceOutputMessageParser.createOpenedChange(record));
+      }
+      return true;
+    });
+
+    // the same as openedImpl() does with the stderr of the text command
+    final String err = StringUtil.toLowerCase(errors.toString());
+    if (!err.isEmpty() && (throwIfNotUnderClient || !(err.contains(STANDARD_REVERT_UNCHANGED_ERROR_MESSAGE) ||
+                                                    err.contains(NOT_UNDER_CLIENT_ROOT_MESSAGE) || err.contains(NOT_IN_CLIENT_VIEW_MESSAGE)))) {
+      throw createCorrectException(errors.toString(), mySettings, connection);
+    }
+    return result;
+  }
+
   private static String getDescription(final Map<String, List<String>> changeForm) {
     final List<String> strings = changeForm.get(DESCRIPTION);
     if (strings == null) return "";
@@ -1702,14 +1895,25 @@ public final class PerforceRunner implements PerforceRunnerI {
       }
 
       final String[] p4args;
+      StringBuffer processInput = inputStream;
       if (shouldPassArgumentsViaFile(args)) {
-        tempFile = createArgumentFile(args);
-        p4args = ArrayUtil.mergeArrays(new String[]{"-x", tempFile.getPath()}, p4cmd);
+        // The whole argument list of this call is handled by one p4 process over one server connection,
+        // arguments are sent to the server in batches of ARGUMENTS_BATCH_SIZE instead of one request per 128 arguments.
+        // Every call still starts its own p4 process: the command line client can't keep a session open between calls.
+        String[] batchArgs = new String[]{"-b", String.valueOf(ARGUMENTS_BATCH_SIZE)};
+        if (PASS_ARGUMENTS_VIA_STDIN && inputStream == null) {
+          processInput = new StringBuffer(StringUtil.join(args, "\n"));
+          p4args = ArrayUtil.mergeArrays(ArrayUtil.mergeArrays(new String[]{"-x", "-"}, batchArgs), p4cmd);
+        }
+        else {
+          tempFile = createArgumentFile(args);
+          p4args = ArrayUtil.mergeArrays(ArrayUtil.mergeArrays(new String[]{"-x", tempFile.getPath()}, batchArgs), p4cmd);
+        }
       } else {
         p4args = ArrayUtil.mergeArrays(p4cmd, ArrayUtilRt.toStringArray(args));
       }
 
-      ctx.runP4Command(mySettings, p4args, retVal, inputStream);
+      ctx.runP4Command(mySettings, p4args, retVal, processInput);
     }
     catch (PerforceTimeoutException | VcsException | InterruptedException | IOException e) {
       retVal.setException(e);
@@ -1724,27 +1928,40 @@ public final class PerforceRunner implements PerforceRunnerI {
       logMessage("\n" + retVal);
     }
 
-    if (mySettings.USE_LOGIN && (retVal.getStderr().contains(SESSION_EXPIRED_MESSAGE) || retVal.getStderr().contains(PASSWORD_INVALID_MESSAGE))) {
+    try {
+      if (relogin(retVal.getStderr(), ctx)) {
+        retVal.cleanup();
+        return executeP4Command(p4cmd, args, inputStream, new PerforceContext(ctx.connection, ctx.longTimeout, true));
+      }
+    }
+    catch (VcsException e) {
+      retVal.setException(e);
+    }
+
+    return retVal;
+  }
+
+  /**
+   * Marks the connection as not logged in if {@code error} is a login failure, and logs in silently when login is used.
+   *
+   * @return {@code true} if the failed command should be run again
+   */
+  private boolean relogin(@NotNull String error, @NotNull PerforceContext ctx) throws VcsException {
+    if (mySettings.USE_LOGIN && (error.contains(SESSION_EXPIRED_MESSAGE) || error.contains(PASSWORD_INVALID_MESSAGE))) {
       myLoginManager.notLogged(ctx.connection);
       try {
-        if (!ctx.justLogged && myLoginManager.silentLogin(ctx.connection)) {
-          retVal.cleanup();
-          return executeP4Command(p4cmd, args, inputStream, new PerforceContext(ctx.connection, ctx.longTimeout, true));
-        }
+        return !ctx.justLogged && myLoginManager.silentLogin(ctx.connection);
       }
       catch (VcsException e) {
-        retVal.setException(createCorrectException(e.getMessage(), mySettings, ctx.connection));
-        return retVal;
+        throw createCorrectException(e.getMessage(), mySettings, ctx.connection);
       }
-      return retVal;
     }
 
     if (!mySettings.USE_LOGIN &&
-        (retVal.getStderr().contains(PASSWORD_INVALID_MESSAGE) || retVal.getStderr().contains(PASSWORD_NOT_ALLOWED_MESSAGE) || retVal.getStderr().contains(PASSWORD_EXPIRED))) {
+        (error.contains(PASSWORD_INVALID_MESSAGE) || error.contains(PASSWORD_NOT_ALLOWED_MESSAGE) || error.contains(PASSWORD_EXPIRED))) {
       myLoginManager.notLogged(ctx.connection);
     }
-
-    return retVal;
+    return false;
   }
 
   private static File createArgumentFile(Collection<String> args) throws VcsException {
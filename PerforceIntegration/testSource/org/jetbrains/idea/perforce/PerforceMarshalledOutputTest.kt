@@ -0,0 +1,88 @@
+package org.jetbrains.idea.perforce
+
+import com.intellij.openapi.vcs.VcsConfiguration
+import com.intellij.openapi.vcs.VcsShowConfirmationOption
+import org.jetbrains.idea.perforce.perforce.ExecResult
+import org.jetbrains.idea.perforce.perforce.PerforceAbstractChange
+import org.jetbrains.idea.perforce.perforce.PerforcePhysicalConnectionParametersI
+import org.jetbrains.idea.perforce.perforce.PerforceRunner
+import org.jetbrains.idea.perforce.perforce.connections.P4Connection
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import java.nio.charset.StandardCharsets
+
+class PerforceMarshalledOutputTest : PerforceTestCase() {
+
+  override fun before() {
+    super.before()
+    setStandardConfirmation("Perforce", VcsConfiguration.StandardConfirmation.ADD, VcsShowConfirmationOption.Value.DO_ACTION_SILENTLY)
+  }
+
+  @Test
+  fun `test marshalled command is run again after session expired record`() {
+    createFileInCommand("a.txt", "")
+    refreshChanges()
+
+    val expiringConnection = SessionExpiringConnection(connection)
+    val opened = PerforceRunner.getInstance(myProject).openedInClient(expiringConnection)
+    assertEquals(listOf("//depot/a.txt"), opened.map { it.depotPath })
+    assertEquals(2, expiringConnection.marshalledCommands)
+  }
+
+  @Test
+  fun `test marshalled opened output`() {
+    val edited = createFileInCommand("a.txt", "")
+    refreshChanges()
+    submitDefaultList("initial")
+    openForEdit(edited)
+    val number = createChangeList("edits", listOf("//depot/a.txt"))
+    createFileInCommand("b.txt", "")
+    refreshChanges()
+
+    val opened = PerforceRunner.getInstance(myProject).openedInClient(connection).sortedBy { it.depotPath }
+    assertEquals(listOf("//depot/a.txt", "//depot/b.txt"), opened.map { it.depotPath })
+    assertEquals(listOf(PerforceAbstractChange.EDIT, PerforceAbstractChange.ADD), opened.map { it.type })
+    assertEquals(listOf(1L, 0L), opened.map { it.revision })
+    assertEquals(listOf(number, -1L), opened.map { it.changeList })
+  }
+
+  /**
+   * Answers the first `p4 -G` command the way the server does when the login ticket has expired.
+   */
+  private class SessionExpiringConnection(private val delegate: P4Connection) : P4Connection by delegate {
+    var marshalledCommands = 0
+
+    override fun runP4Command(parameters: PerforcePhysicalConnectionParametersI,
+                              p4args: Array<String>,
+                              retVal: ExecResult,
+                              inputStream: StringBuffer?) {
+      if (p4args.firstOrNull() == "-G" && marshalledCommands++ == 0) {
+        retVal.setStdout(errorRecord("Your session has expired, please login again.\n"))
+        retVal.setExitCode(1)
+        return
+      }
+      delegate.runP4Command(parameters, p4args, retVal, inputStream)
+    }
+  }
+}
+
+private fun errorRecord(message: String): String {
+  val out = ByteArrayOutputStream()
+  out.write('{'.code)
+  writeString(out, "code")
+  writeString(out, "error")
+  writeString(out, "data")
+  writeString(out, message)
+  out.write('0'.code)
+  return out.toString(StandardCharsets.UTF_8)
+}
+
+private fun writeString(out: ByteArrayOutputStream, s: String) {
+  val bytes = s.toByteArray(StandardCharsets.UTF_8)
+  out.write('s'.code)
+  for (shift in 0..24 step 8) {
+    out.write((bytes.size shr shift) and 0xFF)
+  }
+  out.write(bytes)
+}
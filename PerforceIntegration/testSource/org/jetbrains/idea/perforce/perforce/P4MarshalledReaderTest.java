@@ -0,0 +1,149 @@
+package org.jetbrains.idea.perforce.perforce;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+public class P4MarshalledReaderTest extends TestCase {
+  public void testFStatRecords() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write('{');
+    writeString(out, "code");
+    writeString(out, "stat");
+    writeString(out, "depotFile");
+    writeString(out, "//depot/a.txt");
+    writeString(out, "clientFile");
+    writeString(out, "/home/user/ws/a.txt");
+    writeString(out, "headRev");
+    writeString(out, "3");
+    writeString(out, "haveRev");
+    writeString(out, "3");
+    writeString(out, "isMapped");
+    writeString(out, "");
+    writeString(out, "headModTime");
+    writeInt(out, 1234567890);
+    out.write('0');
+
+    out.write('{');
+    writeString(out, "code");
+    writeString(out, "error");
+    writeString(out, "data");
+    writeString(out, "/home/user/ws/b.txt - no such file(s).\n");
+    writeString(out, "severity");
+    out.write('i');
+    writeLittleEndian(out, 2);
+    out.write('0');
+
+    P4MarshalledReader reader = createReader(out, FStat.MARSHALLED_FIELDS);
+
+    Map<String, String> record = reader.readRecord();
+    assertNotNull(record);
+    assertFalse(P4MarshalledReader.isError(record));
+    assertEquals("//depot/a.txt", record.get("depotFile"));
+    assertEquals("3", record.get("headRev"));
+    assertFalse(record.containsKey("isMapped"));
+    assertFalse(record.containsKey("headModTime"));
+
+    FStat fStat = FStat.fromMarshalled(record);
+    assertEquals("/home/user/ws/a.txt", fStat.clientFile);
+    assertEquals(FStat.STATUS_ON_SERVER_AND_LOCAL, fStat.status);
+
+    record = reader.readRecord();
+    assertNotNull(record);
+    assertTrue(P4MarshalledReader.isError(record));
+    assertTrue(record.get(P4MarshalledReader.DATA_FIELD).contains(PerforceRunner.NO_SUCH_FILE_MESSAGE));
+    assertFalse(record.containsKey("severity"));
+
+    assertNull(reader.readRecord());
+  }
+
+  public void testOpenedRecord() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write('{');
+    writeString(out, "depotFile");
+    writeString(out, "//depot/привет.txt");
+    writeString(out, "rev");
+    writeString(out, "none");
+    writeString(out, "action");
+    writeString(out, "add");
+    writeString(out, "change");
+    writeString(out, "default");
+    writeString(out, "type");
+    writeString(out, "text");
+    out.write('0');
+
+    Map<String, String> record = createReader(out, PerforceOutputMessageParser.OPENED_MARSHALLED_FIELDS).readRecord();
+    assertNotNull(record);
+    assertEquals("//depot/привет.txt", record.get("depotFile"));
+    assertNull(record.get("type"));
+
+    PerforceChange change = PerforceOutputMessageParser.createOpenedChange(record);
+    assertEquals("//depot/привет.txt", change.getDepotPath());
+    assertEquals(0, change.getRevision());
+    assertEquals(-1, change.getChangeList());
+  }
+
+  public void testNonUnicodeCharset() throws Exception {
+    Charset charset = Charset.forName("windows-1251");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write('{');
+    writeString(out, "depotFile");
+    byte[] bytes = "//depot/привет.txt".getBytes(charset);
+    out.write('s');
+    writeLittleEndian(out, bytes.length);
+    out.write(bytes);
+    out.write('0');
+
+    Map<String, String> record =
+      new P4MarshalledReader(new ByteArrayInputStream(out.toByteArray()), charset, PerforceOutputMessageParser.OPENED_MARSHALLED_FIELDS)
+        .readRecord();
+    assertNotNull(record);
+    assertEquals("//depot/привет.txt", record.get("depotFile"));
+  }
+
+  public void testTruncatedOutput() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write('{');
+    writeString(out, "depotFile");
+    out.write('s');
+    writeLittleEndian(out, 100);
+    out.write("//depot".getBytes(StandardCharsets.UTF_8));
+
+    try {
+      createReader(out, FStat.MARSHALLED_FIELDS).readRecord();
+      fail();
+    }
+    catch (EOFException ignored) {
+    }
+  }
+
+  private static P4MarshalledReader createReader(ByteArrayOutputStream out, Set<String> fields) {
+    return new P4MarshalledReader(new ByteArrayInputStream(out.toByteArray()), StandardCharsets.UTF_8, fields);
+  }
+
+  private static void writeString(ByteArrayOutputStream out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.write('s');
+    writeLittleEndian(out, bytes.length);
+    out.write(bytes);
+  }
+
+  private static void writeInt(ByteArrayOutputStream out, int value) {
+    out.write('i');
+    writeLittleEndian(out, value);
+  }
+
+  private static void writeLittleEndian(ByteArrayOutputStream out, int value) {
+    out.write(value & 0xFF);
+    out.write((value >> 8) & 0xFF);
+    out.write((value >> 16) & 0xFF);
+    out.write((value >> 24) & 0xFF);
+  }
+}
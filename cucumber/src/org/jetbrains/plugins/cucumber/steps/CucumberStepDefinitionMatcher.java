@@ -0,0 +1,274 @@
+// Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package org.jetbrains.plugins.cucumber.steps;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.cucumber.CucumberJvmExtensionPoint;
+import org.jetbrains.plugins.cucumber.CucumberUtil;
+import org.jetbrains.plugins.cucumber.psi.GherkinLanguage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Step definitions of a module indexed by a word which must be present in every step they match.
+ * <p>
+ * The word is taken from the literal text of the definition's regex, so a step can be checked against the regexes of the definitions
+ * having one of the step's words only, plus the definitions without such a word. Matchers are cached per module and per resolve scope
+ * of the feature file, and are dropped on any PSI change outside of Gherkin files.
+ */
+public final class CucumberStepDefinitionMatcher {
+  private static final Key<CachedValue<ConcurrentMap<GlobalSearchScope, CucumberStepDefinitionMatcher>>> MATCHERS_KEY =
+    Key.create("cucumber.step.definition.matchers");
+
+  private static final Pattern COMMENTS_FLAG = Pattern.compile("\\(\\?[a-zA-Z]*x");
+  private static final String SIMPLE_ESCAPES = "dDsSwWbBAzZGhHvVRX";
+
+  private final List<AbstractStepDefinition> myDefinitions;
+  private final Map<String, List<Integer>> myDefinitionsByWord = new HashMap<>();
+  private final BitSet myDefinitionsWithoutWord = new BitSet();
+  private final Map<String, List<AbstractStepDefinition>> myDefinitionsByRegex = new HashMap<>();
+
+  private CucumberStepDefinitionMatcher(@NotNull List<AbstractStepDefinition> definitions) {
+    myDefinitions = definitions;
+    for (int i = 0; i < definitions.size(); i++) {
+      AbstractStepDefinition definition = definitions.get(i);
+
+      String cucumberRegex = definition.getCucumberRegex();
+      if (cucumberRegex != null) {
+        myDefinitionsByRegex.computeIfAbsent(cucumberRegex, __ -> new ArrayList<>()).add(definition);
+      }
+
+      Pattern pattern = definition.getPattern();
+      if (pattern == null) continue; // never matches
+
+      String word = getIndexWord(pattern);
+      if (word == null) {
+        myDefinitionsWithoutWord.set(i);
+      }
+      else {
+        myDefinitionsByWord.computeIfAbsent(word, __ -> new ArrayList<>()).add(i);
+      }
+    }
+  }
+
+  public static @NotNull CucumberStepDefinitionMatcher getInstance(@Nullable PsiFile featureFile, @NotNull Module module) {
+    Project project = module.getProject();
+    ConcurrentMap<GlobalSearchScope, CucumberStepDefinitionMatcher> matchers =
+      CachedValuesManager.getManager(project).getCachedValue(module, MATCHERS_KEY, () -> CachedValueProvider.Result.create(
+        new ConcurrentHashMap<>(),
+        PsiModificationTracker.getInstance(project).forLanguages(language -> !language.isKindOf(GherkinLanguage.INSTANCE)),
+        VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS,
+        ProjectRootManager.getInstance(project),
+        DumbService.getInstance(project).getModificationTracker()), false);
+
+    // frameworks look for the step definitions in the resolve scope of the feature file, or in the module scope without it
+    GlobalSearchScope scope = featureFile != null ? featureFile.getResolveScope() : module.getModuleWithDependenciesAndLibrariesScope(true);
+    CucumberStepDefinitionMatcher matcher = matchers.get(scope);
+    if (matcher == null) {
+      matcher = new CucumberStepDefinitionMatcher(loadDefinitions(featureFile, module));
+      matchers.putIfAbsent(scope, matcher);
+    }
+    return matcher;
+  }
+
+  private static @NotNull List<AbstractStepDefinition> loadDefinitions(@Nullable PsiFile featureFile, @NotNull Module module) {
+    List<AbstractStepDefinition> result = new ArrayList<>();
+    for (CucumberJvmExtensionPoint extension : CucumberStepHelper.getCucumberExtensions()) {
+      for (AbstractStepDefinition definition : CucumberUtil.loadFrameworkSteps(extension, featureFile, module)) {
+        if (definition != null) {
+          result.add(definition);
+        }
+      }
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  public @NotNull List<AbstractStepDefinition> getAllDefinitions() {
+    return myDefinitions;
+  }
+
+  public @NotNull List<AbstractStepDefinition> findDefinitionsByRegex(@NotNull String cucumberRegex) {
+    return myDefinitionsByRegex.getOrDefault(cucumberRegex, Collections.emptyList());
+  }
+
+  /**
+   * Returns the definitions which may match any of the {@code stepNames}, in the order of {@link #getAllDefinitions()}. The caller
+   * still has to check them with {@link AbstractStepDefinition#matches}.
+   */
+  public @NotNull List<AbstractStepDefinition> getCandidates(@NotNull Collection<String> stepNames) {
+    BitSet candidates = (BitSet)myDefinitionsWithoutWord.clone();
+    for (String stepName : stepNames) {
+      forEachWord(stepName, 0, stepName.length(), true, true, word -> {
+        List<Integer> definitions = myDefinitionsByWord.get(word);
+        if (definitions != null) {
+          for (int index : definitions) {
+            candidates.set(index);
+          }
+        }
+      });
+    }
+
+    List<AbstractStepDefinition> result = new ArrayList<>(candidates.cardinality());
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      result.add(myDefinitions.get(i));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the longest whole word of the literal text which every match of the {@code pattern} contains, or {@code null} if there is
+   * no such word or the regex is too complex to tell. Words are lower-cased, because the step text is compared case-insensitively.
+   */
+  static @Nullable String getIndexWord(@NotNull Pattern pattern) {
+    String regex = pattern.pattern();
+    if ((pattern.flags() & Pattern.COMMENTS) != 0 || COMMENTS_FLAG.matcher(regex).find()) return null;
+
+    String[] longestWord = {null};
+    StringBuilder run = new StringBuilder();
+    boolean runAtStart = false;
+    int length = regex.length();
+    int i = 0;
+    if (regex.startsWith("^")) {
+      runAtStart = true;
+      i++;
+    }
+
+    while (i < length) {
+      char c = regex.charAt(i);
+      switch (c) {
+        case '\\' -> {
+          if (i + 1 >= length) return null;
+          char escaped = regex.charAt(i + 1);
+          if (Character.isLetterOrDigit(escaped)) {
+            // character classes, anchors and back references end the literal text, other escapes are not parsed
+            if (!Character.isDigit(escaped) && SIMPLE_ESCAPES.indexOf(escaped) < 0) return null;
+            addWords(run, runAtStart, false, longestWord);
+            runAtStart = false;
+          }
+          else {
+            run.append(escaped);
+          }
+          i += 2;
+          continue;
+        }
+        case '*', '?', '+', '{' -> {
+          // the quantified character is optional or repeated
+          if (!run.isEmpty()) run.setLength(run.length() - 1);
+          addWords(run, runAtStart, false, longestWord);
+          runAtStart = false;
+          if (c == '{') {
+            int end = regex.indexOf('}', i);
+            if (end < 0) return null;
+            i = end;
+          }
+        }
+        case '[', '(' -> {
+          addWords(run, runAtStart, false, longestWord);
+          runAtStart = false;
+          i = skipGroup(regex, i);
+          if (i < 0) return null;
+          continue;
+        }
+        case '|' -> {
+          return null;
+        }
+        case '$' -> {
+          addWords(run, runAtStart, i == length - 1, longestWord);
+          runAtStart = false;
+        }
+        case '.', '^', ')' -> {
+          addWords(run, runAtStart, false, longestWord);
+          runAtStart = false;
+        }
+        default -> run.append(c);
+      }
+      i++;
+    }
+    addWords(run, runAtStart, false, longestWord);
+    return longestWord[0];
+  }
+
+  /**
+   * @return the index after the group or the character class starting at {@code start}, or -1 if it is not closed
+   */
+  private static int skipGroup(@NotNull String regex, int start) {
+    int groupDepth = 0;
+    int classDepth = 0;
+    for (int i = start; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        i++;
+      }
+      else if (c == '[') {
+        // a closing bracket right after the opening one is a literal
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') i++;
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') i++;
+        classDepth++;
+      }
+      else if (c == ']' && classDepth > 0) {
+        classDepth--;
+      }
+      else if (classDepth == 0 && c == '(') {
+        groupDepth++;
+      }
+      else if (classDepth == 0 && c == ')') {
+        groupDepth--;
+      }
+
+      if (groupDepth == 0 && classDepth == 0) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  private static void addWords(@NotNull StringBuilder run, boolean atStart, boolean atEnd, String @NotNull [] longestWord) {
+    forEachWord(run, 0, run.length(), atStart, atEnd, word -> {
+      if (longestWord[0] == null || longestWord[0].length() < word.length()) {
+        longestWord[0] = word;
+      }
+    });
+    run.setLength(0);
+  }
+
+  /**
+   * Processes the lower-cased words of the text which are surrounded by separators. The words touching the range bounds are processed
+   * only if the corresponding bound is also a word bound.
+   */
+  private static void forEachWord(@NotNull CharSequence text,
+                                  int start,
+                                  int end,
+                                  boolean startIsBound,
+                                  boolean endIsBound,
+                                  @NotNull Consumer<String> consumer) {
+    int wordStart = -1;
+    for (int i = start; i <= end; i++) {
+      boolean isWordChar = i < end && Character.isLetterOrDigit(text.charAt(i));
+      if (isWordChar && wordStart < 0) {
+        wordStart = i;
+      }
+      else if (!isWordChar && wordStart >= 0) {
+        if ((wordStart > start || startIsBound) && (i < end || endIsBound)) {
+          consumer.accept(text.subSequence(wordStart, i).toString().toLowerCase(Locale.ROOT));
+        }
+        wordStart = -1;
+      }
+    }
+  }
+}
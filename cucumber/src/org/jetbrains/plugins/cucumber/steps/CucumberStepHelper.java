@@ -12,7 +12,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.plugins.cucumber.BDDFrameworkType;
 import org.jetbrains.plugins.cucumber.CucumberJvmExtensionPoint;
-import org.jetbrains.plugins.cucumber.CucumberUtil;
 import org.jetbrains.plugins.cucumber.OptionalStepDefinitionExtensionPoint;
 import org.jetbrains.plugins.cucumber.inspections.CucumberStepDefinitionCreationContext;
 import org.jetbrains.plugins.cucumber.psi.GherkinFile;
@@ -73,10 +72,11 @@ public final class CucumberStepHelper {
 
     Map<Class<? extends AbstractStepDefinition>, AbstractStepDefinition> definitionsByClass =
       new HashMap<>();
-    List<AbstractStepDefinition> allSteps = loadStepsFor(featureFile, module);
+    List<AbstractStepDefinition> candidates =
+      CucumberStepDefinitionMatcher.getInstance(featureFile, module).getCandidates(Collections.singletonList(substitutedName));
 
-    for (AbstractStepDefinition stepDefinition : allSteps) {
-      if (stepDefinition != null && stepDefinition.matches(substitutedName) && stepDefinition.supportsStep(step)) {
+    for (AbstractStepDefinition stepDefinition : candidates) {
+      if (stepDefinition.matches(substitutedName) && stepDefinition.supportsStep(step)) {
         final Pattern currentLongestPattern = getPatternByDefinition(definitionsByClass.get(stepDefinition.getClass()));
         final Pattern newPattern = getPatternByDefinition(stepDefinition);
         final int newPatternLength = ((newPattern != null) ? newPattern.pattern().length() : -1);
@@ -101,33 +101,14 @@ public final class CucumberStepHelper {
     return definition.getPattern();
   }
 
-  // ToDo: use binary search here
   public static List<AbstractStepDefinition> findStepDefinitionsByPattern(final @NotNull String pattern, final @NotNull Module module) {
-    final List<AbstractStepDefinition> allSteps = loadStepsFor(null, module);
-    final List<AbstractStepDefinition> result = new ArrayList<>();
-    for (AbstractStepDefinition stepDefinition : allSteps) {
-      final String elementText = stepDefinition.getCucumberRegex();
-      if (elementText != null && elementText.equals(pattern)) {
-        result.add(stepDefinition);
-      }
-    }
-    return result;
+    return new ArrayList<>(CucumberStepDefinitionMatcher.getInstance(null, module).findDefinitionsByRegex(pattern));
   }
 
   public static List<AbstractStepDefinition> getAllStepDefinitions(final @NotNull PsiFile featureFile) {
     final Module module = ModuleUtilCore.findModuleForPsiElement(featureFile);
     if (module == null) return Collections.emptyList();
-    return loadStepsFor(featureFile, module);
-  }
-
-
-  private static List<AbstractStepDefinition> loadStepsFor(final @Nullable PsiFile featureFile, final @NotNull Module module) {
-    ArrayList<AbstractStepDefinition> result = new ArrayList<>();
-
-    for (CucumberJvmExtensionPoint extension : getCucumberExtensions()) {
-      result.addAll(CucumberUtil.loadFrameworkSteps(extension, featureFile, module));
-    }
-    return result;
+    return new ArrayList<>(CucumberStepDefinitionMatcher.getInstance(featureFile, module).getAllDefinitions());
   }
 
   public static Set<CucumberStepDefinitionCreationContext> getStepDefinitionContainers(final @NotNull GherkinFile featureFile) {
@@ -7,16 +7,13 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.resolve.ResolveCache;
-import com.intellij.psi.util.CachedValueProvider;
-import com.intellij.psi.util.CachedValuesManager;
-import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.IncorrectOperationException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.plugins.cucumber.CucumberJvmExtensionPoint;
-import org.jetbrains.plugins.cucumber.CucumberUtil;
 import org.jetbrains.plugins.cucumber.psi.impl.GherkinStepImpl;
 import org.jetbrains.plugins.cucumber.steps.AbstractStepDefinition;
+import org.jetbrains.plugins.cucumber.steps.CucumberStepDefinitionMatcher;
 import org.jetbrains.plugins.cucumber.steps.CucumberStepHelper;
 
 import java.util.ArrayList;
@@ -104,14 +101,9 @@ public class CucumberStepReference implements PsiPolyVariantReference {
     }
 
     PsiFile featureFile = myStep.getContainingFile();
-    List<AbstractStepDefinition> stepDefinitions = CachedValuesManager.getCachedValue(featureFile, () -> {
-      List<AbstractStepDefinition> allStepDefinition = new ArrayList<>();
-      for (CucumberJvmExtensionPoint e : frameworks) {
-        allStepDefinition.addAll(CucumberUtil.loadFrameworkSteps(e, featureFile, module));
-      }
-      return CachedValueProvider.Result.create(allStepDefinition, PsiModificationTracker.MODIFICATION_COUNT);
-    });
-    
+    List<AbstractStepDefinition> stepDefinitions =
+      CucumberStepDefinitionMatcher.getInstance(featureFile, module).getCandidates(stepVariants);
+
     List<PsiElement> resolvedElements = new ArrayList<>();
     for (final AbstractStepDefinition stepDefinition : stepDefinitions) {
       if (stepDefinition.supportsStep(myStep)) {
@@ -0,0 +1,48 @@
+package org.jetbrains.plugins.cucumber.steps;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CucumberStepDefinitionMatcherTest {
+  private static String indexWord(String regex) {
+    return CucumberStepDefinitionMatcher.getIndexWord(Pattern.compile(regex));
+  }
+
+  @Test
+  public void testLongestWholeWord() {
+    assertEquals("cucumbers", indexWord("^I have (\\d+) cucumbers in my belly$"));
+    assertEquals("have", indexWord("I have \\d+ cukes"));
+    assertEquals("belly", indexWord("^my belly$"));
+  }
+
+  @Test
+  public void testWordsTouchingUnknownTextAreSkipped() {
+    assertEquals("have", indexWord("I have cucumbers?"));
+    assertEquals("have", indexWord("I have (\\d+) cucumber(?:s)?"));
+    assertNull(indexWord("cucumbers"));
+    assertNull(indexWord(".*cucumbers.*"));
+  }
+
+  @Test
+  public void testOptionalTextIsSkipped() {
+    assertEquals("have", indexWord("^I have (?:many )?cucumbers?$"));
+    assertEquals("long", indexWord("^a [very]+ long$"));
+  }
+
+  @Test
+  public void testEscapedCharacters() {
+    assertEquals("price", indexWord("^the price is \\$(\\d+)$"));
+    assertEquals("example", indexWord("^open example\\.com$"));
+  }
+
+  @Test
+  public void testUnsupportedRegexes() {
+    assertNull(indexWord("^I have|I had cucumbers$"));
+    assertNull(indexWord("(?x)^I have cucumbers$"));
+    assertNull(indexWord("^I \\Qhave\\E cucumbers$"));
+  }
+}
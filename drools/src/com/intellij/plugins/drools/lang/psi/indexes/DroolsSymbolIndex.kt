@@ -0,0 +1,216 @@
+// Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.intellij.plugins.drools.lang.psi.indexes
+
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.plugins.drools.DroolsFileType
+import com.intellij.plugins.drools.lang.psi.*
+import com.intellij.plugins.drools.lang.psi.util.DroolsResolveUtil
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiManager
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.util.Processor
+import com.intellij.util.indexing.*
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.DataInputOutputUtil
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.IOUtil
+import com.intellij.util.io.KeyDescriptor
+import java.io.DataInput
+import java.io.DataOutput
+
+enum class DroolsSymbolKind(val elementClass: Class<out PsiElement>) {
+  RULE(DroolsRuleStatement::class.java),
+  QUERY(DroolsQueryStatement::class.java),
+  FUNCTION(DroolsFunctionStatement::class.java),
+  GLOBAL(DroolsGlobalStatement::class.java),
+  TYPE(DroolsTypeDeclaration::class.java)
+}
+
+/**
+ * A top-level declaration of a Drools file: its kind, short name (unquoted for rules and queries), package and start offset.
+ */
+data class DroolsIndexedSymbol(val kind: DroolsSymbolKind, val name: String, val packageName: String, val offset: Int)
+
+internal abstract class DroolsSymbolIndexBase<V> : FileBasedIndexExtension<String, List<V>>() {
+  protected abstract fun getKey(symbol: DroolsIndexedSymbol): String
+
+  protected abstract fun getValue(symbol: DroolsIndexedSymbol): V
+
+  override fun getIndexer(): DataIndexer<String, List<V>, FileContent> {
+    return DataIndexer { inputData ->
+      val file = inputData.psiFile as? DroolsFile ?: return@DataIndexer emptyMap<String, List<V>>()
+      return@DataIndexer collectSymbols(file).groupBy({ getKey(it) }, { getValue(it) })
+    }
+  }
+
+  override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+
+  override fun getInputFilter(): FileBasedIndex.InputFilter = DefaultFileTypeSpecificInputFilter(DroolsFileType.DROOLS_FILE_TYPE)
+
+  override fun dependsOnFileContent(): Boolean = true
+
+  private fun collectSymbols(file: DroolsFile): List<DroolsIndexedSymbol> {
+    val pkg = file.`package`?.namespace?.text ?: ""
+    val symbols = mutableListOf<DroolsIndexedSymbol>()
+    fun add(kind: DroolsSymbolKind, name: String?, element: PsiElement) {
+      if (!name.isNullOrEmpty()) symbols.add(DroolsIndexedSymbol(kind, name, pkg, element.textRange.startOffset))
+    }
+
+    for (rule in file.rules) add(DroolsSymbolKind.RULE, StringUtil.unquoteString(rule.ruleName.text), rule)
+    for (query in file.queries) add(DroolsSymbolKind.QUERY, StringUtil.unquoteString(query.stringId.text), query)
+    for (function in file.functions) add(DroolsSymbolKind.FUNCTION, function.name, function)
+    for (global in file.globalVariables) add(DroolsSymbolKind.GLOBAL, global.name, global)
+    for (declaration in file.declarations) {
+      declaration.typeDeclaration?.let { add(DroolsSymbolKind.TYPE, it.name, it) }
+    }
+    return symbols
+  }
+}
+
+internal class DroolsSymbolNameIndex : DroolsSymbolIndexBase<DroolsIndexedSymbol>() {
+  companion object {
+    val id = ID.create<String, List<DroolsIndexedSymbol>>("drools.symbolNameIndex")
+  }
+
+  override fun getName(): ID<String, List<DroolsIndexedSymbol>> = id
+
+  override fun getKey(symbol: DroolsIndexedSymbol): String = symbol.name
+
+  override fun getValue(symbol: DroolsIndexedSymbol): DroolsIndexedSymbol = symbol
+
+  override fun getValueExternalizer(): DataExternalizer<List<DroolsIndexedSymbol>> = DroolsIndexedSymbolsExternalizer
+
+  override fun getVersion(): Int = 1
+}
+
+/**
+ * A declaration in the package index, the package is the key of the index and the name is not needed to list the declarations.
+ */
+internal data class DroolsPackageSymbol(val kind: DroolsSymbolKind, val offset: Int)
+
+internal class DroolsPackageSymbolIndex : DroolsSymbolIndexBase<DroolsPackageSymbol>() {
+  companion object {
+    val id = ID.create<String, List<DroolsPackageSymbol>>("drools.packageSymbolIndex")
+  }
+
+  override fun getName(): ID<String, List<DroolsPackageSymbol>> = id
+
+  override fun getKey(symbol: DroolsIndexedSymbol): String = symbol.packageName
+
+  override fun getValue(symbol: DroolsIndexedSymbol): DroolsPackageSymbol = DroolsPackageSymbol(symbol.kind, symbol.offset)
+
+  override fun getValueExternalizer(): DataExternalizer<List<DroolsPackageSymbol>> = DroolsPackageSymbolsExternalizer
+
+  override fun getVersion(): Int = 2
+}
+
+private object DroolsPackageSymbolsExternalizer : DataExternalizer<List<DroolsPackageSymbol>> {
+  private val kinds = DroolsSymbolKind.entries
+
+  override fun save(out: DataOutput, value: List<DroolsPackageSymbol>) {
+    DataInputOutputUtil.writeINT(out, value.size)
+    for (symbol in value) {
+      out.writeByte(symbol.kind.ordinal)
+      DataInputOutputUtil.writeINT(out, symbol.offset)
+    }
+  }
+
+  override fun read(input: DataInput): List<DroolsPackageSymbol> {
+    val size = DataInputOutputUtil.readINT(input)
+    return List(size) { DroolsPackageSymbol(kinds[input.readByte().toInt()], DataInputOutputUtil.readINT(input)) }
+  }
+}
+
+private object DroolsIndexedSymbolsExternalizer : DataExternalizer<List<DroolsIndexedSymbol>> {
+  private val kinds = DroolsSymbolKind.entries
+
+  override fun save(out: DataOutput, value: List<DroolsIndexedSymbol>) {
+    DataInputOutputUtil.writeINT(out, value.size)
+    for (symbol in value) {
+      out.writeByte(symbol.kind.ordinal)
+      IOUtil.writeUTF(out, symbol.name)
+      IOUtil.writeUTF(out, symbol.packageName)
+      DataInputOutputUtil.writeINT(out, symbol.offset)
+    }
+  }
+
+  override fun read(input: DataInput): List<DroolsIndexedSymbol> {
+    val size = DataInputOutputUtil.readINT(input)
+    return List(size) {
+      DroolsIndexedSymbol(kinds[input.readByte().toInt()], IOUtil.readUTF(input), IOUtil.readUTF(input), DataInputOutputUtil.readINT(input))
+    }
+  }
+}
+
+/**
+ * Finds the top-level declarations of Drools files by name or by package without walking the files.
+ *
+ * Rules, queries, functions, globals and declared types of the files of one package are visible in all of them, so resolve and
+ * completion look here for the declarations of the other files of the package.
+ */
+object DroolsSymbolIndex {
+  /**
+   * Returns the declarations of [kind] in the other files of the package of [droolsFile], or only those named [name] if it is not null.
+   * Returns nothing while indexes are being updated.
+   */
+  @JvmStatic
+  fun <T : PsiElement> findInPackage(droolsFile: DroolsFile, kind: DroolsSymbolKind, name: String?, elementClass: Class<T>): List<T> {
+    val project = droolsFile.project
+    if (DumbService.isDumb(project)) return emptyList()
+
+    val packageName = DroolsResolveUtil.getCurrentPackage(droolsFile)
+    val currentFile = droolsFile.originalFile.virtualFile
+    val result = mutableListOf<T>()
+    val scope = DroolsResolveUtil.getSearchScope(droolsFile)
+    if (name != null) {
+      FileBasedIndex.getInstance().processValues(DroolsSymbolNameIndex.id, name, null, { file, symbols ->
+        if (file != currentFile) {
+          for (symbol in symbols) {
+            if (symbol.kind == kind && symbol.packageName == packageName) {
+              findElement(project, file, symbol.offset, elementClass)?.let { result.add(it) }
+            }
+          }
+        }
+        true
+      }, scope)
+    }
+    else {
+      FileBasedIndex.getInstance().processValues(DroolsPackageSymbolIndex.id, packageName, null, { file, symbols ->
+        if (file != currentFile) {
+          for (symbol in symbols) {
+            if (symbol.kind == kind) {
+              findElement(project, file, symbol.offset, elementClass)?.let { result.add(it) }
+            }
+          }
+        }
+        true
+      }, scope)
+    }
+    return result
+  }
+
+  /**
+   * Processes the declarations of any kind and package named [name].
+   */
+  @JvmStatic
+  fun processByName(project: Project, name: String, scope: GlobalSearchScope, processor: Processor<in PsiElement>): Boolean {
+    return FileBasedIndex.getInstance().processValues(DroolsSymbolNameIndex.id, name, null, { file, symbols ->
+      symbols.all { symbol -> findElement(project, file, symbol.offset, symbol.kind.elementClass)?.let { processor.process(it) } ?: true }
+    }, scope)
+  }
+
+  @JvmStatic
+  fun processAllNames(processor: Processor<in String>, scope: GlobalSearchScope, filter: IdFilter?): Boolean {
+    return FileBasedIndex.getInstance().processAllKeys(DroolsSymbolNameIndex.id, processor, scope, filter)
+  }
+
+  private fun <T : PsiElement> findElement(project: Project, file: VirtualFile, offset: Int, elementClass: Class<T>): T? {
+    val psiFile = PsiManager.getInstance(project).findFile(file) as? DroolsFile ?: return null
+    val element = PsiTreeUtil.getParentOfType(psiFile.findElementAt(offset), elementClass, false) ?: return null
+    return if (element.textRange.startOffset == offset) element else null
+  }
+}
@@ -0,0 +1,73 @@
+// Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.intellij.plugins.drools.lang.psi.searchers;
+
+import com.intellij.ide.projectView.PresentationData;
+import com.intellij.navigation.ChooseByNameContributorEx;
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.plugins.drools.JbossDroolsIcons;
+import com.intellij.plugins.drools.lang.psi.DroolsRuleStatement;
+import com.intellij.plugins.drools.lang.psi.indexes.DroolsSymbolIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.FindSymbolParameters;
+import com.intellij.util.indexing.IdFilter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class DroolsGotoSymbolContributor implements ChooseByNameContributorEx {
+  @Override
+  public void processNames(@NotNull Processor<? super String> processor, @NotNull GlobalSearchScope scope, @Nullable IdFilter filter) {
+    DroolsSymbolIndex.processAllNames(processor, scope, filter);
+  }
+
+  @Override
+  public void processElementsWithName(@NotNull String name,
+                                      @NotNull Processor<? super NavigationItem> processor,
+                                      @NotNull FindSymbolParameters parameters) {
+    DroolsSymbolIndex.processByName(parameters.getProject(), name, parameters.getSearchScope(), element -> {
+      if (element instanceof DroolsRuleStatement rule) {
+        return processor.process(new DroolsRuleNavigationItem(rule, name));
+      }
+      return !(element instanceof NavigationItem navigationItem) || processor.process(navigationItem);
+    });
+  }
+
+  // rules have no name of their own, see DroolsRuleStatementStructureViewElement
+  private static final class DroolsRuleNavigationItem implements NavigationItem {
+    private final DroolsRuleStatement myRule;
+    private final String myName;
+
+    DroolsRuleNavigationItem(@NotNull DroolsRuleStatement rule, @NotNull String name) {
+      myRule = rule;
+      myName = name;
+    }
+
+    @Override
+    public @NotNull String getName() {
+      return myName;
+    }
+
+    @Override
+    public @NotNull ItemPresentation getPresentation() {
+      return new PresentationData(myName, myRule.getContainingFile().getName(), JbossDroolsIcons.Drools_16, null);
+    }
+
+    @Override
+    public void navigate(boolean requestFocus) {
+      if (myRule instanceof NavigationItem) {
+        ((NavigationItem)myRule).navigate(requestFocus);
+      }
+    }
+
+    @Override
+    public boolean canNavigate() {
+      return myRule instanceof NavigationItem && ((NavigationItem)myRule).canNavigate();
+    }
+
+    @Override
+    public boolean canNavigateToSource() {
+      return myRule instanceof NavigationItem && ((NavigationItem)myRule).canNavigateToSource();
+    }
+  }
+}
@@ -0,0 +1,217 @@
+// Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.intellij.plugins.drools.lang.psi.util;
+
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.plugins.drools.lang.psi.*;
+import com.intellij.psi.*;
+import com.intellij.psi.scope.NameHint;
+import com.intellij.psi.scope.PsiScopeProcessor;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PropertyUtilBase;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Top-level declarations of a Drools file and the Java elements its imports refer to, grouped by name.
+ * <p>
+ * Computed once per file and dropped on any PSI change, so resolving a reference neither re-walks the file nor re-resolves its imports,
+ * and a reference with a known name only looks at the declarations of that name. Methods are also found by the name of the bean
+ * property if they are getters, because Drools references may refer to properties.
+ */
+public final class DroolsFileSymbols {
+  private final @Nullable PsiPackage myCurrentPackage;
+  private final Set<PsiPackage> myExplicitlyImportedPackages;
+  private final Symbols<PsiClass> myImportedClasses;
+  private final Symbols<PsiMethod> myImportedFunctions;
+  private final Symbols<PsiField> myImportedStaticMembers;
+  private final Symbols<DroolsTypeDeclaration> myTypeDeclarations;
+  private final Symbols<DroolsEnumDeclaration> myEnumDeclarations;
+  private final Symbols<DroolsFunctionStatement> myFunctions;
+  private final Symbols<DroolsQueryStatement> myQueries;
+  private final Symbols<DroolsGlobalStatement> myGlobalVariables;
+
+  private DroolsFileSymbols(@NotNull DroolsFile droolsFile) {
+    GlobalSearchScope scope = DroolsResolveUtil.getSearchScope(droolsFile);
+    JavaPsiFacade facade = JavaPsiFacade.getInstance(droolsFile.getProject());
+    DroolsImportStatement[] imports = droolsFile.getImports();
+
+    String packageName = DroolsResolveUtil.getCurrentPackage(droolsFile);
+    myCurrentPackage = !StringUtil.isEmptyOrSpaces(packageName) ? facade.findPackage(packageName) : null;
+
+    Set<PsiPackage> importedPackages = new LinkedHashSet<>();
+    List<PsiClass> importedClasses = new ArrayList<>();
+    for (DroolsImport droolsImport : imports) {
+      String importedPackage = droolsImport.getImportedPackage();
+      if (importedPackage != null) {
+        PsiPackage psiPackage = facade.findPackage(importedPackage);
+        if (psiPackage != null) {
+          importedPackages.add(psiPackage);
+        }
+      }
+
+      String className = droolsImport.getImportedClassName();
+      if (className != null) {
+        PsiClass psiClass = facade.findClass(className, scope);
+        if (psiClass != null) {
+          importedClasses.add(new DroolsLightClass(psiClass));
+        }
+      }
+    }
+    myExplicitlyImportedPackages = Collections.unmodifiableSet(importedPackages);
+    myImportedClasses = new Symbols<>(importedClasses, PsiClass::getName);
+    myImportedFunctions = new Symbols<>(Arrays.asList(findImportedFunctions(imports, facade, scope)), PsiMethod::getName);
+    myImportedStaticMembers = new Symbols<>(findImportedStaticMembers(imports, facade, scope), PsiField::getName);
+
+    List<DroolsTypeDeclaration> typeDeclarations = new ArrayList<>();
+    List<DroolsEnumDeclaration> enumDeclarations = new ArrayList<>();
+    for (DroolsDeclareStatement declaration : droolsFile.getDeclarations()) {
+      DroolsTypeDeclaration typeDeclaration = declaration.getTypeDeclaration();
+      if (typeDeclaration != null) {
+        typeDeclarations.add(typeDeclaration);
+      }
+      DroolsEnumDeclaration enumDeclaration = declaration.getEnumDeclaration();
+      if (enumDeclaration != null) {
+        enumDeclarations.add(enumDeclaration);
+      }
+    }
+    myTypeDeclarations = new Symbols<>(typeDeclarations, PsiClass::getName);
+    myEnumDeclarations = new Symbols<>(enumDeclarations, PsiClass::getName);
+
+    myFunctions = new Symbols<>(Arrays.asList(droolsFile.getFunctions()), PsiMethod::getName);
+    myQueries = new Symbols<>(Arrays.asList(droolsFile.getQueries()), PsiMethod::getName);
+    myGlobalVariables = new Symbols<>(Arrays.asList(droolsFile.getGlobalVariables()), PsiVariable::getName);
+  }
+
+  public static @NotNull DroolsFileSymbols getInstance(@NotNull DroolsFile droolsFile) {
+    return CachedValuesManager.getCachedValue(droolsFile, () -> CachedValueProvider.Result.create(
+      new DroolsFileSymbols(droolsFile), PsiModificationTracker.MODIFICATION_COUNT, ProjectRootManager.getInstance(droolsFile.getProject())));
+  }
+
+  public @Nullable PsiPackage getCurrentPackage() {
+    return myCurrentPackage;
+  }
+
+  public @NotNull Set<PsiPackage> getExplicitlyImportedPackages() {
+    return myExplicitlyImportedPackages;
+  }
+
+  /**
+   * The methods below return all the symbols of a kind if {@code name} is {@code null}, otherwise the symbols which may have this name.
+   *
+   * @return classes imported by name, as {@link DroolsLightClass}es
+   */
+  public @NotNull List<PsiClass> getImportedClasses(@Nullable String name) {
+    return myImportedClasses.get(name);
+  }
+
+  public @NotNull List<PsiMethod> getImportedFunctions(@Nullable String name) {
+    return myImportedFunctions.get(name);
+  }
+
+  public @NotNull List<PsiField> getImportedStaticMembers(@Nullable String name) {
+    return myImportedStaticMembers.get(name);
+  }
+
+  public @NotNull List<DroolsTypeDeclaration> getTypeDeclarations(@Nullable String name) {
+    return myTypeDeclarations.get(name);
+  }
+
+  public @NotNull List<DroolsEnumDeclaration> getEnumDeclarations(@Nullable String name) {
+    return myEnumDeclarations.get(name);
+  }
+
+  public @NotNull List<DroolsFunctionStatement> getFunctions(@Nullable String name) {
+    return myFunctions.get(name);
+  }
+
+  public @NotNull List<DroolsQueryStatement> getQueries(@Nullable String name) {
+    return myQueries.get(name);
+  }
+
+  public @NotNull List<DroolsGlobalStatement> getGlobalVariables(@Nullable String name) {
+    return myGlobalVariables.get(name);
+  }
+
+  /**
+   * @return the name of the declarations the processor looks for, or {@code null} if it processes all of them
+   */
+  public static @Nullable String getNameHint(@NotNull PsiScopeProcessor processor, @NotNull ResolveState state) {
+    NameHint nameHint = processor.getHint(NameHint.KEY);
+    return nameHint != null ? nameHint.getName(state) : null;
+  }
+
+  private static PsiMethod @NotNull [] findImportedFunctions(DroolsImportStatement @NotNull [] imports,
+                                                             @NotNull JavaPsiFacade facade,
+                                                             @NotNull GlobalSearchScope scope) {
+    for (DroolsImport anImport : imports) {
+      if (!anImport.isFunction()) continue;
+      final String importedFunction = anImport.getImportedFunction();
+      if (StringUtil.isNotEmpty(importedFunction)) {
+        final String className = importedFunction.substring(0, importedFunction.lastIndexOf("."));
+        final String methodName = StringUtil.getShortName(importedFunction);
+        if (StringUtil.isNotEmpty(className) && StringUtil.isNotEmpty(methodName)) {
+          PsiClass psiClass = facade.findClass(className, scope);
+          if (psiClass != null) {
+            return psiClass.findMethodsByName(methodName, true);
+          }
+        }
+      }
+    }
+    return PsiMethod.EMPTY_ARRAY;
+  }
+
+  private static @NotNull List<PsiField> findImportedStaticMembers(DroolsImportStatement @NotNull [] imports,
+                                                                   @NotNull JavaPsiFacade facade,
+                                                                   @NotNull GlobalSearchScope scope) {
+    for (DroolsImportStatement anImport : imports) {
+      if (!anImport.isStatic()) continue;
+      final String imported = anImport.getImportQualifier().getText();
+      if (StringUtil.isNotEmpty(imported)) {
+        final String className = imported.substring(0, imported.lastIndexOf("."));
+        final String memberName = StringUtil.getShortName(imported);
+        if (StringUtil.isNotEmpty(memberName) && StringUtil.isNotEmpty(className)) {
+          PsiClass psiClass = facade.findClass(className, scope);
+          if (psiClass != null) {
+            final PsiField fieldByName = psiClass.findFieldByName(memberName, true);
+            if (fieldByName != null) return Collections.singletonList(fieldByName);
+          }
+        }
+      }
+    }
+    return Collections.emptyList();
+  }
+
+  private static final class Symbols<T extends PsiElement> {
+    private final List<T> myAll;
+    private final Map<String, List<T>> myByName = new HashMap<>();
+
+    Symbols(@NotNull List<T> all, @NotNull Function<? super T, String> getName) {
+      myAll = Collections.unmodifiableList(all);
+      for (T element : all) {
+        addByName(getName.apply(element), element);
+        if (element instanceof PsiMethod method && PropertyUtilBase.isSimplePropertyGetter(method)) {
+          addByName(PropertyUtilBase.getPropertyNameByGetter(method), element);
+        }
+      }
+    }
+
+    private void addByName(@Nullable String name, @NotNull T element) {
+      if (name == null) return;
+      List<T> elements = myByName.computeIfAbsent(name, __ -> new ArrayList<>(1));
+      if (!elements.contains(element)) {
+        elements.add(element);
+      }
+    }
+
+    @NotNull List<T> get(@Nullable String name) {
+      return name == null ? myAll : myByName.getOrDefault(name, Collections.emptyList());
+    }
+  }
+}
@@ -8,10 +8,11 @@ import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.util.RecursionManager;
 import com.intellij.openapi.util.Ref;
-import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.plugins.drools.lang.psi.*;
 import com.intellij.plugins.drools.lang.psi.impl.DroolsFakePsiMethod;
 import com.intellij.plugins.drools.lang.psi.impl.DroolsPsiClassImpl;
+import com.intellij.plugins.drools.lang.psi.indexes.DroolsSymbolIndex;
+import com.intellij.plugins.drools.lang.psi.indexes.DroolsSymbolKind;
 import com.intellij.plugins.drools.lang.psi.util.processors.*;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.beanProperties.BeanProperty;
@@ -114,6 +115,7 @@ public final class DroolsResolveUtil {
     if (!processImportedStaticMembers(processor, reference)) return false;
     if (!processParameters(processor, reference)) return false;
     if (!processGlobalVariables(processor, reference)) return false;
+    if (!processPackageSymbols(processor, reference)) return false;
 
     return true;
   }
@@ -121,7 +123,8 @@ public final class DroolsResolveUtil {
   private static boolean processFunctions(CollectProcessor<PsiElement> processor, DroolsReference reference) {
     PsiFile containingFile = reference.getContainingFile();
     if (containingFile instanceof DroolsFile) {
-      for (DroolsFunctionStatement functionStatement : ((DroolsFile)containingFile).getFunctions()) {
+      DroolsFileSymbols symbols = DroolsFileSymbols.getInstance((DroolsFile)containingFile);
+      for (DroolsFunctionStatement functionStatement : symbols.getFunctions(getNameToResolve(processor))) {
         if (!processor.process(functionStatement)) return false;
       }
     }
@@ -131,7 +134,8 @@ public final class DroolsResolveUtil {
   private static boolean processImportedFunctions(CollectProcessor<PsiElement> processor, DroolsReference reference) {
     PsiFile containingFile = reference.getContainingFile();
     if (containingFile instanceof DroolsFile) {
-      for (PsiMethod importedFunction : DroolsImportedFunctionsProcessor.getImportedFunctions((DroolsFile)containingFile)) {
+      DroolsFileSymbols symbols = DroolsFileSymbols.getInstance((DroolsFile)containingFile);
+      for (PsiMethod importedFunction : symbols.getImportedFunctions(getNameToResolve(processor))) {
         if (!processor.process(importedFunction)) return false;
       }
     }
@@ -141,7 +145,8 @@ public final class DroolsResolveUtil {
   private static boolean processImportedStaticMembers(CollectProcessor<PsiElement> processor, DroolsReference reference) {
     PsiFile containingFile = reference.getContainingFile();
     if (containingFile instanceof DroolsFile) {
-      for (PsiField psiField : DroolsImportedStaticMembersProcessor.getImportedStaticMembers((DroolsFile)containingFile)) {
+      DroolsFileSymbols symbols = DroolsFileSymbols.getInstance((DroolsFile)containingFile);
+      for (PsiField psiField : symbols.getImportedStaticMembers(getNameToResolve(processor))) {
         if (!processor.process(psiField)) return false;
       }
     }
@@ -151,7 +156,8 @@ public final class DroolsResolveUtil {
   private static boolean processQueries(CollectProcessor<PsiElement> processor, DroolsReference reference) {
     PsiFile containingFile = reference.getContainingFile();
     if (containingFile instanceof DroolsFile) {
-      for (DroolsQueryStatement queryStatement : ((DroolsFile)containingFile).getQueries()) {
+      DroolsFileSymbols symbols = DroolsFileSymbols.getInstance((DroolsFile)containingFile);
+      for (DroolsQueryStatement queryStatement : symbols.getQueries(getNameToResolve(processor))) {
         if (!processor.process(queryStatement)) return false;
       }
     }
@@ -161,13 +167,35 @@ public final class DroolsResolveUtil {
   private static boolean processGlobalVariables(CollectProcessor<PsiElement> processor, DroolsReference reference) {
     PsiFile containingFile = reference.getContainingFile();
     if (containingFile instanceof DroolsFile) {
-      for (DroolsGlobalStatement globalStatement : ((DroolsFile)containingFile).getGlobalVariables()) {
+      DroolsFileSymbols symbols = DroolsFileSymbols.getInstance((DroolsFile)containingFile);
+      for (DroolsGlobalStatement globalStatement : symbols.getGlobalVariables(getNameToResolve(processor))) {
         if (!processor.process(globalStatement)) return false;
       }
     }
     return true;
   }
 
+  private static boolean processPackageSymbols(CollectProcessor<PsiElement> processor, DroolsReference reference) {
+    PsiFile containingFile = reference.getContainingFile();
+    if (containingFile instanceof DroolsFile droolsFile) {
+      String name = getNameToResolve(processor);
+      for (DroolsSymbolKind kind : new DroolsSymbolKind[]{DroolsSymbolKind.QUERY, DroolsSymbolKind.FUNCTION, DroolsSymbolKind.GLOBAL}) {
+        for (PsiElement element : DroolsSymbolIndex.findInPackage(droolsFile, kind, name, kind.getElementClass())) {
+          if (!processor.process(element)) return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the name of the reference being resolved, or {@code null} if the processor collects all the variants
+   */
+  private static @Nullable String getNameToResolve(@NotNull CollectProcessor<PsiElement> processor) {
+    return processor instanceof MyReferenceResolvePsiElementProcessor ? ((MyReferenceResolvePsiElementProcessor)processor).myTextToResolve
+                                                                      : null;
+  }
+
   private static boolean processModifyStatements(@NotNull CollectProcessor<PsiElement> processor,
                                                  DroolsReference reference) {
     final DroolsModifyRhsStatement modifyRhsStatement = PsiTreeUtil.getParentOfType(reference, DroolsModifyRhsStatement.class);
@@ -436,6 +464,7 @@ public final class DroolsResolveUtil {
     DroolsFile droolsFile = PsiTreeUtil.getParentOfType(reference, DroolsFile.class);
     if (droolsFile != null) {
       final GlobalSearchScope scope = getSearchScope(droolsFile);
+      final String name = getNameToResolve(processor);
       if (!processTopPackage(processor, scope, reference.getProject())) return false;
       for (PsiPackage aPackage : getImportedPackages(droolsFile)) {
         if (!processPackage(processor, aPackage, scope, false)) return false;
@@ -443,17 +472,26 @@ public final class DroolsResolveUtil {
 
       final PsiPackage javaLangPackage = getJavaLangPackage(droolsFile.getProject());
       if (javaLangPackage != null) {
-        if (!processPackage(processor, javaLangPackage, GlobalSearchScope.allScope(droolsFile.getProject()))) return false;
+        final GlobalSearchScope allScope = GlobalSearchScope.allScope(droolsFile.getProject());
+        if (!processor.process(javaLangPackage)) return false;
+        PsiClass[] classes = name != null ? javaLangPackage.findClassByShortName(name, allScope) : javaLangPackage.getClasses(allScope);
+        for (PsiClass psiClass : classes) {
+          if (!processor.process(psiClass)) return false;
+        }
+      }
+
+      DroolsFileSymbols symbols = DroolsFileSymbols.getInstance(droolsFile);
+      for (PsiClass importedClass : symbols.getImportedClasses(name)) {
+        if (!processor.process(importedClass)) return false;
       }
-      if (!processImportedClasses(droolsFile, processor)) return false;
 
       // process declared types
-      DroolsDeclareStatement[] declarations = droolsFile.getDeclarations();
-      for (DroolsDeclareStatement declaration : declarations) {
-        DroolsTypeDeclaration typeDeclaration = declaration.getTypeDeclaration();
-        if (typeDeclaration != null && !processor.process(typeDeclaration)) {
-          return false;
-        }
+      for (DroolsTypeDeclaration typeDeclaration : symbols.getTypeDeclarations(name)) {
+        if (!processor.process(typeDeclaration)) return false;
+      }
+      for (DroolsTypeDeclaration typeDeclaration : DroolsSymbolIndex.findInPackage(droolsFile, DroolsSymbolKind.TYPE, name,
+                                                                                    DroolsTypeDeclaration.class)) {
+        if (!processor.process(typeDeclaration)) return false;
       }
     }
 
@@ -472,12 +510,6 @@ public final class DroolsResolveUtil {
     return true;
   }
 
-  private static boolean processPackage(CollectProcessor<PsiElement> processor,
-                                        PsiPackage aPackage,
-                                        @NotNull GlobalSearchScope searchScope) {
-    return processPackage(processor, aPackage, searchScope, true);
-  }
-
   private static boolean processPackage(CollectProcessor<PsiElement> processor,
                                         PsiPackage aPackage,
                                         @NotNull GlobalSearchScope searchScope,
@@ -658,7 +690,6 @@ public final class DroolsResolveUtil {
   }
 
   public static Set<PsiPackage> getImportedPackages(@NotNull DroolsFile droolsFile, boolean addDefaultPackages) {
-    // todo cache it
     Set<PsiPackage> imported = new HashSet<>();
 
     if (addDefaultPackages) {
@@ -671,20 +702,11 @@ public final class DroolsResolveUtil {
   }
 
   public static @NotNull Set<PsiPackage> getExplicitlyImportedPackages(DroolsFile droolsFile) {
-    Set<PsiPackage> imported = new HashSet<>();
-    JavaPsiFacade facade = JavaPsiFacade.getInstance(droolsFile.getProject());
-    for (DroolsImport droolsImport : droolsFile.getImports()) {
-      String importedPackage = droolsImport.getImportedPackage();
-      if (importedPackage != null) {
-        addNotNull(imported, facade.findPackage(importedPackage));
-      }
-    }
-    return imported;
+    return DroolsFileSymbols.getInstance(droolsFile).getExplicitlyImportedPackages();
   }
 
   public static @Nullable PsiPackage getCurrentPsiPackage(DroolsFile droolsFile) {
-    String packageName = getCurrentPackage(droolsFile);
-    return !StringUtil.isEmptyOrSpaces(packageName) ? JavaPsiFacade.getInstance(droolsFile.getProject()).findPackage(packageName) : null;
+    return DroolsFileSymbols.getInstance(droolsFile).getCurrentPackage();
   }
 
   public static @Nullable PsiPackage getJavaLangPackage(@NotNull Project project) {
@@ -701,12 +723,6 @@ public final class DroolsResolveUtil {
     return packageStatement != null ? packageStatement.getNamespace().getText() : "";
   }
 
-  private static void addNotNull(@NotNull Set<PsiPackage> imported, @Nullable PsiPackage currentPackage) {
-    if (currentPackage != null) {
-      imported.add(currentPackage);
-    }
-  }
-
   public static @NotNull Set<PsiVariable> getVariables(@NotNull PsiElement place) {
     Set<PsiVariable> variables = new HashSet<>();
     final PsiFile file = place.getContainingFile();
@@ -799,19 +815,9 @@ public final class DroolsResolveUtil {
   }
 
   public static boolean processImportedClasses(@NotNull DroolsFile droolsFile, @NotNull Processor<? super PsiElement> processor) {
-    final DroolsImport[] imports = droolsFile.getImports();
-    JavaPsiFacade facade = JavaPsiFacade.getInstance(droolsFile.getProject());
-
-    for (DroolsImport droolsImport : imports) {
-      String className = droolsImport.getImportedClassName();
-      if (className != null) {
-        PsiClass psiClass = facade.findClass(className, getSearchScope(droolsFile));
-        if (psiClass != null) {
-          DroolsLightClass droolsLightClass = new DroolsLightClass(psiClass);
-          if (!processor.process(droolsLightClass)) {
-            return false;
-          }
-        }
+    for (PsiClass importedClass : DroolsFileSymbols.getInstance(droolsFile).getImportedClasses(null)) {
+      if (!processor.process(importedClass)) {
+        return false;
       }
     }
     return true;
@@ -1,10 +1,12 @@
 // Copyright 2000-2023 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
 package com.intellij.plugins.drools.lang.psi.util.processors;
 
-import com.intellij.plugins.drools.lang.psi.DroolsDeclareStatement;
 import com.intellij.plugins.drools.lang.psi.DroolsEnumDeclaration;
 import com.intellij.plugins.drools.lang.psi.DroolsFile;
 import com.intellij.plugins.drools.lang.psi.DroolsTypeDeclaration;
+import com.intellij.plugins.drools.lang.psi.indexes.DroolsSymbolIndex;
+import com.intellij.plugins.drools.lang.psi.indexes.DroolsSymbolKind;
+import com.intellij.plugins.drools.lang.psi.util.DroolsFileSymbols;
 import com.intellij.plugins.drools.lang.psi.util.DroolsLightClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.ResolveState;
@@ -29,26 +31,17 @@ public final class DroolsDeclaredTypesProcessor implements DroolsDeclarationsPro
                                 @NotNull ResolveState state,
                                 PsiElement lastParent,
                                 @NotNull PsiElement place, @NotNull DroolsFile droolsFile) {
-    DroolsDeclareStatement[] declarations = droolsFile.getDeclarations();
-    for (DroolsDeclareStatement declaration : declarations) {
-      if (!processTypeDeclaration(processor, state, declaration)) return false;
-      if (!processEnumDeclaration(processor, state, declaration)) return false;
+    String name = DroolsFileSymbols.getNameHint(processor, state);
+    DroolsFileSymbols symbols = DroolsFileSymbols.getInstance(droolsFile);
+    for (DroolsTypeDeclaration typeDeclaration : symbols.getTypeDeclarations(name)) {
+      if (!processor.execute(new DroolsLightClass(typeDeclaration), state)) return false;
     }
-    return true;
-  }
-
-  private static boolean processTypeDeclaration(@NotNull PsiScopeProcessor processor, @NotNull ResolveState state, DroolsDeclareStatement declaration) {
-    DroolsTypeDeclaration typeDeclaration = declaration.getTypeDeclaration();
-    if (typeDeclaration != null  && !processor.execute(new DroolsLightClass(typeDeclaration), state)) {
-      return false;
+    for (DroolsTypeDeclaration typeDeclaration : DroolsSymbolIndex.findInPackage(droolsFile, DroolsSymbolKind.TYPE, name,
+                                                                                  DroolsTypeDeclaration.class)) {
+      if (!processor.execute(new DroolsLightClass(typeDeclaration), state)) return false;
     }
-    return true;
-  }
-
-  private static boolean processEnumDeclaration(@NotNull PsiScopeProcessor processor, @NotNull ResolveState state, DroolsDeclareStatement declaration) {
-    DroolsEnumDeclaration enumDeclaration = declaration.getEnumDeclaration();
-    if (enumDeclaration != null  && !processor.execute(new DroolsLightClass(enumDeclaration), state)) {
-      return false;
+    for (DroolsEnumDeclaration enumDeclaration : symbols.getEnumDeclarations(name)) {
+      if (!processor.execute(new DroolsLightClass(enumDeclaration), state)) return false;
     }
     return true;
   }
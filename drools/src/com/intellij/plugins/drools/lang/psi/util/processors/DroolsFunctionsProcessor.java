@@ -4,6 +4,9 @@ package com.intellij.plugins.drools.lang.psi.util.processors;
 import com.intellij.plugins.drools.lang.psi.DroolsFile;
 import com.intellij.plugins.drools.lang.psi.DroolsFunctionLightMethodBuilder;
 import com.intellij.plugins.drools.lang.psi.DroolsFunctionStatement;
+import com.intellij.plugins.drools.lang.psi.indexes.DroolsSymbolIndex;
+import com.intellij.plugins.drools.lang.psi.indexes.DroolsSymbolKind;
+import com.intellij.plugins.drools.lang.psi.util.DroolsFileSymbols;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.ResolveState;
 import com.intellij.psi.impl.light.LightMethodBuilder;
@@ -27,7 +30,12 @@ public final class DroolsFunctionsProcessor implements DroolsDeclarationsProcess
                                 @NotNull ResolveState state,
                                 PsiElement lastParent,
                                 @NotNull PsiElement place, @NotNull DroolsFile droolsFile) {
-    for (final DroolsFunctionStatement functionStatement : droolsFile.getFunctions()) {
+    String name = DroolsFileSymbols.getNameHint(processor, state);
+    for (final DroolsFunctionStatement functionStatement : DroolsFileSymbols.getInstance(droolsFile).getFunctions(name)) {
+      if (!processor.execute(functionStatement, state)) return false;
+    }
+    for (DroolsFunctionStatement functionStatement : DroolsSymbolIndex.findInPackage(droolsFile, DroolsSymbolKind.FUNCTION, name,
+                                                                                    DroolsFunctionStatement.class)) {
       if (!processor.execute(functionStatement, state)) return false;
     }
     return true;
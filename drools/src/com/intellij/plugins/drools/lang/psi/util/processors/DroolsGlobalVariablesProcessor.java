@@ -2,6 +2,10 @@
 package com.intellij.plugins.drools.lang.psi.util.processors;
 
 import com.intellij.plugins.drools.lang.psi.DroolsFile;
+import com.intellij.plugins.drools.lang.psi.DroolsGlobalStatement;
+import com.intellij.plugins.drools.lang.psi.indexes.DroolsSymbolIndex;
+import com.intellij.plugins.drools.lang.psi.indexes.DroolsSymbolKind;
+import com.intellij.plugins.drools.lang.psi.util.DroolsFileSymbols;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiVariable;
 import com.intellij.psi.ResolveState;
@@ -26,7 +30,12 @@ public final class DroolsGlobalVariablesProcessor implements DroolsDeclarationsP
                                 PsiElement lastParent,
                                 @NotNull PsiElement place, @NotNull DroolsFile droolsFile) {
 
-    for (PsiVariable psiVariable : droolsFile.getGlobalVariables()) {
+    String name = DroolsFileSymbols.getNameHint(processor, state);
+    for (PsiVariable psiVariable : DroolsFileSymbols.getInstance(droolsFile).getGlobalVariables(name)) {
+      if (!processor.execute(psiVariable, state)) return false;
+    }
+    for (PsiVariable psiVariable : DroolsSymbolIndex.findInPackage(droolsFile, DroolsSymbolKind.GLOBAL, name,
+                                                                   DroolsGlobalStatement.class)) {
       if (!processor.execute(psiVariable, state)) return false;
     }
     return true;
@@ -3,6 +3,8 @@ package com.intellij.plugins.drools.lang.psi.util.processors;
 
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.plugins.drools.lang.psi.*;
+import com.intellij.plugins.drools.lang.psi.indexes.DroolsSymbolIndex;
+import com.intellij.plugins.drools.lang.psi.indexes.DroolsSymbolKind;
 import com.intellij.plugins.drools.lang.psi.util.DroolsLightVariable;
 import com.intellij.psi.*;
 import com.intellij.psi.scope.PsiScopeProcessor;
@@ -129,6 +131,11 @@ public final class DroolsLhsBindVariablesProcessor implements DroolsDeclarations
         for (DroolsRuleStatement ruleStatement : droolsFile.getRules()) {
           if (ruleIdText.equals(ruleStatement.getRuleName().getStringId().getText())) return ruleStatement;
         }
+        // a rule may extend a rule of another file of the same package
+        String ruleName = StringUtil.unquoteString(ruleIdText);
+        List<DroolsRuleStatement> rules =
+          DroolsSymbolIndex.findInPackage(droolsFile, DroolsSymbolKind.RULE, ruleName, DroolsRuleStatement.class);
+        if (!rules.isEmpty()) return rules.get(0);
       }
     }
     return null;
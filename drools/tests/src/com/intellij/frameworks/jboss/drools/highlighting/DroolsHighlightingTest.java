@@ -28,6 +28,12 @@ public class DroolsHighlightingTest extends DroolsLightTestCase {
     myFixture.testHighlighting(false, false, false, "functionsInEval.drl");
   }
 
+  public void testPackageSymbolsFromOtherFiles() {
+    myFixture.copyFileToProject("packageSymbols/shared.drl");
+    myFixture.copyFileToProject("packageSymbols/other.drl");
+    myFixture.testHighlighting(false, false, false, "packageSymbols/usage.drl");
+  }
+
   public void testGlobalVarsInWhen() {
     myFixture.copyFileToProject("examples/fibonacci/FibonacciExample.java");
     myFixture.testHighlighting(false, false, false, "globalVarsHighlighting.drl");
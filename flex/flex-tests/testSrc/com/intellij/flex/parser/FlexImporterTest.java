@@ -69,6 +69,20 @@ public class FlexImporterTest extends TestCase {
     doTestFor("hotbook.swf");
   }
 
+  public final void testSwfLengthLargerThanContent() throws Exception {
+    final String fileName = "employeedirectory.swf";
+    final byte[] contents = FileUtil.loadFileBytes(new File(getTestDataPath() + fileName));
+    // the uncompressed length in the header of a compressed swf, little-endian
+    contents[4] = (byte)0xFF;
+    contents[5] = (byte)0xFF;
+    contents[6] = (byte)0xFF;
+    contents[7] = (byte)0x7F;
+
+    final String expected =
+      StringUtil.convertLineSeparators(FileUtil.loadFile(new File(getTestDataPath() + fileName + ".txt"), StandardCharsets.UTF_8));
+    assertEquals(expected, FlexImporter.buildInterfaceFromStream(new ByteArrayInputStream(contents)));
+  }
+
   private void doTestFor(final String fileName) throws IOException {
     final File file = new File(getTestDataPath() + fileName);
     final byte[] contents;
@@ -0,0 +1,101 @@
+// Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.intellij.jps.flex.build;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jps.model.JpsProject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Built-in compiler daemons used during one build. Each daemon is bound to one SDK and runs any number of compilations at once, each
+ * command in its own thread. Daemons are started lazily, at most {@code flex.builtin.compiler.daemons} per SDK, one unless the property
+ * is set. Extra daemons take compilations only when all started ones are busy. A build configuration is compiled by the same daemon as
+ * before whenever it is idle, because the daemon keeps the incremental compilation state.
+ */
+final class JpsBuiltInFlexCompilerPool {
+  private static final int MAX_DAEMONS_PER_SDK = Math.max(1, Integer.getInteger("flex.builtin.compiler.daemons", 1));
+
+  private final JpsProject myProject;
+  private final int myMaxDaemonsPerSdk;
+
+  private final Map<String, List<JpsBuiltInFlexCompilerHandler>> mySdkHomeToHandlers = new HashMap<>();
+  private final Map<String, JpsBuiltInFlexCompilerHandler> myLastUsedHandlers = new HashMap<>();
+  private final Map<JpsBuiltInFlexCompilerHandler, Integer> myActiveCompilations = new HashMap<>();
+
+  JpsBuiltInFlexCompilerPool(final JpsProject project) {
+    this(project, MAX_DAEMONS_PER_SDK);
+  }
+
+  JpsBuiltInFlexCompilerPool(final JpsProject project, final int maxDaemonsPerSdk) {
+    myProject = project;
+    myMaxDaemonsPerSdk = maxDaemonsPerSdk;
+  }
+
+  /**
+   * Picks a daemon for the SDK, the caller must {@link #release} it after the compilation. Never waits: when all daemons are busy and no
+   * more may be started, the least loaded one is shared.
+   *
+   * @param bcKey identifies the build configuration, it is compiled by the daemon which compiled it last time if possible
+   */
+  synchronized @NotNull JpsBuiltInFlexCompilerHandler acquire(final @NotNull String sdkHome, final @NotNull String bcKey) {
+    final List<JpsBuiltInFlexCompilerHandler> handlers = mySdkHomeToHandlers.computeIfAbsent(sdkHome, __ -> new ArrayList<>());
+
+    JpsBuiltInFlexCompilerHandler handler = myLastUsedHandlers.get(bcKey);
+    if (handler == null || getActiveCompilations(handler) > 0 || !handlers.contains(handler)) {
+      handler = findLeastLoadedHandler(handlers);
+    }
+
+    if ((handler == null || getActiveCompilations(handler) > 0) && handlers.size() < myMaxDaemonsPerSdk) {
+      handler = new JpsBuiltInFlexCompilerHandler(myProject);
+      handlers.add(handler);
+    }
+
+    assert handler != null;
+    myActiveCompilations.merge(handler, 1, Integer::sum);
+    myLastUsedHandlers.put(bcKey, handler);
+    return handler;
+  }
+
+  private @Nullable JpsBuiltInFlexCompilerHandler findLeastLoadedHandler(final List<JpsBuiltInFlexCompilerHandler> handlers) {
+    JpsBuiltInFlexCompilerHandler result = null;
+    for (JpsBuiltInFlexCompilerHandler handler : handlers) {
+      if (result == null || getActiveCompilations(handler) < getActiveCompilations(result)) {
+        result = handler;
+      }
+    }
+    return result;
+  }
+
+  private int getActiveCompilations(final JpsBuiltInFlexCompilerHandler handler) {
+    return myActiveCompilations.getOrDefault(handler, 0);
+  }
+
+  synchronized void release(final @NotNull JpsBuiltInFlexCompilerHandler handler) {
+    myActiveCompilations.computeIfPresent(handler, (__, count) -> count > 1 ? count - 1 : null);
+  }
+
+  synchronized int getActiveCompilationsNumber() {
+    int result = 0;
+    for (List<JpsBuiltInFlexCompilerHandler> handlers : mySdkHomeToHandlers.values()) {
+      for (JpsBuiltInFlexCompilerHandler handler : handlers) {
+        result += handler.getActiveCompilationsNumber();
+      }
+    }
+    return result;
+  }
+
+  synchronized void stopCompilerProcesses() {
+    for (List<JpsBuiltInFlexCompilerHandler> handlers : mySdkHomeToHandlers.values()) {
+      for (JpsBuiltInFlexCompilerHandler handler : handlers) {
+        handler.stopCompilerProcess();
+      }
+    }
+    mySdkHomeToHandlers.clear();
+    myLastUsedHandlers.clear();
+    myActiveCompilations.clear();
+  }
+}
@@ -0,0 +1,47 @@
+// Copyright 2000-2025 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.intellij.jps.flex.build;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class JpsBuiltInFlexCompilerPoolTest extends TestCase {
+  public void testConcurrentCompilationsShareDaemon() throws Exception {
+    final JpsBuiltInFlexCompilerPool pool = new JpsBuiltInFlexCompilerPool(null, 1);
+    final CompletableFuture<JpsBuiltInFlexCompilerHandler> first = CompletableFuture.supplyAsync(() -> pool.acquire("sdk", "first"));
+    final CompletableFuture<JpsBuiltInFlexCompilerHandler> second = CompletableFuture.supplyAsync(() -> pool.acquire("sdk", "second"));
+
+    assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+    pool.release(first.get());
+    pool.release(second.get());
+  }
+
+  public void testBuildConfigurationReusesItsDaemon() {
+    final JpsBuiltInFlexCompilerPool pool = new JpsBuiltInFlexCompilerPool(null, 2);
+    final JpsBuiltInFlexCompilerHandler first = pool.acquire("sdk", "first");
+    final JpsBuiltInFlexCompilerHandler second = pool.acquire("sdk", "second");
+    assertNotSame(first, second);
+
+    pool.release(first);
+    pool.release(second);
+    assertSame(second, pool.acquire("sdk", "second"));
+    assertSame(first, pool.acquire("sdk", "first"));
+  }
+
+  public void testLeastLoadedDaemonIsSharedWhenAllAreBusy() {
+    final JpsBuiltInFlexCompilerPool pool = new JpsBuiltInFlexCompilerPool(null, 2);
+    final JpsBuiltInFlexCompilerHandler first = pool.acquire("sdk", "first");
+    final JpsBuiltInFlexCompilerHandler second = pool.acquire("sdk", "second");
+    assertSame(first, pool.acquire("sdk", "third"));
+
+    assertSame(second, pool.acquire("sdk", "fourth"));
+  }
+
+  public void testDaemonsAreNotSharedBetweenSdks() {
+    final JpsBuiltInFlexCompilerPool pool = new JpsBuiltInFlexCompilerPool(null, 1);
+    final JpsBuiltInFlexCompilerHandler first = pool.acquire("sdk1", "first");
+    final JpsBuiltInFlexCompilerHandler second = pool.acquire("sdk2", "second");
+    assertNotSame(first, second);
+  }
+}
@@ -18,7 +18,6 @@ import com.intellij.psi.stubs.StubElement;
 import com.intellij.util.indexing.FileContent;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.ByteArrayInputStream;
 import java.util.Collections;
 
 /**
@@ -42,10 +41,7 @@ public final class SwfFileStubBuilder implements BinaryFileStubBuilder {
     PsiFileStubImpl<?> stub = new JSFileStubImpl(FlexSupportLoader.ECMA_SCRIPT_L4, new JSFileCachedData(), Collections.emptySet());
     try {
 
-      FlexImporter.buildStubsInterfaceFromStream(
-        new ByteArrayInputStream(content),
-        stub
-      );
+      FlexImporter.buildStubsInterface(content, stub);
 
     } catch (Exception ex) {
       Logger.getInstance(SwfFileStubBuilder.class.getName()).warn(file.getPath(), ex);
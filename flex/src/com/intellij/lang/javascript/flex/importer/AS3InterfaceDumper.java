@@ -157,6 +157,11 @@ class AS3InterfaceDumper extends AbstractDumpProcessor {
     return false;
   }
 
+  @Override
+  public boolean needsMethodBodies() {
+    return false;
+  }
+
   @Override
   public void setProcessingInterface(final boolean anInterface) {
     isInterface = anInterface;
@@ -304,7 +304,6 @@ final class Abc {
 
     parseCpool();
 
-    defaults[CONSTANT_Utf8] = strings;
     defaults[CONSTANT_Int] = ints;
     defaults[CONSTANT_UInt] = uints;
     defaults[CONSTANT_Double] = doubles;
@@ -324,7 +323,9 @@ final class Abc {
     parseInstanceInfos();
     parseClassInfos();
     parseScriptInfos();
-    parseMethodBodies();
+    if (processor.needsMethodBodies()) {
+      parseMethodBodies();
+    }
   }
 
   private static Object[] buildSparseArray(int index, @NonNls String s1) {
@@ -367,6 +368,9 @@ final class Abc {
   Integer[] uints;
   Double[] doubles;
   @NonNls String[] strings;
+  // strings of the constant pool are decoded on first access, most of them are only referenced from the method bodies
+  private int[] stringStarts;
+  private int[] stringLengths;
   @NonNls String[] namespaces;
   @NonNls String[][] nssets;
   Multiname[] names;
@@ -385,6 +389,18 @@ final class Abc {
     return data.readU32();
   }
 
+  @NonNls String string(int index) {
+    String string = strings[index];
+    if (string == null) {
+      string = strings[index] = data.getUTFBytes(stringStarts[index], stringLengths[index]);
+    }
+    return string;
+  }
+
+  private Object getDefaultValue(int kind, int index) {
+    return kind == CONSTANT_Utf8 ? string(index) : defaults[kind][index];
+  }
+
   void parseCpool() {
     int i, j;
     int n;
@@ -420,9 +436,14 @@ final class Abc {
     // strings
     n = readU32();
     strings = new String[n];
+    stringStarts = new int[n];
+    stringLengths = new int[n];
     strings[0] = "";
     for (i = 1; i < n; i++) {
-      strings[i] = data.readUTFBytes(readU32());
+      int length = readU32();
+      stringStarts[i] = data.getPosition();
+      stringLengths[i] = length;
+      data.incPosition(length);
     }
 
     reportAboutPercentage("Cpool strings count " + n + " size ", data, start, processor);
@@ -436,7 +457,7 @@ final class Abc {
       switch (data.readByte()) {
         case CONSTANT_Namespace, CONSTANT_PackageNs, CONSTANT_PackageInternalNs,
           CONSTANT_ProtectedNs, CONSTANT_StaticProtectedNs, CONSTANT_StaticProtectedNs2 -> {
-          namespaces[i] = strings[readU32()];
+          namespaces[i] = string(readU32());
           // todo mark kind of namespace.
         }
         case CONSTANT_PrivateNs -> {
@@ -479,12 +500,12 @@ final class Abc {
 
     for (i = 1; i < n; i++) {
       switch (data.readByte()) {
-        case CONSTANT_Qname, CONSTANT_QnameA -> names[i] = new Multiname(new String[]{namespaces[readU32()]}, strings[readU32()]);
-        case CONSTANT_RTQname, CONSTANT_RTQnameA -> names[i] = new Multiname(new String[]{strings[readU32()]}, null);
+        case CONSTANT_Qname, CONSTANT_QnameA -> names[i] = new Multiname(new String[]{namespaces[readU32()]}, string(readU32()));
+        case CONSTANT_RTQname, CONSTANT_RTQnameA -> names[i] = new Multiname(new String[]{string(readU32())}, null);
         case CONSTANT_RTQnameL, CONSTANT_RTQnameLA -> names[i] = null;
         case CONSTANT_NameL, CONSTANT_NameLA -> names[i] = new Multiname(PUBLIC_NS_SET, null);
         case CONSTANT_Multiname, CONSTANT_MultinameA -> {
-          String name = strings[readU32()];
+          String name = string(readU32());
           names[i] = new Multiname(nssets[readU32()], name);
         }
         case CONSTANT_MultinameL, CONSTANT_MultinameLA -> names[i] = new Multiname(nssets[readU32()], null);
@@ -581,7 +602,7 @@ final class Abc {
         m.paramTypes[j] = names[readU32()];
         if (m.paramTypes[j] == null) m.paramTypes[j] = OpaqueAssetsType;
       }
-      m.debugName = strings[readU32()];
+      m.debugName = string(readU32());
       m.flags = data.readByte();
 
       if ((m.flags & HAS_OPTIONAL) != 0) {
@@ -612,11 +633,11 @@ final class Abc {
             m.optionalValues[k] = new Multiname(null, value);
           }
           else {
-            if (defaults[kind] == null) {
+            if (kind != CONSTANT_Utf8 && defaults[kind] == null) {
               processor.hasError("ERROR kind=" + kind + " method_id " + i + "\n");
             }
             else {
-              m.optionalValues[k] = new Multiname(null, defaults[kind][index].toString());
+              m.optionalValues[k] = new Multiname(null, getDefaultValue(kind, index).toString());
             }
           }
         }
@@ -627,7 +648,7 @@ final class Abc {
           Set<String> usedNames = new HashSet<>(m.paramNames.length);
           for (int k = 0; k < param_count; ++k) {
             final int index = readU32();
-            final String name = strings[index];
+            final String name = string(index);
             m.paramNames[k] = StringUtil.isJavaIdentifier(name) && usedNames.add(name) ? name : "_" + k;
           }
         } else {
@@ -661,15 +682,15 @@ final class Abc {
     for (int i = 0; i < count; i++) {
       // MetadataInfo
       MetaData m = metadata[i] = new MetaData();
-      m.name = strings[readU32()];
+      m.name = string(readU32());
       int values_count = readU32();
       String[] names = new String[values_count];
 
       for (int q = 0; q < values_count; ++q) {
-        names[q] = strings[readU32()]; // name
+        names[q] = string(readU32()); // name
       }
       for (int q = 0; q < values_count; ++q) {
-        m.put(names[q], strings[readU32()]); // value
+        m.put(names[q], string(readU32())); // value
       }
     }
   }
@@ -735,7 +756,7 @@ final class Abc {
               slot.type = OpaqueAssetsType;
             }
             int index = readU32();
-            if (index > 0) slot.value = defaults[data.readByte()][index];
+            if (index > 0) slot.value = getDefaultValue(data.readByte(), index);
           }
           else // (kind == Class)
           {
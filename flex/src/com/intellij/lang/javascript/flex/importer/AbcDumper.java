@@ -93,6 +93,11 @@ class AbcDumper extends AbstractDumpProcessor {
     return true;
   }
 
+  @Override
+  public boolean needsMethodBodies() {
+    return true;
+  }
+
   @Override
   public void setProcessingInterface(final boolean anInterface) {
   }
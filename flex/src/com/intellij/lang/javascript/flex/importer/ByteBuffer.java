@@ -2,37 +2,63 @@ package com.intellij.lang.javascript.flex.importer;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.zip.InflaterInputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 /**
+ * A view of a byte array, buffers created by {@link #readBytes} share the array with their parent instead of copying it.
+ *
  * @author Maxim.Mossienko
 */
 class ByteBuffer {
+  // the size declared by the header is not trusted beyond this, the buffer grows while inflating if the content is larger
+  private static final int MAX_INITIAL_INFLATE_SIZE = 64 * 1024 * 1024;
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
   private byte[] bytes;
+  private int offset;
+  private int size;
   private int position;
   private boolean littleEndian;
 
+  ByteBuffer() {
+  }
+
+  ByteBuffer(byte @NotNull [] bytes) {
+    setBytes(bytes, 0, bytes.length);
+  }
+
   void read(@NotNull InputStream inputStream) throws IOException {
     try (inputStream) {
-      bytes = readStream(inputStream);
+      byte[] content = inputStream.readAllBytes();
+      setBytes(content, 0, content.length);
     }
   }
 
+  private void setBytes(byte[] bytes, int offset, int size) {
+    this.bytes = bytes;
+    this.offset = offset;
+    this.size = size;
+    position = 0;
+  }
+
   void setLittleEndian() {
     littleEndian = true;
   }
 
   int readInt() {
+    int p = offset + position;
     int result;
     if (littleEndian) {
-      result = (((bytes[position + 3] & 0xFF) << 8 | (bytes[position + 2] & 0xFF)) << 16) + ((bytes[position + 1] & 0xFF) << 8) | (bytes[position] & 0xFF);
+      result = (((bytes[p + 3] & 0xFF) << 8 | (bytes[p + 2] & 0xFF)) << 16) + ((bytes[p + 1] & 0xFF) << 8) | (bytes[p] & 0xFF);
     }
     else {
-      result = (((bytes[position] & 0xFF) << 8 | (bytes[position + 1] & 0xFF)) << 16) + ((bytes[position + 2] & 0xFF) << 8) | (bytes[position + 3] & 0xFF);
+      result = (((bytes[p] & 0xFF) << 8 | (bytes[p + 1] & 0xFF)) << 16) + ((bytes[p + 2] & 0xFF) << 8) | (bytes[p + 3] & 0xFF);
     }
     position += 4;
     return result;
@@ -47,77 +73,96 @@ class ByteBuffer {
   }
 
   public int bytesSize() {
-    return bytes.length;
-  }
-
-  public void uncompress() throws IOException {
-    final InflaterInputStream zipInputStream = new InflaterInputStream(new ByteArrayInputStream(bytes));
-
-    bytes = readStream(zipInputStream);
-
-    zipInputStream.close();
-  }
-
-  private static byte[] readStream(final InputStream zipInputStream) throws IOException {
-    final byte[] buf = new byte[8192];
-    byte[] result = new byte[8192];
-    int total = 0;
-
-    while (true) {
-      int read = zipInputStream.read(buf);
-      if (read == -1) break;
-      if (total + read >= result.length) {
-        byte[] newresult = new byte[result.length * 2];
-        System.arraycopy(result, 0, newresult, 0, total);
-        result = newresult;
+    return size;
+  }
+
+  /**
+   * Inflates the content of the buffer.
+   *
+   * @param expectedSize the uncompressed size declared by the SWF header, the content is inflated directly into an array of this size
+   *                     unless the header is wrong; the initial array is limited by the compressed size, so that a corrupted header
+   *                     doesn't allocate a huge array
+   */
+  public void uncompress(int expectedSize) throws IOException {
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(bytes, offset, size);
+      long limit = Math.min(Math.max(8192L, size * 8L), MAX_INITIAL_INFLATE_SIZE);
+      byte[] result = new byte[(int)(expectedSize > 0 ? Math.min(expectedSize, limit) : Math.max(8192L, Math.min(size * 2L, limit)))];
+      int total = 0;
+      while (!inflater.finished()) {
+        if (total == result.length) {
+          if (result.length == MAX_ARRAY_SIZE) {
+            throw new IOException("Uncompressed content is too large");
+          }
+          result = Arrays.copyOf(result, (int)Math.min(result.length * 2L, MAX_ARRAY_SIZE));
+        }
+        int read = inflater.inflate(result, total, result.length - total);
+        if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new EOFException("Unexpected end of ZLIB input stream");
+        }
+        total += read;
       }
-
-      System.arraycopy(buf, 0, result, total, read);
-      total += read;
+      setBytes(total == result.length ? result : Arrays.copyOf(result, total), 0, total);
+    }
+    catch (DataFormatException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+    finally {
+      inflater.end();
     }
-
-    final byte[] realResult = new byte[total];
-    System.arraycopy(result, 0, realResult, 0, total);
-    return realResult;
   }
 
   public int readUnsignedByte() {
-    return bytes[position++] & 0xFF;
+    return bytes[offset + position++] & 0xFF;
   }
 
   public int readByte() {
-    return bytes[position++];
+    return bytes[offset + position++];
   }
 
   public int readUnsignedShort() {
+    int p = offset + position;
     int result;
     if (littleEndian) {
-      result = (bytes[position + 1] & 0xFF) << 8 | (bytes[position] & 0xFF);
+      result = (bytes[p + 1] & 0xFF) << 8 | (bytes[p] & 0xFF);
     }
     else {
-      result = (bytes[position] & 0xFF) << 8 | (bytes[position + 1] & 0xFF);
+      result = (bytes[p] & 0xFF) << 8 | (bytes[p + 1] & 0xFF);
     }
     position += 2;
     return result;
   }
 
+  /**
+   * Makes {@code data2} a view of the next {@code length} bytes of this buffer.
+   */
   public void readBytes(ByteBuffer data2, int length) {
-    data2.bytes = new byte[length];
-    System.arraycopy(bytes, position, data2.bytes, 0, length);
+    if (length < 0 || position + length > size) {
+      throw new ArrayIndexOutOfBoundsException("Cannot read " + length + " bytes at " + position + " of " + size);
+    }
+    data2.setBytes(bytes, offset + position, length);
     position += length;
   }
 
   public boolean eof() {
-    return position >= bytes.length;
+    return position >= size;
   }
 
   public String readUTFBytes(int i) {
-    final byte[] buf = new byte[i];
-    while (i > 0) {
-      buf[buf.length - i] = (byte)readByte();
-      --i;
+    String result = getUTFBytes(position, i);
+    position += i;
+    return result;
+  }
+
+  /**
+   * Decodes a string at the given position without moving the current one.
+   */
+  public String getUTFBytes(int start, int length) {
+    if (start < 0 || length < 0 || start + length > size) {
+      throw new ArrayIndexOutOfBoundsException("Cannot read " + length + " bytes at " + start + " of " + size);
     }
-    return new String(buf, StandardCharsets.UTF_8);
+    return new String(bytes, offset + start, length, StandardCharsets.UTF_8);
   }
 
   public double readDouble() {
@@ -139,7 +184,7 @@ class ByteBuffer {
   }
 
   public byte getByte(int i) {
-    return bytes[i];
+    return bytes[offset + i];
   }
 
   public int getPosition() {
@@ -31,6 +31,11 @@ interface FlexByteCodeInformationProcessor {
   boolean doStarTypeDumpInExtends();
   boolean doStarMetaAttrNameDump();
 
+  /**
+   * @return whether the code and activation traits of methods are used, method bodies are not parsed otherwise
+   */
+  boolean needsMethodBodies();
+
   void setProcessingInterface(final boolean anInterface);
 
   String getParentName(final MemberInfo member);
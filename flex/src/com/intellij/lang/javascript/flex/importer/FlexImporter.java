@@ -70,9 +70,20 @@ public final class FlexImporter {
     processFlexByteCode(in, new AS3InterfaceStubDumper(parent));
   }
 
+  /**
+   * Same as {@link #buildStubsInterfaceFromStream} for the content which is already loaded, the content is not copied.
+   */
+  public static void buildStubsInterface(final byte @NotNull [] content, final StubElement parent) throws Exception {
+    processFlexByteCode(new ByteBuffer(content), new AS3InterfaceStubDumper(parent));
+  }
+
   private static void processFlexByteCode(final @NotNull InputStream in, @NotNull FlexByteCodeInformationProcessor processor) throws IOException {
     ByteBuffer data = new ByteBuffer();
     data.read(in);
+    processFlexByteCode(data, processor);
+  }
+
+  private static void processFlexByteCode(final @NotNull ByteBuffer data, @NotNull FlexByteCodeInformationProcessor processor) throws IOException {
     data.setLittleEndian();
     if (data.bytesSize() == 0) return;
     int version = data.readUnsignedInt();
@@ -83,12 +94,13 @@ public final class FlexImporter {
     }
     else if ((version & SWF_MAGIC) == SWF_MAGIC) {
       final int delta = 8;
-      data.setPosition(delta);
+      // the length of the whole uncompressed file, including the header
+      final int length = data.readUnsignedInt();
       ByteBuffer udata = new ByteBuffer();
       udata.setLittleEndian();
       data.readBytes(udata, data.bytesSize() - delta);
       int csize = udata.bytesSize();
-      udata.uncompress();
+      udata.uncompress(length - delta);
       processor.dumpStat("decompressed swf " + csize + " -> " + udata.bytesSize() + "\n");
       udata.setPosition(0);
       new Swf(udata, processor);
@@ -160,6 +160,7 @@ public final class StepCompletionProvider extends CompletionProvider<CompletionP
   private static @NotNull Map<String, Type> getImplementedSteps(Module module) {
     Map<String, Type> steps = new HashMap<>();
     Collection<PsiMethod> methods = StepUtil.getStepMethods(module);
+    StepUtil.prefetchStepValues(methods, module);
     for (PsiMethod m : methods) {
       for (String s : getGaugeStepAnnotationValues(m)) {
         steps.put(getStepValueFor(module, m, s, false).getStepText(), new Type(s, STEP));
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.core;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.project.Project;
+import com.thoughtworks.gauge.StepValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Step values computed by the Gauge daemon, by the step text. Step values depend on the step text and the Gauge version only, so the
+ * cache is kept between restarts in the project cache file. The least recently used values are dropped when the cache is full, and
+ * all of them are dropped when the Gauge version changes.
+ */
+@State(name = "GaugeStepValueCache", storages = @Storage(StoragePathMacros.CACHE_FILE))
+public final class GaugeStepValueCache implements PersistentStateComponent<GaugeStepValueCache.CacheState> {
+  private static final int MAX_SIZE = 10_000;
+  private static final String TABLE_SUFFIX = "\n<table>";
+
+  private final Map<String, StepValue> values = createValueMap();
+  // values computed before the Gauge version is retrieved, they are not stored
+  private final Map<String, StepValue> unversionedValues = createValueMap();
+  private String gaugeVersion;
+  // the state returned by the last getState, it is rebuilt only if the values were changed since then
+  private CacheState savedState;
+
+  private static Map<String, StepValue> createValueMap() {
+    return new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, StepValue> eldest) {
+        return size() > MAX_SIZE;
+      }
+    };
+  }
+
+  public static GaugeStepValueCache getInstance(@NotNull Project project) {
+    return project.getService(GaugeStepValueCache.class);
+  }
+
+  public synchronized @Nullable StepValue get(@NotNull String text, boolean hasInlineTable) {
+    return getValues().get(getKey(text, hasInlineTable));
+  }
+
+  public synchronized void put(@NotNull String text, boolean hasInlineTable, @NotNull StepValue value) {
+    Map<String, StepValue> versionedValues = getValues();
+    if (versionedValues == values) savedState = null;
+    versionedValues.put(getKey(text, hasInlineTable), value);
+  }
+
+  private Map<String, StepValue> getValues() {
+    String version = GaugeVersion.getKnownVersion();
+    if (version == null) return unversionedValues;
+
+    if (!version.equals(gaugeVersion)) {
+      values.clear();
+      gaugeVersion = version;
+      savedState = null;
+    }
+    return values;
+  }
+
+  private static String getKey(String text, boolean hasInlineTable) {
+    // step texts are single-line
+    return hasInlineTable ? text + TABLE_SUFFIX : text;
+  }
+
+  @Override
+  public synchronized @Nullable CacheState getState() {
+    if (savedState != null) return savedState;
+    CacheState state = new CacheState();
+    savedState = state;
+    if (gaugeVersion == null) return state;
+
+    state.gaugeVersion = gaugeVersion;
+    for (Map.Entry<String, StepValue> entry : values.entrySet()) {
+      String key = entry.getKey();
+      boolean hasInlineTable = key.endsWith(TABLE_SUFFIX);
+      String text = hasInlineTable ? key.substring(0, key.length() - TABLE_SUFFIX.length()) : key;
+      StepValue value = entry.getValue();
+      state.entries.add(new CacheEntry(text, hasInlineTable, value.getStepText(), value.getStepAnnotationText(), value.getParameters()));
+    }
+    return state;
+  }
+
+  @Override
+  public synchronized void loadState(@NotNull CacheState state) {
+    values.clear();
+    savedState = null;
+    gaugeVersion = state.gaugeVersion;
+    for (CacheEntry entry : state.entries) {
+      if (entry.text == null || entry.stepText == null || entry.stepAnnotationText == null) continue;
+      values.put(getKey(entry.text, entry.hasInlineTable), new StepValue(entry.stepText, entry.stepAnnotationText, new ArrayList<>(entry.parameters)));
+    }
+  }
+
+  public static final class CacheState {
+    public String gaugeVersion;
+    public List<CacheEntry> entries = new ArrayList<>();
+  }
+
+  public static final class CacheEntry {
+    public String text;
+    public boolean hasInlineTable;
+    public String stepText;
+    public String stepAnnotationText;
+    public List<String> parameters = new ArrayList<>();
+
+    public CacheEntry(String text, boolean hasInlineTable, String stepText, String stepAnnotationText, List<String> parameters) {
+      this.text = text;
+      this.hasInlineTable = hasInlineTable;
+      this.stepText = stepText;
+      this.stepAnnotationText = stepAnnotationText;
+      this.parameters = new ArrayList<>(parameters);
+    }
+
+    public CacheEntry() {
+    }
+  }
+}
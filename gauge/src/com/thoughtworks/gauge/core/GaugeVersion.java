@@ -28,6 +28,7 @@ import com.thoughtworks.gauge.NotificationGroups;
 import com.thoughtworks.gauge.exception.GaugeNotFoundException;
 import com.thoughtworks.gauge.settings.GaugeSettingsModel;
 import com.thoughtworks.gauge.util.GaugeUtil;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 
@@ -52,6 +53,14 @@ public final class GaugeVersion {
     return getVersionInternal(update);
   }
 
+  /**
+   * Returns the version of Gauge if it was already retrieved, without starting Gauge.
+   */
+  public static @Nullable String getKnownVersion() {
+    GaugeVersionInfo info = versionInfo;
+    return info == null ? null : info.version;
+  }
+
   static GaugeVersionInfo getVersionInternal(boolean update) {
     if (!update) return versionInfo;
     GaugeVersionInfo gaugeVersionInfo = new GaugeVersionInfo();
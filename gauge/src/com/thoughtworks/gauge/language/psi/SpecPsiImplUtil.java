@@ -66,7 +66,7 @@ public final class SpecPsiImplUtil {
     if (apiConnection == null) {
       return getDefaultStepValue(element);
     }
-    StepValue value = StepUtil.getStepValue(apiConnection, stepText, hasInlineTable);
+    StepValue value = StepUtil.getStepValue(module.getProject(), apiConnection, stepText, hasInlineTable);
     return value == null ? getDefaultStepValue(element) : value;
   }
 
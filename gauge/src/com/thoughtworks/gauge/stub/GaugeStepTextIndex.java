@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.stub;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IntCollectionDataExternalizer;
+import com.intellij.util.io.KeyDescriptor;
+import com.thoughtworks.gauge.language.ConceptFileType;
+import com.thoughtworks.gauge.language.SpecFileType;
+import com.thoughtworks.gauge.language.psi.impl.ConceptConceptImpl;
+import com.thoughtworks.gauge.language.psi.impl.ConceptStepImpl;
+import com.thoughtworks.gauge.language.psi.impl.SpecStepImpl;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Offsets of the steps and concept headings of spec and concept files by the step text without parameters.
+ * <p>
+ * The exact step value is computed by the Gauge process, so it can't be indexed. Instead, the key is the text left after removing
+ * static, dynamic and table parameters, which is the same for the step text and for the step value with placeholders. Callers use
+ * the index to find candidates and compare their step values to the searched one.
+ */
+public final class GaugeStepTextIndex extends FileBasedIndexExtension<String, Collection<Integer>> {
+  public static final @NonNls ID<String, Collection<Integer>> NAME = ID.create("GaugeStepTextIndex");
+
+  @Override
+  public @NotNull ID<String, Collection<Integer>> getName() {
+    return NAME;
+  }
+
+  @Override
+  public @NotNull DataIndexer<String, Collection<Integer>, FileContent> getIndexer() {
+    return fileContent -> {
+      PsiFile psiFile = fileContent.getPsiFile();
+      Map<String, Collection<Integer>> result = new HashMap<>();
+      if (fileContent.getFileType().equals(SpecFileType.INSTANCE)) {
+        for (SpecStepImpl step : PsiTreeUtil.collectElementsOfType(psiFile, SpecStepImpl.class)) {
+          addOffset(result, step.getText(), step.getTextOffset());
+        }
+      }
+      else {
+        for (ConceptStepImpl step : PsiTreeUtil.collectElementsOfType(psiFile, ConceptStepImpl.class)) {
+          addOffset(result, step.getText(), step.getTextOffset());
+        }
+        for (ConceptConceptImpl concept : PsiTreeUtil.collectElementsOfType(psiFile, ConceptConceptImpl.class)) {
+          PsiElement heading = concept.getConceptHeading();
+          addOffset(result, heading.getText(), heading.getTextOffset());
+        }
+      }
+      return result;
+    };
+  }
+
+  private static void addOffset(Map<String, Collection<Integer>> result, String text, int offset) {
+    result.computeIfAbsent(getStepKey(text), __ -> new ArrayList<>()).add(offset);
+  }
+
+  @Override
+  public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @Override
+  public @NotNull DataExternalizer<Collection<Integer>> getValueExternalizer() {
+    return new IntCollectionDataExternalizer();
+  }
+
+  @Override
+  public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(SpecFileType.INSTANCE, ConceptFileType.INSTANCE) {
+      @Override
+      public boolean acceptInput(@NotNull VirtualFile virtualFile) {
+        return virtualFile.getExtension() != null;
+      }
+    };
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+
+  /**
+   * Finds the steps, concept steps and concepts whose text is equal to {@code stepText} up to the parameters. {@code stepText} may be
+   * either the text of a step or a step value.
+   */
+  public static @NotNull <T extends PsiElement> List<T> findElements(@NotNull Project project,
+                                                                     @NotNull String stepText,
+                                                                     @NotNull Class<T> elementClass,
+                                                                     @NotNull GlobalSearchScope scope) {
+    List<T> result = new ArrayList<>();
+    PsiManager psiManager = PsiManager.getInstance(project);
+    FileBasedIndex.getInstance().processValues(NAME, getStepKey(stepText), null, (file, offsets) -> {
+      PsiFile psiFile = psiManager.findFile(file);
+      if (psiFile == null) return true;
+      for (int offset : offsets) {
+        PsiElement element = getStepElement(psiFile.findElementAt(offset));
+        if (element != null && element.getClass().equals(elementClass)) {
+          result.add(elementClass.cast(element));
+        }
+      }
+      return true;
+    }, scope);
+    return result;
+  }
+
+  private static @Nullable PsiElement getStepElement(@Nullable PsiElement element) {
+    for (PsiElement e = element; e != null && !(e instanceof PsiFile); e = e.getParent()) {
+      Class<?> elementClass = e.getClass();
+      if (elementClass.equals(SpecStepImpl.class) || elementClass.equals(ConceptStepImpl.class) ||
+          elementClass.equals(ConceptConceptImpl.class)) {
+        return e;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the first line of the step text without the step marker and the parameters, with whitespace collapsed. Quoted and
+   * angle-bracketed parameters of the step text, as well as {@code {}} placeholders of the step value, are dropped.
+   */
+  public static @NotNull String getStepKey(@NotNull String stepText) {
+    String text = stepText.trim();
+    int newLineIndex = text.indexOf('\n');
+    if (newLineIndex >= 0) {
+      text = text.substring(0, newLineIndex);
+    }
+    int start = !text.isEmpty() && (text.charAt(0) == '*' || text.charAt(0) == '#') ? 1 : 0;
+
+    StringBuilder result = new StringBuilder();
+    boolean separated = false;
+    for (int i = start; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '"' || c == '<') {
+        i = skipParameter(text, i, c == '"' ? '"' : '>');
+        separated = true;
+      }
+      else if (c == '{' && i + 1 < text.length() && text.charAt(i + 1) == '}') {
+        i++;
+        separated = true;
+      }
+      else if (Character.isWhitespace(c)) {
+        separated = true;
+      }
+      else {
+        if (separated && !result.isEmpty()) {
+          result.append(' ');
+        }
+        separated = false;
+        result.append(c);
+      }
+    }
+    return result.toString();
+  }
+
+  private static int skipParameter(String text, int start, char end) {
+    for (int i = start + 1; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\\') {
+        i++;
+      }
+      else if (c == end) {
+        return i;
+      }
+    }
+    return text.length();
+  }
+}
@@ -18,32 +18,37 @@ package com.thoughtworks.gauge.util;
 
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
-import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.psi.*;
-import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.searches.AnnotatedElementsSearch;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.thoughtworks.gauge.GaugeBootstrapService;
-import com.thoughtworks.gauge.GaugeConstants;
 import com.thoughtworks.gauge.Step;
 import com.thoughtworks.gauge.StepValue;
 import com.thoughtworks.gauge.connection.GaugeConnection;
+import com.thoughtworks.gauge.core.GaugeCli;
+import com.thoughtworks.gauge.core.GaugeStepValueCache;
 import com.thoughtworks.gauge.language.psi.SpecPsiImplUtil;
 import com.thoughtworks.gauge.language.psi.SpecStep;
 import com.thoughtworks.gauge.language.psi.impl.ConceptConceptImpl;
 import com.thoughtworks.gauge.language.psi.impl.ConceptStepImpl;
 import com.thoughtworks.gauge.language.psi.impl.SpecStepImpl;
 import com.thoughtworks.gauge.reference.ReferenceCache;
+import com.thoughtworks.gauge.stub.GaugeStepTextIndex;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
+import java.io.IOException;
+import java.util.*;
 
 public final class StepUtil {
   private static final Logger LOG = Logger.getInstance(StepUtil.class);
-  private static final HashMap<String, StepValue> stepValueCache = new HashMap<>();
+  private static final Key<CachedValue<Boolean>> STEP_VALUES_PREFETCHED = Key.create("gauge.step.values.prefetched");
 
   public static PsiElement findStepImpl(SpecStep step, Module module) {
     if (module == null) {
@@ -83,14 +88,11 @@ public final class StepUtil {
 
   private static PsiElement searchConceptsForImpl(SpecStep step, Module module) {
     try {
-      VirtualFile[] conceptFiles = findConceptFiles(module);
-      if (conceptFiles.length > 0) {
-        PsiElement reference;
-        for (VirtualFile file : conceptFiles) {
-          reference = searchConceptReference(file, step, module);
-          if (reference != null) {
-            return reference;
-          }
+      String stepText = step.getStepValue().getStepText();
+      GlobalSearchScope scope = GlobalSearchScope.projectScope(module.getProject());
+      for (ConceptConceptImpl concept : GaugeStepTextIndex.findElements(module.getProject(), stepText, ConceptConceptImpl.class, scope)) {
+        if (stepText.equals(concept.getStepValue().getStepText())) {
+          return concept;
         }
       }
     }
@@ -101,30 +103,9 @@ public final class StepUtil {
     return null;
   }
 
-  private static PsiElement searchConceptReference(VirtualFile virtualFile, SpecStep step, Module module) {
-    PsiFile psiFile = PsiManager.getInstance(module.getProject()).findFile(virtualFile);
-    if (psiFile == null || !psiFile.isValid()) {
-      return null;
-    }
-    for (PsiElement psiElement : psiFile.getChildren()) {
-      if (psiElement.getClass().equals(ConceptConceptImpl.class)) {
-        StepValue conceptStepValue = ((ConceptConceptImpl)psiElement).getStepValue();
-
-        if (step.getStepValue().getStepText().equals(conceptStepValue.getStepText())) {
-          return psiElement;
-        }
-      }
-    }
-    return null;
-  }
-
-  private static VirtualFile[] findConceptFiles(Module module) {
-    Collection<VirtualFile> conceptFiles = FilenameIndex.getAllFilesByExt(module.getProject(), GaugeConstants.CONCEPT_EXTENSION);
-    return conceptFiles.toArray(VirtualFile.EMPTY_ARRAY);
-  }
-
   private static PsiMethod findStepImplementationMethod(Collection<PsiMethod> stepMethods, SpecStep step, Module module) {
     String stepText = step.getStepValue().getStepText();
+    prefetchModuleStepValues(stepMethods, module);
     for (PsiMethod stepMethod : stepMethods) {
       if (isMatch(stepMethod, stepText, module)) {
         return stepMethod;
@@ -143,16 +124,70 @@ public final class StepUtil {
     return false;
   }
 
-  public static StepValue getStepValue(final GaugeConnection connection, final String text, Boolean hasInlineTable) {
-    String stepText = hasInlineTable ? text + " <table>" : text;
-    StepValue value = stepValueCache.get(stepText);
+  public static StepValue getStepValue(final Project project,
+                                       final GaugeConnection connection,
+                                       final String text,
+                                       Boolean hasInlineTable) {
+    GaugeStepValueCache cache = GaugeStepValueCache.getInstance(project);
+    StepValue value = cache.get(text, hasInlineTable);
     if (value == null || value.getStepText().isEmpty()) {
       value = connection.getStepValue(text, hasInlineTable);
-      stepValueCache.put(stepText, value);
+      if (value != null) {
+        cache.put(text, hasInlineTable, value);
+      }
     }
     return value;
   }
 
+  /**
+   * Calls {@link #prefetchStepValues} for the step methods of the module once until PSI changes, instead of checking the annotations
+   * of all of them on every step resolve.
+   */
+  private static void prefetchModuleStepValues(Collection<PsiMethod> stepMethods, Module module) {
+    CachedValuesManager.getManager(module.getProject()).getCachedValue(module, STEP_VALUES_PREFETCHED, () -> {
+      boolean prefetched = prefetchStepValues(stepMethods, module);
+      // retried on the next resolve while the Gauge daemon is not connected
+      return CachedValueProvider.Result.create(prefetched, prefetched ? PsiModificationTracker.MODIFICATION_COUNT
+                                                                      : ModificationTracker.EVER_CHANGED);
+    }, false);
+  }
+
+  /**
+   * Caches the step values of the annotation texts of the step methods. If more than one of them is not cached, the step values of all
+   * steps implemented in the module are fetched in a single request, instead of a request per annotation text.
+   *
+   * @return {@code false} if the Gauge daemon is not connected
+   */
+  public static boolean prefetchStepValues(Collection<PsiMethod> stepMethods, Module module) {
+    GaugeCli gaugeCli = GaugeBootstrapService.getInstance(module.getProject()).getGaugeCli(module, false);
+    GaugeConnection connection = gaugeCli == null ? null : gaugeCli.getGaugeConnection();
+    if (connection == null) return false;
+
+    GaugeStepValueCache cache = GaugeStepValueCache.getInstance(module.getProject());
+    Set<String> missingTexts = new HashSet<>();
+    for (PsiMethod stepMethod : stepMethods) {
+      for (String text : getGaugeStepAnnotationValues(stepMethod)) {
+        if (cache.get(text, false) == null) {
+          missingTexts.add(text);
+        }
+      }
+    }
+    if (missingTexts.size() < 2) return true;
+
+    try {
+      for (StepValue value : connection.fetchAllSteps()) {
+        String annotationText = value.getStepAnnotationText();
+        if (missingTexts.contains(annotationText) && !value.getStepText().isEmpty()) {
+          cache.put(annotationText, false, value);
+        }
+      }
+    }
+    catch (IOException e) {
+      LOG.debug(e);
+    }
+    return true;
+  }
+
   public static List<String> getGaugeStepAnnotationValues(PsiMethod stepMethod) {
     final PsiModifierList modifierList = stepMethod.getModifierList();
     final PsiAnnotation[] annotations = modifierList.getAnnotations();
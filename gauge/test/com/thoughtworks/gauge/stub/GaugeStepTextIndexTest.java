@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.stub;
+
+import org.junit.Test;
+
+import static com.thoughtworks.gauge.stub.GaugeStepTextIndex.getStepKey;
+import static org.junit.Assert.assertEquals;
+
+public class GaugeStepTextIndexTest {
+  @Test
+  public void shouldMatchStepTextAndStepValue() {
+    assertEquals("Say to", getStepKey("* Say \"hello\" to <name>"));
+    assertEquals("Say to", getStepKey("Say {} to {}"));
+  }
+
+  @Test
+  public void shouldIgnoreEscapedQuotesInParameters() {
+    assertEquals("Step with quote", getStepKey("* Step with \"an \\\" escaped\" quote"));
+  }
+
+  @Test
+  public void shouldUseFirstLineOnly() {
+    assertEquals("A concept with", getStepKey("# A concept with <param>\n* first step"));
+    assertEquals("Step with table", getStepKey("* Step with table\n   |id|\n   |--|\n   |1 |"));
+  }
+
+  @Test
+  public void shouldCollapseWhitespace() {
+    assertEquals("plain step", getStepKey("  *   plain   step  "));
+  }
+}
@@ -2,6 +2,8 @@ package com.jetbrains.lang.makefile
 
 import com.intellij.extapi.psi.PsiFileBase
 import com.intellij.psi.FileViewProvider
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
 import com.intellij.psi.util.PsiTreeUtil
 import com.jetbrains.lang.makefile.psi.MakefileRule
 import com.jetbrains.lang.makefile.psi.MakefileTarget
@@ -29,4 +31,14 @@ class MakefileFile(viewProvider: FileViewProvider) : PsiFileBase(viewProvider, M
 
   val variables: Collection<MakefileVariable>
     get() = PsiTreeUtil.findChildrenOfType(this, MakefileVariable::class.java)
+
+  val variableNames: Set<String>
+    get() = variablesByName.keys
+
+  fun findVariables(name: String): List<MakefileVariable> = variablesByName[name].orEmpty()
+
+  private val variablesByName: Map<String, List<MakefileVariable>>
+    get() = CachedValuesManager.getCachedValue(this) {
+      CachedValueProvider.Result.create(variables.groupBy { it.text }, this)
+    }
 }
\ No newline at end of file
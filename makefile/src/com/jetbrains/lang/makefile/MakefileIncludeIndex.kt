@@ -0,0 +1,153 @@
+package com.jetbrains.lang.makefile
+
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.openapi.vfs.LocalFileSystem
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.psi.PsiManager
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.util.PathUtil
+import com.intellij.util.indexing.*
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.DataInputOutputUtil
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.IOUtil
+import com.intellij.util.io.KeyDescriptor
+import com.jetbrains.lang.makefile.psi.MakefileInclude
+import com.jetbrains.lang.makefile.psi.MakefileTarget
+import com.jetbrains.lang.makefile.psi.MakefileVariable
+import java.io.DataInput
+import java.io.DataOutput
+
+private val INCLUDE_INDEX_ID = ID.create<String, List<String>>("makefile.include.index")
+
+/**
+ * Paths of the makefiles a makefile includes, by their file names. Paths with variables, functions or wildcards can't be resolved
+ * without running make and are left out.
+ */
+class MakefileIncludeIndex : FileBasedIndexExtension<String, List<String>>() {
+  override fun getName(): ID<String, List<String>> = INCLUDE_INDEX_ID
+
+  override fun getIndexer() = DataIndexer<String, List<String>, FileContent> { inputData ->
+    val file = inputData.psiFile as? MakefileFile ?: return@DataIndexer emptyMap()
+    PsiTreeUtil.findChildrenOfType(file, MakefileInclude::class.java)
+      .flatMap { it.filenameList }
+      .map { it.text }
+      .filter { path -> path.none { it in "$*?[" } }
+      .distinct()
+      .groupBy { PathUtil.getFileName(it) }
+  }
+
+  override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+
+  override fun getValueExternalizer(): DataExternalizer<List<String>> = PathsExternalizer
+
+  override fun getVersion() = 1
+
+  override fun getInputFilter(): FileBasedIndex.InputFilter = DefaultFileTypeSpecificInputFilter(MakefileFileType)
+
+  override fun dependsOnFileContent() = true
+
+  private object PathsExternalizer : DataExternalizer<List<String>> {
+    override fun save(out: DataOutput, value: List<String>) {
+      DataInputOutputUtil.writeINT(out, value.size)
+      value.forEach { IOUtil.writeUTF(out, it) }
+    }
+
+    override fun read(input: DataInput): List<String> = List(DataInputOutputUtil.readINT(input)) { IOUtil.readUTF(input) }
+  }
+}
+
+/**
+ * Scope of the other makefiles [file] is read together with: the makefiles including it, directly or not, and everything they include.
+ * Returns null while indexes are being updated or if there are no such makefiles.
+ */
+fun findIncludeScope(file: MakefileFile): GlobalSearchScope? {
+  val files = findIncludedWith(file)
+  return if (files.isEmpty()) null else GlobalSearchScope.filesScope(file.project, files)
+}
+
+/**
+ * The other makefiles [file] is read together with, see [findIncludeScope]. Returns an empty set while indexes are being updated.
+ */
+private fun findIncludedWith(file: MakefileFile): Set<VirtualFile> {
+  val project = file.project
+  if (DumbService.isDumb(project)) return emptySet()
+  val originalFile = file.originalFile as? MakefileFile ?: return emptySet()
+  val virtualFile = originalFile.virtualFile ?: return emptySet()
+
+  return CachedValuesManager.getCachedValue(originalFile) {
+    CachedValueProvider.Result.create(collectIncludedWith(project, virtualFile), PsiModificationTracker.MODIFICATION_COUNT,
+                                      VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS)
+  }
+}
+
+/**
+ * Variables named [name] defined in [file] or in the makefiles it is included with.
+ */
+fun findVariables(file: MakefileFile, name: String): List<MakefileVariable> {
+  val scope = findIncludeScope(file) ?: return file.findVariables(name)
+  return file.findVariables(name) + MakefileVariableIndex.getInstance().getVariables(name, file.project, scope)
+}
+
+/**
+ * Names of the variables defined in the makefiles [file] is included with.
+ */
+fun findIncludedVariableNames(file: MakefileFile): Set<String> {
+  val psiManager = PsiManager.getInstance(file.project)
+  return findIncludedWith(file).flatMapTo(mutableSetOf()) { (psiManager.findFile(it) as? MakefileFile)?.variableNames.orEmpty() }
+}
+
+/**
+ * Targets named [name] defined in the makefiles [file] is included with.
+ */
+fun findIncludedTargets(file: MakefileFile, name: String): Collection<MakefileTarget> {
+  val scope = findIncludeScope(file) ?: return emptyList()
+  return MakefileTargetIndex.getInstance().getTargets(name, file.project, scope)
+}
+
+private fun collectIncludedWith(project: Project, file: VirtualFile): Set<VirtualFile> {
+  val including = closure(file) { findIncludingFiles(project, it) }
+  val result = mutableSetOf<VirtualFile>()
+  for (root in including) {
+    result.addAll(closure(root) { findIncludedFiles(project, it) })
+  }
+  result.remove(file)
+  return result
+}
+
+private fun closure(start: VirtualFile, next: (VirtualFile) -> Collection<VirtualFile>): Set<VirtualFile> {
+  val result = linkedSetOf(start)
+  val queue = ArrayDeque(listOf(start))
+  while (queue.isNotEmpty()) {
+    for (file in next(queue.removeFirst())) {
+      if (result.add(file)) queue.addLast(file)
+    }
+  }
+  return result
+}
+
+private fun findIncludedFiles(project: Project, file: VirtualFile): List<VirtualFile> =
+  FileBasedIndex.getInstance().getFileData(INCLUDE_INDEX_ID, file, project).values.flatten().mapNotNull { resolveInclude(file, it) }
+
+private fun findIncludingFiles(project: Project, file: VirtualFile): List<VirtualFile> {
+  val result = mutableListOf<VirtualFile>()
+  FileBasedIndex.getInstance().processValues(INCLUDE_INDEX_ID, file.name, null, { includingFile, paths ->
+    if (paths.any { resolveInclude(includingFile, it) == file }) result.add(includingFile)
+    true
+  }, GlobalSearchScope.projectScope(project))
+  return result
+}
+
+// relative paths are resolved against the directory of the including makefile, as file references in include directives are
+private fun resolveInclude(file: VirtualFile, path: String): VirtualFile? {
+  val included = if (FileUtil.isAbsolute(path)) LocalFileSystem.getInstance().findFileByPath(path)
+  else file.parent?.findFileByRelativePath(path)
+  return included?.takeUnless { it.isDirectory }
+}
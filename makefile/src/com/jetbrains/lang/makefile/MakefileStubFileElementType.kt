@@ -3,4 +3,6 @@ package com.jetbrains.lang.makefile
 import com.intellij.psi.stubs.PsiFileStub
 import com.intellij.psi.tree.IStubFileElementType
 
-class MakefileStubFileElementType : IStubFileElementType<PsiFileStub<MakefileFile>>("makefile", MakefileLanguage)
\ No newline at end of file
+class MakefileStubFileElementType : IStubFileElementType<PsiFileStub<MakefileFile>>("makefile", MakefileLanguage) {
+  override fun getStubVersion() = 1
+}
@@ -30,13 +30,12 @@ class MakefileTargetReference(private val prerequisite: MakefilePrerequisite) :
     val match = Regex("""\$\((.*)\)""").find(prerequisite.text)
     if (match != null) {
       val name = match.groups[1]!!.value
-      return (prerequisite.containingFile as MakefileFile).variables
-          .filter { it.text == name }
+      return findVariables(prerequisite.containingFile as MakefileFile, name)
           .map(::PsiElementResolveResult)
           .toTypedArray()
     }
-    return (prerequisite.containingFile as MakefileFile).allTargets
-        .filter { it.matches(prerequisite.text) }
+    val file = prerequisite.containingFile as MakefileFile
+    return (file.allTargets.filter { it.matches(prerequisite.text) } + findIncludedTargets(file, prerequisite.text))
         .map(::PsiElementResolveResult)
         .toTypedArray()
   }
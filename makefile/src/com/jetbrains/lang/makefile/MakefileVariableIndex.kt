@@ -0,0 +1,24 @@
+package com.jetbrains.lang.makefile
+
+import com.intellij.openapi.project.Project
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.stubs.StringStubIndexExtension
+import com.intellij.psi.stubs.StubIndex
+import com.intellij.psi.stubs.StubIndexKey
+import com.jetbrains.lang.makefile.psi.MakefileVariable
+
+
+val VARIABLE_INDEX_KEY = StubIndexKey.createIndexKey<String, MakefileVariable>("makefile.variable.index")
+
+class MakefileVariableIndex : StringStubIndexExtension<MakefileVariable>() {
+  override fun getKey(): StubIndexKey<String, MakefileVariable> = VARIABLE_INDEX_KEY
+
+  fun getVariables(key: String, project: Project, scope: GlobalSearchScope): Collection<MakefileVariable> =
+    StubIndex.getElements(VARIABLE_INDEX_KEY, key, project, scope, MakefileVariable::class.java)
+
+  companion object {
+    fun getInstance(): MakefileVariableIndex {
+      return EP_NAME.findExtensionOrFail(MakefileVariableIndex::class.java)
+    }
+  }
+}
@@ -29,14 +29,16 @@ class MakefileVariableReference(private val usage: MakefileVariableUsage) : PsiP
     return false
   }
 
-  override fun getVariants()
-      = (usage.containingFile as MakefileFile).variables.distinctBy { it.text }.map {
-    LookupElementBuilder.create(it)
-  }.toTypedArray()
+  override fun getVariants(): Array<out Any> {
+    val file = usage.containingFile as MakefileFile
+    val variables = file.variables.distinctBy { it.text }
+    val localNames = variables.mapTo(mutableSetOf()) { it.text }
+    return (variables.map { LookupElementBuilder.create(it) } +
+            (findIncludedVariableNames(file) - localNames).map { LookupElementBuilder.create(it) }).toTypedArray()
+  }
 
   override fun multiResolve(incompleteCode: Boolean): Array<ResolveResult> {
-    return (usage.containingFile as MakefileFile).variables
-        .filter { it.text == nameNode.text }
+    return findVariables(usage.containingFile as MakefileFile, nameNode.text)
         .map(::PsiElementResolveResult)
         .toTypedArray()
   }
@@ -45,7 +45,7 @@ object MakefilePsiImplUtil {
 
   @JvmStatic
   fun getName(element: MakefileVariable): String {
-    return element.text
+    return element.stub?.name ?: element.text
   }
 
   @JvmStatic
@@ -11,6 +11,12 @@ class MakefileCompletionTest : BasePlatformTestCase() {
   fun testCurly() = doTest("a", "b", "c")
   fun testComment() = doTest()
 
+  fun testIncludedVariables() {
+    myFixture.configureByFiles("$basePath/$testFilename", "$basePath/includedVariablesDefs.mk")
+    myFixture.completeBasic()
+    assertSameElements(myFixture.lookupElementStrings!!, "a", "b", "c", "d", *functions)
+  }
+
   fun doTest(vararg variants: String) = myFixture.testCompletionVariants("$basePath/$testFilename", *variants)
 
   private val testFilename get() = "${getTestName(true)}.mk"
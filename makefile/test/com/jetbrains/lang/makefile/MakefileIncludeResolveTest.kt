@@ -0,0 +1,57 @@
+package com.jetbrains.lang.makefile
+
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiPolyVariantReference
+import com.intellij.testFramework.fixtures.*
+
+class MakefileIncludeResolveTest : BasePlatformTestCase() {
+  fun testVariableFromIncluded() = doVariableTest("variableFromIncludedDefs.mk", "variableFromIncludedDefs.mk")
+  fun testVariableFromIncluding() = doVariableTest("variableFromIncludingMain.mk", "variableFromIncludingMain.mk")
+  fun testIncludeChainDown() =
+    doVariableTest("includeChainDownBottom.mk", "includeChainDownMiddle.mk", "includeChainDownBottom.mk")
+  fun testIncludeChainUp() = doVariableTest("includeChainUpTop.mk", "includeChainUpMiddle.mk", "includeChainUpTop.mk")
+  fun testIncludeCycle() = doVariableTest("includeCycleOther.mk", "includeCycleOther.mk")
+
+  fun testNotIncluded() {
+    myFixture.configureByFiles("$basePath/$testFilename", "$basePath/notIncludedOther.mk")
+    assertEmpty(resolveAtCaret<MakefileVariableReference>())
+  }
+
+  fun testPrerequisiteVariable() {
+    myFixture.configureByFiles("$basePath/$testFilename", "$basePath/prerequisiteVariableDefs.mk")
+    assertResolvedTo(resolveAtCaret<MakefileTargetReference>(), "OBJS", "prerequisiteVariableDefs.mk")
+  }
+
+  fun testTargetFromIncluded() {
+    myFixture.configureByFiles("$basePath/$testFilename", "$basePath/targetFromIncludedRules.mk")
+    assertResolvedTo(resolveAtCaret<MakefileTargetReference>(), "build", "targetFromIncludedRules.mk")
+  }
+
+  fun testTargetFromIncluding() {
+    myFixture.configureByFiles("$basePath/$testFilename", "$basePath/targetFromIncludingMain.mk")
+    assertResolvedTo(resolveAtCaret<MakefileTargetReference>(), "build", "targetFromIncludingMain.mk")
+  }
+
+  private fun doVariableTest(definingFile: String, vararg otherFiles: String) {
+    myFixture.configureByFiles("$basePath/$testFilename", *otherFiles.map { "$basePath/$it" }.toTypedArray())
+    assertResolvedTo(resolveAtCaret<MakefileVariableReference>(), "FOO", definingFile)
+  }
+
+  private inline fun <reified T : PsiPolyVariantReference> resolveAtCaret(): List<PsiElement> {
+    val reference = generateSequence(myFixture.file.findElementAt(myFixture.caretOffset)) { it.parent }
+      .flatMap { it.references.asSequence() }
+      .filterIsInstance<T>()
+      .first()
+    return reference.multiResolve(false).mapNotNull { it.element }
+  }
+
+  private fun assertResolvedTo(resolved: List<PsiElement>, text: String, fileName: String) {
+    assertSize(1, resolved)
+    assertEquals(text, resolved.single().text)
+    assertEquals(fileName, resolved.single().containingFile.name)
+  }
+
+  private val testFilename get() = "${getTestName(true)}.mk"
+  override fun getTestDataPath() = BASE_TEST_DATA_PATH
+  override fun getBasePath() = "resolve"
+}
@@ -0,0 +1,4 @@
+include includedVariablesDefs.mk
+
+a = qwe
+b = $(<caret>)
\ No newline at end of file
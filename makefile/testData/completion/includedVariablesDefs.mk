@@ -0,0 +1,2 @@
+c = asdf
+d = $(c)
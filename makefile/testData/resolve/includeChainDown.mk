@@ -0,0 +1,3 @@
+include includeChainDownMiddle.mk
+
+result = $(<caret>FOO)
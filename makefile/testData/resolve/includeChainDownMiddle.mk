@@ -0,0 +1 @@
+include includeChainDownBottom.mk
@@ -0,0 +1 @@
+include includeChainUp.mk
@@ -0,0 +1,3 @@
+include includeChainUpMiddle.mk
+
+FOO = foo
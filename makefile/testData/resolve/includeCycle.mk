@@ -0,0 +1,3 @@
+include includeCycleOther.mk
+
+result = $(<caret>FOO)
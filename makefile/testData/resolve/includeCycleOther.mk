@@ -0,0 +1,3 @@
+include includeCycle.mk
+
+FOO = foo
@@ -0,0 +1,3 @@
+include prerequisiteVariableDefs.mk
+
+all: $(<caret>OBJS)
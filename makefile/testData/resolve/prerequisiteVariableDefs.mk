@@ -0,0 +1 @@
+OBJS = main.o
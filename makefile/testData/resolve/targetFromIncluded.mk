@@ -0,0 +1,3 @@
+include targetFromIncludedRules.mk
+
+all: <caret>build
@@ -0,0 +1 @@
+test: <caret>build
@@ -0,0 +1,4 @@
+include targetFromIncluding.mk
+
+build:
+	echo build
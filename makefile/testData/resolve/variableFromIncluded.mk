@@ -0,0 +1,3 @@
+include variableFromIncludedDefs.mk
+
+result = $(<caret>FOO)
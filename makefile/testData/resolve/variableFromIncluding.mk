@@ -0,0 +1 @@
+result = $(<caret>FOO)
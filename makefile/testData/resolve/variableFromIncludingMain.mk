@@ -0,0 +1,3 @@
+include variableFromIncluding.mk
+
+FOO = foo
@@ -18,10 +18,12 @@ import java.util.Set;
 /**
  * Represents a bundle manifest.
  * Note that it may be approximate (e.g. for module - see {@link BundleManifestCache#getManifest(Module)} for details).
+ * Package and bundle headers are parsed on the first query.
  */
 public class BundleManifest {
   private final Map<String, String> myMap;
   private final PsiFile mySource;
+  private volatile ParsedHeaders myParsedHeaders;
 
   public BundleManifest(@NotNull Map<String, String> map) {
     this(map, null);
@@ -49,48 +51,102 @@ public class BundleManifest {
   }
 
   public @Nullable String getExportedPackage(@NotNull String packageName) {
-    for (String exported : getValues(Constants.EXPORT_PACKAGE)) {
-      exported = StringUtil.trimEnd(exported, ".*");
-      if (PsiNameHelper.isSubpackageOf(packageName, exported)) {
-        return exported;
-      }
-    }
-
-    return null;
+    return getParsedHeaders().exportedPackages.findFirstParent(packageName);
   }
 
   public boolean isPackageImported(@NotNull String packageName) {
-    for (String imported : getValues(Constants.IMPORT_PACKAGE)) {
-      if (PsiNameHelper.isSubpackageOf(packageName, imported)) {
-        return true;
-      }
-    }
-
-    return false;
+    return getParsedHeaders().importedPackages.findFirstParent(packageName) != null;
   }
 
   public boolean isBundleRequired(@NotNull String bsn) {
-    for (String bundleName : getValues(Constants.REQUIRE_BUNDLE)) {
-      if (bsn.equals(bundleName)) {
-        return true;
-      }
-    }
-
-    return false;
+    return getParsedHeaders().requiredBundles.contains(bsn);
   }
 
   public boolean isPrivatePackage(@NotNull String packageName) {
-    for (String privatePkg : getValues(Constants.PRIVATE_PACKAGE)) {
-      if (PsiNameHelper.isSubpackageOf(packageName, privatePkg)) {
-        return true;
-      }
-    }
+    return getParsedHeaders().privatePackages.findFirstParent(packageName) != null;
+  }
 
-    return false;
+  private ParsedHeaders getParsedHeaders() {
+    ParsedHeaders parsed = myParsedHeaders;
+    if (parsed == null) {
+      myParsedHeaders = parsed = new ParsedHeaders(this);
+    }
+    return parsed;
   }
 
   private Set<String> getValues(String header) {
     String value = get(header);
     return StringUtil.isEmptyOrSpaces(value) ? Collections.emptySet() : new Parameters(value).keySet();
   }
-}
\ No newline at end of file
+
+  /**
+   * Package and bundle lists of the manifest, parsed once since manifests are immutable and cached by {@link BundleManifestCache}.
+   */
+  private static final class ParsedHeaders {
+    final PackageTrie exportedPackages = new PackageTrie();
+    final PackageTrie importedPackages = new PackageTrie();
+    final PackageTrie privatePackages = new PackageTrie();
+    final Set<String> requiredBundles;
+
+    ParsedHeaders(BundleManifest manifest) {
+      for (String exported : manifest.getValues(Constants.EXPORT_PACKAGE)) {
+        exportedPackages.add(StringUtil.trimEnd(exported, ".*"));
+      }
+      for (String imported : manifest.getValues(Constants.IMPORT_PACKAGE)) {
+        importedPackages.add(imported);
+      }
+      for (String privatePkg : manifest.getValues(Constants.PRIVATE_PACKAGE)) {
+        privatePackages.add(privatePkg);
+      }
+      requiredBundles = manifest.getValues(Constants.REQUIRE_BUNDLE);
+    }
+  }
+
+  /**
+   * Packages by their name segments. Finds the first added package which is equal to a given one or is its parent,
+   * the same as checking the packages in order with {@link PsiNameHelper#isSubpackageOf}.
+   */
+  private static final class PackageTrie {
+    private final Node myRoot = new Node();
+    private int myCount;
+
+    void add(String packageName) {
+      Node node = myRoot;
+      int start = 0;
+      while (true) {
+        int end = packageName.indexOf('.', start);
+        String segment = end < 0 ? packageName.substring(start) : packageName.substring(start, end);
+        node = node.children.computeIfAbsent(segment, __ -> new Node());
+        if (end < 0) break;
+        start = end + 1;
+      }
+      if (node.packageName == null) {
+        node.packageName = packageName;
+        node.order = myCount++;
+      }
+    }
+
+    @Nullable String findFirstParent(String packageName) {
+      Node result = null;
+      Node node = myRoot;
+      int start = 0;
+      while (node != null) {
+        int end = packageName.indexOf('.', start);
+        String segment = end < 0 ? packageName.substring(start) : packageName.substring(start, end);
+        node = node.children.get(segment);
+        if (node != null && node.packageName != null && (result == null || node.order < result.order)) {
+          result = node;
+        }
+        if (end < 0) break;
+        start = end + 1;
+      }
+      return result != null ? result.packageName : null;
+    }
+
+    private static final class Node {
+      final Map<String, Node> children = new HashMap<>();
+      String packageName;
+      int order;
+    }
+  }
+}
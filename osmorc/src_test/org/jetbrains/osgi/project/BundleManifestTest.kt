@@ -43,6 +43,13 @@ class BundleManifestTest {
     assertNull(manifest.getExportedPackage("foo.bar.no.way"))
   }
 
+  @Test fun exportedPackageOrder() {
+    val manifest = BundleManifest(mapOf("Export-Package" to "foo.bar,foo,foo.ba"))
+    assertEquals("foo.bar", manifest.getExportedPackage("foo.bar.impl"))
+    assertEquals("foo", manifest.getExportedPackage("foo.baz"))
+    assertNull(manifest.getExportedPackage("fo"))
+  }
+
   @Test fun missingHeaderHandling() {
     val manifest = BundleManifest(mapOf())
     assertNull(manifest.getExportedPackage("pkg"))
@@ -79,6 +79,10 @@ object PrismaConstants {
     const val URL = "url"
   }
 
+  object GeneratorFields {
+    const val PROVIDER = "provider"
+  }
+
   object ParameterNames {
     const val FIELDS = "fields"
     const val NAME = "name"
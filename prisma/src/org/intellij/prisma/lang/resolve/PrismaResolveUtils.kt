@@ -14,10 +14,8 @@ import com.intellij.psi.stubs.StubIndex
 import com.intellij.psi.util.CachedValueProvider.Result.create
 import com.intellij.psi.util.CachedValuesManager
 import org.intellij.prisma.ide.indexing.PRISMA_ENTITIES_INDEX_KEY
-import org.intellij.prisma.ide.indexing.PRISMA_KEY_VALUE_DECL_INDEX_KEY
 import org.intellij.prisma.lang.PrismaFileType
 import org.intellij.prisma.lang.psi.PrismaEntityDeclaration
-import org.intellij.prisma.lang.psi.PrismaKeyValueDeclaration
 
 fun processEntityDeclarations(processor: PrismaProcessor, state: ResolveState, element: PsiElement) {
   if (!processLocalFileDeclarations(processor, state, element)) return
@@ -43,7 +41,7 @@ fun processGlobalEntityDeclarations(
     return processGlobalEntityDeclarations(processor, state, element, processor.name, scope)
   }
   else {
-    for (key in StubIndex.getInstance().getAllKeys(PRISMA_ENTITIES_INDEX_KEY, element.project)) {
+    for (key in getSchemaModel(element).entityNames) {
       if (!processGlobalEntityDeclarations(processor, state, element, key, scope)) return false
     }
   }
@@ -64,40 +62,33 @@ private fun processGlobalEntityDeclarations(
   return true
 }
 
-fun processKeyValueDeclarations(
-  project: Project,
-  processor: PrismaProcessor,
-  scope: GlobalSearchScope,
-): Boolean {
-  for (key in StubIndex.getInstance().getAllKeys(PRISMA_KEY_VALUE_DECL_INDEX_KEY, project)) {
-    for (declaration in StubIndex.getElements(PRISMA_KEY_VALUE_DECL_INDEX_KEY, key, project, scope,
-                                              PrismaKeyValueDeclaration::class.java)) {
-      if (!processor.execute(declaration, ResolveState.initial())) return false
-    }
-  }
-  return true
-}
-
 fun getSchemaScope(context: PsiElement): GlobalSearchScope {
   val psiFile = context.containingFile
 
   return CachedValuesManager.getCachedValue(psiFile) {
     create(
-      buildSchemaScope(psiFile.project, getPhysicalFile(psiFile)) ?: GlobalSearchScope.fileScope(psiFile),
+      getSchemaRoot(psiFile)?.let { GlobalSearchScopes.directoryScope(psiFile.project, it, true) } ?: GlobalSearchScope.fileScope(psiFile),
       VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS,
     )
   }
 }
 
+/**
+ * Returns the directory of the schema of [context], the files of all of its subdirectories belong to the schema.
+ */
+fun getSchemaRoot(context: PsiElement): VirtualFile? {
+  val psiFile = context.containingFile
+
+  return CachedValuesManager.getCachedValue(psiFile) {
+    create(findSchemaRoot(psiFile.project, getPhysicalFile(psiFile)), VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS)
+  }
+}
+
 fun getSchemaScopeWithoutCurrentFile(context: PsiElement): GlobalSearchScope =
   GlobalSearchScope
     .notScope(GlobalSearchScope.fileScope(context.project, getPhysicalFile(context)))
     .intersectWith(getSchemaScope(context))
 
-private fun buildSchemaScope(project: Project, file: VirtualFile): GlobalSearchScope? {
-  return findSchemaRoot(project, file)?.let { GlobalSearchScopes.directoryScope(project, it, true) }
-}
-
 private fun findSchemaRoot(project: Project, file: VirtualFile): VirtualFile? {
   var root: VirtualFile? = null
   var lastDir: VirtualFile? = null
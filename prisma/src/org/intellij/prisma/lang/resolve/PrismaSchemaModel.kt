@@ -0,0 +1,110 @@
+// Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package org.intellij.prisma.lang.resolve
+
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiManager
+import com.intellij.psi.search.FileTypeIndex
+import com.intellij.psi.search.GlobalSearchScopes
+import com.intellij.psi.stubs.StubElement
+import com.intellij.psi.util.CachedValue
+import com.intellij.psi.util.CachedValueProvider.Result.create
+import com.intellij.psi.util.CachedValuesManager
+import org.intellij.prisma.ide.schema.types.PrismaDatasourceType
+import org.intellij.prisma.lang.PrismaConstants
+import org.intellij.prisma.lang.PrismaFileType
+import org.intellij.prisma.lang.psi.*
+import org.intellij.prisma.lang.psi.stubs.*
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Entity names, datasources and generators of the Prisma files of one schema root, or of a single file outside of any root.
+ */
+class PrismaSchemaModel(val entityNames: Set<String>, val metadata: PrismaSchemaMetadata) {
+  companion object {
+    val EMPTY = PrismaSchemaModel(emptySet(), PrismaSchemaMetadata())
+  }
+}
+
+/**
+ * Returns the model of the schema of [context]. Models of schema roots are only rebuilt when a Prisma file under the root changes, and
+ * only the changed files are walked again.
+ */
+fun getSchemaModel(context: PsiElement): PrismaSchemaModel {
+  val file = context.containingFile?.originalFile as? PrismaFile ?: return PrismaSchemaModel.EMPTY
+  val root = getSchemaRoot(file) ?: return getFileModel(file)
+  return PrismaSchemaModelCache.getInstance(file.project).getModel(root)
+}
+
+@Service(Service.Level.PROJECT)
+private class PrismaSchemaModelCache(private val project: Project) {
+  private val models = ConcurrentHashMap<VirtualFile, CachedValue<PrismaSchemaModel>>()
+
+  fun getModel(root: VirtualFile): PrismaSchemaModel {
+    models.keys.removeIf { !it.isValid }
+    return models.computeIfAbsent(root) {
+      CachedValuesManager.getManager(project).createCachedValue {
+        create(buildModel(root), PrismaSchemaRootTrackers.getInstance(project).forSchemaRoot(root),
+               VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS)
+      }
+    }.value
+  }
+
+  private fun buildModel(root: VirtualFile): PrismaSchemaModel {
+    val psiManager = PsiManager.getInstance(project)
+    val fileModels = FileTypeIndex.getFiles(PrismaFileType, GlobalSearchScopes.directoryScope(project, root, true))
+      .mapNotNull { psiManager.findFile(it) as? PrismaFile }
+      .map { getFileModel(it) }
+
+    return PrismaSchemaModel(
+      fileModels.flatMapTo(mutableSetOf()) { it.entityNames },
+      PrismaSchemaMetadata(
+        fileModels.fold(emptyMap()) { datasources, model -> datasources + model.metadata.datasources },
+        fileModels.fold(emptyMap()) { generators, model -> generators + model.metadata.generators },
+      ),
+    )
+  }
+
+  companion object {
+    fun getInstance(project: Project) = project.service<PrismaSchemaModelCache>()
+  }
+}
+
+private fun getFileModel(file: PrismaFile): PrismaSchemaModel =
+  CachedValuesManager.getCachedValue(file) { create(buildFileModel(file), file) }
+
+// declarations are read from the stub tree, the AST is only loaded for the provider values of datasources and generators
+private fun buildFileModel(file: PrismaFile): PrismaSchemaModel {
+  val entityNames = mutableSetOf<String>()
+  val datasources = mutableListOf<PrismaSchemaDatasource>()
+  val generators = mutableListOf<PrismaSchemaGenerator>()
+
+  val stubTree = file.greenStubTree ?: file.calcStubTree()
+  for (stub in stubTree.root.childrenStubs) {
+    val name = (stub as? PrismaNamedStub<*>)?.name ?: continue
+    when (stub) {
+      is PrismaModelDeclarationStub, is PrismaTypeDeclarationStub, is PrismaViewDeclarationStub, is PrismaEnumDeclarationStub,
+      is PrismaTypeAliasStub -> entityNames.add(name)
+      is PrismaDatasourceDeclarationStub -> {
+        val datasourceType = PrismaDatasourceType.fromString(getStringValue(stub, PrismaConstants.DatasourceFields.PROVIDER))
+        if (datasourceType != null) {
+          datasources.add(PrismaSchemaDatasource(name, datasourceType))
+        }
+      }
+      is PrismaGeneratorDeclarationStub -> {
+        generators.add(PrismaSchemaGenerator(name, getStringValue(stub, PrismaConstants.GeneratorFields.PROVIDER)))
+      }
+    }
+  }
+
+  return PrismaSchemaModel(entityNames, PrismaSchemaMetadata(datasources.associateBy { it.name }, generators.associateBy { it.name }))
+}
+
+private fun getStringValue(declaration: StubElement<*>, field: String): String? {
+  val keyValue = declaration.childrenStubs.firstOrNull { it is PrismaKeyValueStub && it.name == field } as? PrismaKeyValueStub
+  return (keyValue?.psi?.expression as? PrismaLiteralExpression)?.value as? String
+}
@@ -0,0 +1,73 @@
+// Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package org.intellij.prisma.lang.resolve
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.ModificationTracker
+import com.intellij.openapi.util.SimpleModificationTracker
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.PsiDirectory
+import com.intellij.psi.PsiManager
+import com.intellij.psi.PsiTreeChangeAdapter
+import com.intellij.psi.PsiTreeChangeEvent
+import org.intellij.prisma.lang.psi.PrismaFile
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Counts the changes of the Prisma files under each schema root, so caches of Prisma schemas survive edits of other files and of other
+ * schemas.
+ */
+@Service(Service.Level.PROJECT)
+class PrismaSchemaRootTrackers(project: Project) : Disposable {
+  private val rootTrackers = ConcurrentHashMap<VirtualFile, SimpleModificationTracker>()
+
+  init {
+    PsiManager.getInstance(project).addPsiTreeChangeListener(object : PsiTreeChangeAdapter() {
+      override fun childAdded(event: PsiTreeChangeEvent) = onChange(event)
+      override fun childRemoved(event: PsiTreeChangeEvent) = onChange(event)
+      override fun childReplaced(event: PsiTreeChangeEvent) = onChange(event)
+      override fun childMoved(event: PsiTreeChangeEvent) = onChange(event)
+      override fun childrenChanged(event: PsiTreeChangeEvent) = onChange(event)
+      override fun propertyChanged(event: PsiTreeChangeEvent) {
+        if (event.propertyName == PsiTreeChangeEvent.PROP_UNLOADED_PSI) onUnloadedPsiChange(event)
+      }
+    }, this)
+  }
+
+  /**
+   * Counts the changes of the Prisma files under [root].
+   */
+  fun forSchemaRoot(root: VirtualFile): ModificationTracker {
+    rootTrackers.keys.removeIf { !it.isValid }
+    return rootTrackers.computeIfAbsent(root) { SimpleModificationTracker() }
+  }
+
+  // files are added, removed and moved between roots with VFS structure changes, caches depend on them separately
+  private fun onChange(event: PsiTreeChangeEvent) {
+    val file = event.file as? PrismaFile ?: return
+    if (!file.isPhysical) return
+    incRootTrackers(file.viewProvider.virtualFile)
+  }
+
+  // content changes of files without loaded PSI don't report the file, only its directory, so all roots containing it are counted
+  private fun onUnloadedPsiChange(event: PsiTreeChangeEvent) {
+    val directory = (event.parent ?: event.element) as? PsiDirectory ?: return
+    incRootTrackers(directory.virtualFile)
+  }
+
+  private fun incRootTrackers(file: VirtualFile) {
+    for ((root, rootTracker) in rootTrackers) {
+      if (VfsUtilCore.isAncestor(root, file, false)) rootTracker.incModificationCount()
+    }
+  }
+
+  override fun dispose() {
+  }
+
+  companion object {
+    fun getInstance(project: Project): PrismaSchemaRootTrackers = project.service<PrismaSchemaRootTrackers>()
+  }
+}
@@ -1,6 +1,11 @@
 package org.intellij.prisma.completion
 
+import com.intellij.codeInsight.lookup.LookupManager
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.webSymbols.testFramework.noAutoComplete
 import org.intellij.prisma.ide.schema.types.PrismaNativeType
+import org.intellij.prisma.lang.PrismaFileType
 
 class PrismaNativeTypesCompletionTest : PrismaCompletionTestBase("completion/nativeTypes") {
   fun testNativeTypeDatasource() {
@@ -67,6 +72,35 @@ class PrismaNativeTypesCompletionTest : PrismaCompletionTestBase("completion/nat
     )
   }
 
+  fun testNativeTypeDatasourceChangedInSplitSchema() {
+    myFixture.configureByText(PrismaFileType, """
+          model M {
+            id Int <caret>
+          }
+      """.trimIndent())
+    val additionalFile = myFixture.addFileToProject("additionalSchema.prisma", """
+          datasource pg {
+            provider = "postgresql"
+          }
+      """.trimIndent())
+    assertContainsElements(noAutoComplete { myFixture.completeBasic() }.strings, "@pg")
+    LookupManager.hideActiveLookup(project)
+
+    WriteCommandAction.runWriteCommandAction(project) {
+      val documentManager = PsiDocumentManager.getInstance(project)
+      documentManager.getDocument(additionalFile)!!.setText("""
+          datasource other {
+            provider = "mysql"
+          }
+      """.trimIndent())
+      documentManager.commitAllDocuments()
+    }
+
+    val lookupStrings = noAutoComplete { myFixture.completeBasic() }.strings
+    assertContainsElements(lookupStrings, "@other")
+    assertDoesntContain(lookupStrings, "@pg")
+  }
+
   fun testNativeTypeMultipleDatasource() {
     // it works in the plugin, though it's not supported yet in Prisma, and multiple generator declarations will be marked as error.
     val lookupElements = completeSelected(
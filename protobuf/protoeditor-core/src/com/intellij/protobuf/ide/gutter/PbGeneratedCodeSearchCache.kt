@@ -0,0 +1,35 @@
+package com.intellij.protobuf.ide.gutter
+
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectRootManager
+import com.intellij.protobuf.lang.ProtoBaseLanguage
+import com.intellij.psi.PsiElement
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Returns the result of a search in the generated code and its implementations, the result is computed once per [key] and shared
+ * by all line markers and navigation actions until the code in any language but protobuf changes.
+ *
+ * Keys are expected to be derived from the generated code names, e.g. the fully qualified name of the generated service base class,
+ * so that the markers of all RPCs of a service reuse a single inheritors search, and editing a proto file doesn't drop the cache.
+ */
+fun <T : PsiElement> getOrSearchGeneratedCode(project: Project, key: Any, search: () -> List<T>): List<T> {
+  val cache = CachedValuesManager.getManager(project).getCachedValue(project) {
+    CachedValueProvider.Result.create(
+      ConcurrentHashMap<Any, List<PsiElement>>(),
+      PsiModificationTracker.getInstance(project).forLanguages { !it.isKindOf(ProtoBaseLanguage.INSTANCE) },
+      ProjectRootManager.getInstance(project)
+    )
+  }
+
+  @Suppress("UNCHECKED_CAST")
+  val cached = cache[key] as List<T>?
+  if (cached != null && cached.all(PsiElement::isValid)) return cached
+
+  val result = search()
+  cache[key] = result
+  return result
+}
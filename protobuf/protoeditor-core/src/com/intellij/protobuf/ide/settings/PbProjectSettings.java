@@ -106,6 +106,7 @@ public final class PbProjectSettings implements PersistentStateComponent<PbProje
 
   public void setImportPathEntries(List<ImportPathEntry> importPathEntries) {
     state.importPathEntries = importPathEntries == null ? Collections.emptyList() : importPathEntries;
+    state.incModificationCount();
   }
 
   public @NlsSafe String getDescriptorPath() {
@@ -114,6 +115,7 @@ public final class PbProjectSettings implements PersistentStateComponent<PbProje
 
   public void setDescriptorPath(String descriptorPath) {
     state.descriptorPath = StringUtil.defaultIfEmpty(descriptorPath, "");
+    state.incModificationCount();
   }
 
   public boolean isThirdPartyConfigurationEnabled() {
@@ -122,6 +124,7 @@ public final class PbProjectSettings implements PersistentStateComponent<PbProje
 
   public void setThirdPartyConfigurationEnabled(boolean autoConfigEnabled) {
     state.thirdPartyConfiguration = autoConfigEnabled;
+    state.incModificationCount();
   }
 
   public boolean isIncludeProtoDirectories() {
@@ -130,6 +133,7 @@ public final class PbProjectSettings implements PersistentStateComponent<PbProje
 
   public void setIncludeProtoDirectories(boolean includeProtoDirectories) {
     state.includeProtoDirectories = includeProtoDirectories;
+    state.incModificationCount();
   }
 
   public boolean isIndexBasedResolveEnabled() {
@@ -138,6 +142,7 @@ public final class PbProjectSettings implements PersistentStateComponent<PbProje
 
   public void setIndexBasedResolveEnabled(boolean indexBasedResolveEnabled) {
     state.indexBasedResolveEnabled = indexBasedResolveEnabled;
+    state.incModificationCount();
   }
 
   public boolean isIncludeContentRoots() {
@@ -146,6 +151,7 @@ public final class PbProjectSettings implements PersistentStateComponent<PbProje
 
   public void setIncludeContentRoots(boolean includeSourceRoots) {
     state.includeContentRoots = includeSourceRoots;
+    state.incModificationCount();
   }
 
   public boolean isIncludeWellKnownProtos() {
@@ -154,6 +160,7 @@ public final class PbProjectSettings implements PersistentStateComponent<PbProje
 
   public void setIncludeWellKnownProtos(boolean includeWellKnownProtos) {
     state.includeWellKnownProtos = includeWellKnownProtos;
+    state.incModificationCount();
   }
 
   public PbProjectSettings copy() {
@@ -22,6 +22,7 @@ import com.google.common.collect.ImmutableSetMultimap;
 import com.intellij.extapi.psi.PsiFileBase;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.util.Key;
 import com.intellij.protobuf.ide.PbCompositeModificationTracker;
 import com.intellij.protobuf.ide.settings.PbProjectSettings;
 import com.intellij.protobuf.lang.PbFileType;
@@ -31,12 +32,15 @@ import com.intellij.protobuf.lang.descriptor.DescriptorOptionType;
 import com.intellij.protobuf.lang.psi.*;
 import com.intellij.protobuf.lang.psi.util.PbPsiImplUtil;
 import com.intellij.protobuf.lang.psi.util.PbPsiUtil;
+import com.intellij.protobuf.lang.resolve.PbFileResolver;
 import com.intellij.psi.*;
 import com.intellij.psi.scope.PsiScopeProcessor;
+import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider.Result;
 import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.util.QualifiedName;
+import com.intellij.util.ArrayUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -47,6 +51,8 @@ import static com.intellij.protobuf.lang.psi.SyntaxLevelKt.PROTO_SYNTAX_V2;
 public class PbFileImpl extends PsiFileBase implements PbFile {
 
   private static final Logger logger = Logger.getInstance(PbFileImpl.class);
+  private static final Key<CachedValue<List<PbFile>>> PUBLIC_IMPORTS_CLOSURE_KEY = Key.create("protobuf.public.imports.closure");
+  private static final Key<CachedValue<List<PbFile>>> ALL_IMPORTS_CLOSURE_KEY = Key.create("protobuf.all.imports.closure");
 
   public PbFileImpl(@NotNull FileViewProvider viewProvider) {
     super(viewProvider, PbLanguage.INSTANCE);
@@ -297,46 +303,82 @@ public class PbFileImpl extends PsiFileBase implements PbFile {
     return name.getComponentCount() == 0 ? lastChild : null;
   }
 
+  /**
+   * Returns the transitive closure of imported files. The closure depends on the import statements of all files in it, so it's
+   * dropped on any protobuf PSI change, but it is then rebuilt from the resolved imports of each file, which are cached until the
+   * file itself changes.
+   */
   private List<PbFile> getImportedFileList(boolean includePrivate) {
-    Set<PbFile> importedFiles = new LinkedHashSet<>();
-    findImportsRecursively(this, importedFiles, includePrivate);
-    return new ArrayList<>(importedFiles);
+    return CachedValuesManager.getCachedValue(
+        this,
+        includePrivate ? ALL_IMPORTS_CLOSURE_KEY : PUBLIC_IMPORTS_CLOSURE_KEY,
+        () -> {
+          Set<PbFile> importedFiles = new LinkedHashSet<>();
+          findImportsRecursively(this, importedFiles, includePrivate);
+          return Result.create(
+              List.copyOf(importedFiles),
+              ArrayUtil.append(PbFileResolver.getImportResolveDependencies(getProject()),
+                               PbCompositeModificationTracker.byElement(this)));
+        });
   }
 
   private static void findImportsRecursively(
       PbFile file, Collection<PbFile> imports, boolean includePrivate) {
-    for (PbImportStatement pbImport : file.getImportStatements()) {
-      if (!includePrivate && !pbImport.isPublic()) {
+    for (ResolvedImport resolvedImport : getResolvedImports(file)) {
+      if (!includePrivate && !resolvedImport.isPublic()) {
         continue;
       }
-      PbImportName importName = pbImport.getImportName();
-      if (importName == null) {
+      PbFile importedFile = resolvedImport.file();
+      if (imports.contains(importedFile)) {
+        // TODO(volkman): do something with dependency cycle?
         continue;
       }
-      PsiReference ref = importName.getReference();
-      if (ref == null) {
-        continue;
-      }
-      PsiElement possibleFile;
-      if (PbProjectSettings.getInstance(file.getProject()).isIndexBasedResolveEnabled() && ref instanceof PsiPolyVariantReference) {
-        possibleFile = Arrays.stream(((PsiPolyVariantReference)ref).multiResolve(false))
-          .map(it -> it.getElement())
-          .filter(it -> it instanceof PbFile)
-          .findFirst().orElse(null);
-      }
-      else {
-        possibleFile = ref.resolve();
-      }
-      if (possibleFile instanceof PbFile importedFile) {
-        if (imports.contains(importedFile)) {
-          // TODO(volkman): do something with dependency cycle?
-          continue;
-        }
-        imports.add(importedFile);
-        // Recurse into this file, but only look at public imports.
-        findImportsRecursively(importedFile, imports, /* includePrivate= */ false);
-      }
+      imports.add(importedFile);
+      // Recurse into this file, but only look at public imports.
+      findImportsRecursively(importedFile, imports, /* includePrivate= */ false);
+    }
+  }
+
+  private record ResolvedImport(@NotNull PbFile file, boolean isPublic) {}
+
+  /** Returns the files imported directly by the file, they change only with the file itself or with the import resolution. */
+  private static List<ResolvedImport> getResolvedImports(PbFile file) {
+    return CachedValuesManager.getCachedValue(
+        file,
+        () -> {
+          List<ResolvedImport> resolvedImports = new ArrayList<>();
+          for (PbImportStatement pbImport : file.getImportStatements()) {
+            PbFile importedFile = resolveImport(pbImport);
+            if (importedFile != null) {
+              resolvedImports.add(new ResolvedImport(importedFile, pbImport.isPublic()));
+            }
+          }
+          return Result.create(
+              List.copyOf(resolvedImports),
+              ArrayUtil.append(PbFileResolver.getImportResolveDependencies(file.getProject()), file));
+        });
+  }
+
+  private static @Nullable PbFile resolveImport(PbImportStatement pbImport) {
+    PbImportName importName = pbImport.getImportName();
+    if (importName == null) {
+      return null;
+    }
+    PsiReference ref = importName.getReference();
+    if (ref == null) {
+      return null;
+    }
+    PsiElement possibleFile;
+    if (PbProjectSettings.getInstance(pbImport.getProject()).isIndexBasedResolveEnabled() && ref instanceof PsiPolyVariantReference) {
+      possibleFile = Arrays.stream(((PsiPolyVariantReference)ref).multiResolve(false))
+        .map(it -> it.getElement())
+        .filter(it -> it instanceof PbFile)
+        .findFirst().orElse(null);
+    }
+    else {
+      possibleFile = ref.resolve();
     }
+    return possibleFile instanceof PbFile importedFile ? importedFile : null;
   }
 
   @Override
@@ -17,22 +17,36 @@ package com.intellij.protobuf.lang.resolve;
 
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolder;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.protobuf.ide.settings.PbProjectSettings;
 import com.intellij.protobuf.lang.psi.PbFile;
 import com.intellij.protobuf.lang.resolve.FileResolveProvider.ChildEntry;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
 /** A helper class for finding files given path names. */
 public final class PbFileResolver {
 
+  private static final Key<CachedValue<ConcurrentMap<String, List<VirtualFile>>>> RESOLVED_PATHS_KEY =
+      Key.create("protobuf.resolved.import.paths");
+
   public static @NotNull List<PbFile> findFilesForContext(
       @NotNull String path, @NotNull PsiElement context) {
     Module module = ModuleUtilCore.findModuleForPsiElement(context);
@@ -47,14 +61,14 @@ public final class PbFileResolver {
     if (!isValidImportPath(path)) {
       return Collections.emptyList();
     }
-    return findFiles(module.getProject(), (provider) -> provider.findFile(path, module));
+    return findFiles(module.getProject(), module, path, (provider) -> provider.findFile(path, module));
   }
 
   public static @NotNull List<PbFile> findFilesInProject(@NotNull String path, @NotNull Project project) {
     if (!isValidImportPath(path)) {
       return Collections.emptyList();
     }
-    return findFiles(project, (provider) -> provider.findFile(path, project));
+    return findFiles(project, project, path, (provider) -> provider.findFile(path, project));
   }
 
   public static @NotNull Collection<ChildEntry> getChildNamesForContext(
@@ -100,6 +114,19 @@ public final class PbFileResolver {
     return FileResolveProvider.EP_NAME.getExtensions(project);
   }
 
+  /**
+   * Returns the dependencies of results computed by resolving import paths: files are found by their location, which changes
+   * with the VFS structure and the project roots, while the lookup itself depends on the settings and the index availability.
+   */
+  public static @NotNull Object @NotNull [] getImportResolveDependencies(@NotNull Project project) {
+    return new Object[] {
+      VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS,
+      ProjectRootManager.getInstance(project),
+      PbProjectSettings.getModificationTracker(project),
+      DumbService.getInstance(project).getModificationTracker()
+    };
+  }
+
   static GlobalSearchScope getUnionScope(@NotNull Project project) {
     GlobalSearchScope scope = GlobalSearchScope.EMPTY_SCOPE;
     for (FileResolveProvider provider : getProviders(project)) {
@@ -108,13 +135,31 @@ public final class PbFileResolver {
     return scope;
   }
 
+  /**
+   * Finds the files using the cache of the <code>cacheHolder</code>, which is either a module or the project. Import references,
+   * annotators and descriptor lookup resolve the same paths over and over, and each provider may search the file index.
+   */
   private static @NotNull List<PbFile> findFiles(
-      Project project, Function<FileResolveProvider, VirtualFile> fn) {
-    Set<PbFile> results = new LinkedHashSet<>();
+      Project project,
+      UserDataHolder cacheHolder,
+      String path,
+      Function<FileResolveProvider, VirtualFile> fn) {
+    ConcurrentMap<String, List<VirtualFile>> resolvedPaths =
+        CachedValuesManager.getManager(project).getCachedValue(
+            cacheHolder,
+            RESOLVED_PATHS_KEY,
+            () -> Result.create(new ConcurrentHashMap<>(), getImportResolveDependencies(project)),
+            false);
+
+    List<VirtualFile> files = resolvedPaths.get(path);
+    if (files == null) {
+      files = findVirtualFiles(project, fn);
+      resolvedPaths.putIfAbsent(path, files);
+    }
 
-    for (FileResolveProvider provider : getProviders(project)) {
-      VirtualFile file = fn.apply(provider);
-      if (file == null || !file.exists()) {
+    Set<PbFile> results = new LinkedHashSet<>();
+    for (VirtualFile file : files) {
+      if (!file.isValid()) {
         continue;
       }
       PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
@@ -125,6 +170,20 @@ public final class PbFileResolver {
     return new ArrayList<>(results);
   }
 
+  private static @NotNull List<VirtualFile> findVirtualFiles(
+      Project project, Function<FileResolveProvider, VirtualFile> fn) {
+    Set<VirtualFile> results = new LinkedHashSet<>();
+
+    for (FileResolveProvider provider : getProviders(project)) {
+      VirtualFile file = fn.apply(provider);
+      if (file == null || !file.exists()) {
+        continue;
+      }
+      results.add(file);
+    }
+    return List.copyOf(results);
+  }
+
   private static @NotNull Collection<ChildEntry> getChildEntries(
       Project project, Function<FileResolveProvider, Collection<ChildEntry>> fn) {
     Set<ChildEntry> results = new LinkedHashSet<>();
@@ -75,6 +75,20 @@ class PbImportPathResolverTest : PbCodeInsightFixtureTestCase() {
     Assert.assertEquals(importedFile, reference!!.resolve())
   }
 
+  @Test
+  fun `test cached import resolution is updated when files and settings change`() {
+    PbProjectSettings.getInstance(myFixture.project).isIndexBasedResolveEnabled = true
+
+    val root = myFixture.configureByText("root.proto", "")
+    Assert.assertTrue(PbFileResolver.findFilesForContext("dir/imported.proto", root).isEmpty())
+
+    val importedFile = myFixture.addFileToProject("/dir/imported.proto", "")
+    Assert.assertEquals(listOf(importedFile), PbFileResolver.findFilesForContext("dir/imported.proto", root))
+
+    PbProjectSettings.getInstance(myFixture.project).isIndexBasedResolveEnabled = false
+    Assert.assertTrue(PbFileResolver.findFilesForContext("dir/imported.proto", root).isEmpty())
+  }
+
   @Test
   fun `test ambiguous import is not highlighted when index search is enabled`() {
     PbProjectSettings.getInstance(myFixture.project).isIndexBasedResolveEnabled = true
@@ -12,6 +12,7 @@ import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.project.Project
 import com.intellij.protobuf.ide.gutter.PbCodeImplementationSearcher
 import com.intellij.protobuf.ide.gutter.PbGeneratedCodeConverter
+import com.intellij.protobuf.ide.gutter.getOrSearchGeneratedCode
 import com.intellij.protobuf.lang.psi.*
 import com.intellij.protobuf.lang.stub.ProtoFileAccessor
 import com.intellij.psi.PsiElement
@@ -49,43 +50,54 @@ internal class PbGoImplementationSearcher : PbCodeImplementationSearcher {
     return typeSpec.allMethods.any { it.name == "mustEmbedUnimplemented$specName" }
   }
 
-  private fun findGeneratedServices(serviceDefinition: PbServiceDefinition,
-                                    converters: Collection<PbGeneratedCodeConverter>): Sequence<PsiElement> {
-    val serviceName = serviceDefinition.name ?: return emptySequence()
-    val goPackage = suggestGoPackage(serviceDefinition.pbFile)
-    return converters.asSequence()
-      .map { converter -> converter.protoToCodeEntityName(serviceName) }
-      .flatMap { maybeExistingCodeEntity ->
-        findTypeSpecsWithName(maybeExistingCodeEntity, goPackage, serviceDefinition.project)
-      }
-  }
-
   private fun findServiceImplementations(serviceDefinition: PbServiceDefinition,
                                          converters: Collection<PbGeneratedCodeConverter>): Sequence<PsiElement> {
-    val generatedServices = findGeneratedServices(serviceDefinition, converters)
-    return generatedServices
-      .flatMap { typeSpec ->
-        findAllCancellable { processor ->
-          GoInheritorsSearch.INHERITORS_SEARCH.processQuery(GoGotoUtil.param(typeSpec), processor)
+    val serviceName = serviceDefinition.name ?: return emptySequence()
+    val goPackage = suggestGoPackage(serviceDefinition.pbFile)
+    val project = serviceDefinition.project
+    return generatedServiceNames(serviceName, converters)
+      .flatMap { generatedServiceName ->
+        getOrSearchGeneratedCode(project, ServiceImplementationsKey(generatedServiceName, goPackage)) {
+          val generatedServices = findTypeSpecsWithName(generatedServiceName, goPackage, project).toList()
+          generatedServices
+            .flatMap { typeSpec ->
+              findAllCancellable { processor ->
+                GoInheritorsSearch.INHERITORS_SEARCH.processQuery(GoGotoUtil.param(typeSpec), processor)
+              }
+            }
+            .plus(generatedServices)
         }
       }
-      .plus(generatedServices)
   }
 
   private fun findMethodImplementations(methodDefinition: PbServiceMethod,
                                         converters: Collection<PbGeneratedCodeConverter>): Sequence<PsiElement> {
     val serviceDefinition = methodDefinition.parentOfType<PbServiceDefinition>() ?: return emptySequence()
+    val serviceName = serviceDefinition.name ?: return emptySequence()
     val methodName = methodDefinition.name ?: return emptySequence()
-    val generatedMethods = findGeneratedServices(serviceDefinition, converters)
-      .filterIsInstance<GoTypeSpec>()
-      .flatMap { typeSpec -> typeSpec.allMethods.filter { method -> method.name == methodName } }
-    return generatedMethods
-      .flatMap { method ->
-        findAllCancellable { processor ->
-          GoInheritorsSearch.METHOD_INHERITORS_SEARCH.processQuery(GoGotoUtil.param(method), processor)
+    val goPackage = suggestGoPackage(serviceDefinition.pbFile)
+    val project = methodDefinition.project
+    return generatedServiceNames(serviceName, converters)
+      .flatMap { generatedServiceName ->
+        getOrSearchGeneratedCode(project, MethodImplementationsKey(generatedServiceName, goPackage, methodName)) {
+          val generatedMethods = findTypeSpecsWithName(generatedServiceName, goPackage, project)
+            .flatMap { typeSpec -> typeSpec.allMethods.filter { method -> method.name == methodName } }
+            .toList()
+          generatedMethods
+            .flatMap { method ->
+              findAllCancellable { processor ->
+                GoInheritorsSearch.METHOD_INHERITORS_SEARCH.processQuery(GoGotoUtil.param(method), processor)
+              }
+            }
+            .plus(generatedMethods)
         }
       }
-      .plus(generatedMethods)
+  }
+
+  private fun generatedServiceNames(serviceName: String, converters: Collection<PbGeneratedCodeConverter>): Sequence<String> {
+    return converters.asSequence()
+      .map { converter -> converter.protoToCodeEntityName(serviceName) }
+      .distinct()
   }
 
 
@@ -174,4 +186,8 @@ internal class PbGoImplementationSearcher : PbCodeImplementationSearcher {
   }
 }
 
+private data class ServiceImplementationsKey(val generatedServiceName: String, val goPackage: String)
+
+private data class MethodImplementationsKey(val generatedServiceName: String, val goPackage: String, val methodName: String)
+
 private const val PB_GO_PACKAGE_OPTION = "go_package"
\ No newline at end of file
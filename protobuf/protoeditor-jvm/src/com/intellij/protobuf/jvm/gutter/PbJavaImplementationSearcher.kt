@@ -3,18 +3,23 @@ package com.intellij.protobuf.jvm.gutter
 import com.intellij.openapi.components.service
 import com.intellij.protobuf.ide.gutter.PbCodeImplementationSearcher
 import com.intellij.protobuf.ide.gutter.PbGeneratedCodeConverter
+import com.intellij.protobuf.ide.gutter.getOrSearchGeneratedCode
 import com.intellij.protobuf.jvm.PbJavaFindUsagesHandlerFactory.ProtoToJavaConverter
 import com.intellij.protobuf.jvm.PbJavaGotoDeclarationHandler
 import com.intellij.protobuf.lang.psi.*
 import com.intellij.protobuf.lang.stub.PbSearchParameters
 import com.intellij.protobuf.lang.stub.ProtoFileAccessor
+import com.intellij.openapi.project.Project
 import com.intellij.psi.JavaPsiFacade
 import com.intellij.psi.PsiClass
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiMethod
 import com.intellij.psi.search.GlobalSearchScope
 import com.intellij.psi.search.searches.ClassInheritorsSearch
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
 import com.intellij.psi.util.InheritanceUtil
+import com.intellij.psi.util.PsiModificationTracker
 import com.intellij.psi.util.parentOfType
 import com.intellij.util.CommonProcessors
 import com.intellij.util.asSafely
@@ -44,28 +49,50 @@ internal class PbJavaImplementationSearcher : PbCodeImplementationSearcher {
                                            converters: Collection<PbGeneratedCodeConverter>): Sequence<PsiClass> {
     val serviceFqn = effectiveServiceFqn(serviceDefinition) ?: return emptySequence()
     val project = serviceDefinition.project
-    return converters.asSequence()
-      .map { converter -> converter.protoToCodeEntityName(serviceFqn) }
-      .mapNotNull { maybeExistingCodeEntity ->
-        JavaPsiFacade.getInstance(project).findClass(maybeExistingCodeEntity, GlobalSearchScope.projectScope(project))
-      }
-      .flatMap { baseClass -> ClassInheritorsSearch.search(baseClass).asIterable() }
+    return generatedServiceNames(serviceFqn, converters)
+      .flatMap { generatedServiceName -> findServiceInheritors(generatedServiceName, project) }
   }
 
   private fun handleMethodImplementations(methodDefinition: PbServiceMethod,
                                           converters: Collection<PbGeneratedCodeConverter>): Sequence<PsiMethod> {
     val serviceDefinition = methodDefinition.parentOfType<PbServiceDefinition>() ?: return emptySequence()
     val methodName = methodDefinition.name ?: return emptySequence()
-    return handleServiceImplementations(serviceDefinition, converters)
-      .flatMap { it.methods.asSequence() }
-      .filter { it.name == methodName }
+    val serviceFqn = effectiveServiceFqn(serviceDefinition) ?: return emptySequence()
+    val project = methodDefinition.project
+    return generatedServiceNames(serviceFqn, converters)
+      .flatMap { generatedServiceName ->
+        getOrSearchGeneratedCode(project, MethodImplementationsKey(generatedServiceName, methodName)) {
+          findServiceInheritors(generatedServiceName, project).flatMap { it.findMethodsByName(methodName, false).asList() }
+        }
+      }
+  }
+
+  private fun generatedServiceNames(serviceFqn: String, converters: Collection<PbGeneratedCodeConverter>): Sequence<String> {
+    return converters.asSequence()
+      .map { converter -> converter.protoToCodeEntityName(serviceFqn) }
+      .distinct()
+  }
+
+  /** All RPC markers of a service share a single inheritors search of its generated base class */
+  private fun findServiceInheritors(generatedServiceName: String, project: Project): List<PsiClass> {
+    return getOrSearchGeneratedCode(project, ServiceInheritorsKey(generatedServiceName)) {
+      val baseClass = JavaPsiFacade.getInstance(project).findClass(generatedServiceName, GlobalSearchScope.projectScope(project))
+      if (baseClass == null) emptyList() else ClassInheritorsSearch.search(baseClass).findAll().toList()
+    }
   }
 
   private fun handleMessageImplementations(messageDefinition: PbMessageDefinition): Sequence<PsiClass> {
-    val pbFile = messageDefinition.parentOfType<PbFile>() ?: return emptySequence()
+    return CachedValuesManager.getCachedValue(messageDefinition) {
+      CachedValueProvider.Result.create(computeMessageImplementations(messageDefinition),
+                                        PsiModificationTracker.MODIFICATION_COUNT)
+    }.asSequence()
+  }
+
+  private fun computeMessageImplementations(messageDefinition: PbMessageDefinition): List<PsiClass> {
+    val pbFile = messageDefinition.parentOfType<PbFile>() ?: return emptyList()
     val dispatcher = ProtoToJavaConverter(pbFile)
     messageDefinition.accept(dispatcher)
-    return dispatcher.results?.asSequence().orEmpty().filterIsInstance<PsiClass>()
+    return dispatcher.results.orEmpty().filterIsInstance<PsiClass>()
   }
 
   private fun handleModel(psiElement: PsiElement): Sequence<PbElement> {
@@ -144,4 +171,8 @@ internal class PbJavaImplementationSearcher : PbCodeImplementationSearcher {
   }
 }
 
+private data class ServiceInheritorsKey(val generatedServiceName: String)
+
+private data class MethodImplementationsKey(val generatedServiceName: String, val methodName: String)
+
 private const val PB_JAVA_PACKAGE_OPTION = "java_package"
\ No newline at end of file
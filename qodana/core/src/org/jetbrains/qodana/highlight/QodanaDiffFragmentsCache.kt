@@ -0,0 +1,165 @@
+package org.jetbrains.qodana.highlight
+
+import com.intellij.diff.comparison.ByWordRt
+import com.intellij.diff.comparison.CancellationChecker
+import com.intellij.diff.comparison.ComparisonPolicy
+import com.intellij.diff.fragments.DiffFragment
+import com.intellij.diff.fragments.DiffFragmentImpl
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.editor.event.DocumentEvent
+import com.intellij.openapi.editor.event.DocumentListener
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.util.diff.Diff
+import java.util.WeakHashMap
+
+/**
+ * Diff between the revision documents of the highlighted report and the current state of [document].
+ *
+ * Word fragments are computed once per revision and then updated on every change of [document]: only the changed region and
+ * the fragments touching it are compared again, so typing doesn't lead to the diff of the whole file on every highlighting pass.
+ * Line changes are needed only for problems without a snippet, they are computed lazily and dropped on any change.
+ */
+internal class QodanaDiffFragmentsCache(private val document: Document) : DocumentListener {
+  private val entries = WeakHashMap<Document, Entry>()
+
+  private class Entry(val revisionStamp: Long, var documentStamp: Long, var fragments: List<DiffFragment>) {
+    var lineChanges: Diff.Change? = null
+    var lineChangesComputed = false
+  }
+
+  class Fragments(val fragments: List<DiffFragment>, private val lineChanges: () -> Diff.Change?) {
+    /**
+     * @return the line in the current document or `-1` if the [line] of the revision document was changed
+     */
+    fun translateLine(line: Int): Int = Diff.translateLine(lineChanges(), line)
+  }
+
+  companion object {
+    private val PROGRESS_CANCELLATION_CHECKER = object : CancellationChecker {
+      override fun checkCanceled() = ProgressManager.checkCanceled()
+    }
+
+    fun create(document: Document, parentDisposable: Disposable): QodanaDiffFragmentsCache {
+      val cache = QodanaDiffFragmentsCache(document)
+      document.addDocumentListener(cache, parentDisposable)
+      return cache
+    }
+  }
+
+  /**
+   * Computes missing fragments outside of the lock, so that changes of [document] on EDT don't wait for the diff of the whole file,
+   * the computation is cancelled together with the highlighting pass.
+   */
+  fun getFragments(revisionDocument: Document): Fragments {
+    val entry = getEntry(revisionDocument)
+    return Fragments(entry.fragments) { getLineChanges(revisionDocument, entry) }
+  }
+
+  private fun getEntry(revisionDocument: Document): Entry {
+    val revisionStamp: Long
+    val documentStamp: Long
+    val revisionText: CharSequence
+    val documentText: CharSequence
+    synchronized(entries) {
+      revisionStamp = revisionDocument.modificationStamp
+      documentStamp = document.modificationStamp
+      val cached = entries[revisionDocument]
+      if (cached != null && cached.revisionStamp == revisionStamp && cached.documentStamp == documentStamp) return cached
+      revisionText = revisionDocument.immutableCharSequence
+      documentText = document.immutableCharSequence
+    }
+
+    val fragments = ByWordRt.compare(revisionText, documentText, ComparisonPolicy.DEFAULT, PROGRESS_CANCELLATION_CHECKER)
+    val entry = Entry(revisionStamp, documentStamp, fragments)
+    synchronized(entries) {
+      // an entry is published only if no document has changed meanwhile, otherwise it's valid just for the snapshot
+      if (revisionDocument.modificationStamp == revisionStamp && document.modificationStamp == documentStamp) {
+        val cached = entries[revisionDocument]
+        if (cached != null && cached.revisionStamp == revisionStamp && cached.documentStamp == documentStamp) return cached
+        entries[revisionDocument] = entry
+      }
+    }
+    return entry
+  }
+
+  private fun getLineChanges(revisionDocument: Document, entry: Entry): Diff.Change? {
+    val documentStamp: Long
+    val revisionText: CharSequence
+    val documentText: CharSequence
+    synchronized(entries) {
+      if (entry.lineChangesComputed) return entry.lineChanges
+      documentStamp = document.modificationStamp
+      revisionText = revisionDocument.immutableCharSequence
+      documentText = document.immutableCharSequence
+    }
+
+    val lineChanges = Diff.buildChanges(revisionText.toString(), documentText.toString())
+    synchronized(entries) {
+      if (entry.revisionStamp == revisionDocument.modificationStamp && entry.documentStamp == documentStamp &&
+          document.modificationStamp == documentStamp) {
+        entry.lineChanges = lineChanges
+        entry.lineChangesComputed = true
+      }
+    }
+    return lineChanges
+  }
+
+  override fun documentChanged(event: DocumentEvent) {
+    synchronized(entries) {
+      for ((revisionDocument, entry) in entries) {
+        // the entry missed some changes, it's computed again on the next access
+        if (entry.documentStamp != event.oldTimeStamp || entry.revisionStamp != revisionDocument.modificationStamp) continue
+
+        entry.fragments = updateFragments(entry.fragments, revisionDocument.immutableCharSequence, document.immutableCharSequence,
+                                          event.offset, event.oldLength, event.newLength)
+        entry.documentStamp = document.modificationStamp
+        entry.lineChanges = null
+        entry.lineChangesComputed = false
+      }
+    }
+  }
+}
+
+/**
+ * Updates the word diff [fragments] after the text at [offset] of the second side was replaced, the fragments touching the
+ * replaced text are compared again together with it, the other ones are kept or shifted.
+ */
+internal fun updateFragments(
+  fragments: List<DiffFragment>,
+  text1: CharSequence,
+  newText2: CharSequence,
+  offset: Int,
+  oldLength: Int,
+  newLength: Int,
+): List<DiffFragment> {
+  val shift = newLength - oldLength
+
+  // window in the coordinates of the second side before the change
+  var first = 0
+  while (first < fragments.size && fragments[first].endOffset2 < offset) first++
+  var last = first
+  while (last < fragments.size && fragments[last].startOffset2 <= offset + oldLength) last++
+
+  val hasTouched = first < last
+  val start2 = if (hasTouched) minOf(offset, fragments[first].startOffset2) else offset
+  val end2 = if (hasTouched) maxOf(offset + oldLength, fragments[last - 1].endOffset2) else offset + oldLength
+
+  // outside of the fragments both sides are equal, so the offsets differ by the accumulated difference of the preceding fragments
+  fun shiftBefore(index: Int) = if (index == 0) 0 else fragments[index - 1].endOffset2 - fragments[index - 1].endOffset1
+  val start1 = if (hasTouched && fragments[first].startOffset2 == start2) fragments[first].startOffset1 else start2 - shiftBefore(first)
+  val end1 = if (hasTouched && fragments[last - 1].endOffset2 == end2) fragments[last - 1].endOffset1 else end2 - shiftBefore(last)
+
+  val windowFragments = ByWordRt.compare(text1.subSequence(start1, end1), newText2.subSequence(start2, end2 + shift),
+                                         ComparisonPolicy.DEFAULT, CancellationChecker.EMPTY)
+
+  val result = ArrayList<DiffFragment>(fragments.size - (last - first) + windowFragments.size)
+  result.addAll(fragments.subList(0, first))
+  windowFragments.mapTo(result) {
+    DiffFragmentImpl(it.startOffset1 + start1, it.endOffset1 + start1, it.startOffset2 + start2, it.endOffset2 + start2)
+  }
+  fragments.subList(last, fragments.size).mapTo(result) {
+    DiffFragmentImpl(it.startOffset1, it.endOffset1, it.startOffset2 + shift, it.endOffset2 + shift)
+  }
+  return result
+}
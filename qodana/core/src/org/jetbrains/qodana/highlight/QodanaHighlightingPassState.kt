@@ -51,6 +51,10 @@ internal class QodanaHighlightingPassState(
 
   private var analyzedOnce = AtomicBoolean(false)
 
+  val diffFragmentsCache: QodanaDiffFragmentsCache by lazy {
+    QodanaDiffFragmentsCache.create(editor.document, (editor as EditorImpl).disposable)
+  }
+
   val scope: CoroutineScope by lazy {
     val scope = project.qodanaProjectScope.childScope()
     scope.launch(QodanaDispatchers.Ui) {
@@ -106,4 +110,4 @@ internal class QodanaHighlightingPassState(
       awaitClose { Disposer.dispose(disposable) }
     }.flowOn(QodanaDispatchers.Default).collect()
   }
-}
\ No newline at end of file
+}
@@ -1,9 +1,6 @@
 package org.jetbrains.qodana.highlight
 
 import com.intellij.codeInspection.LanguageInspectionSuppressors
-import com.intellij.diff.comparison.ByWordRt
-import com.intellij.diff.comparison.CancellationChecker
-import com.intellij.diff.comparison.ComparisonPolicy
 import com.intellij.diff.fragments.DiffFragment
 import com.intellij.lang.LanguageUtil
 import com.intellij.openapi.editor.Document
@@ -11,7 +8,6 @@ import com.intellij.openapi.project.DumbService
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.util.TextRange
 import com.intellij.psi.PsiFile
-import com.intellij.util.diff.Diff
 import org.jetbrains.qodana.problem.SarifProblem
 import kotlin.math.min
 
@@ -19,7 +15,8 @@ internal class QodanaRangeCalculator(
   private val project: Project,
   private val file: PsiFile,
   private val document: Document,
-  private val highlightedReportData: HighlightedReportData
+  private val highlightedReportData: HighlightedReportData,
+  private val diffFragmentsCache: QodanaDiffFragmentsCache,
 ) {
   internal fun calculateTextRanges(relevantProblems: List<SarifProblem>, data: QodanaRevisionData): List<ProblemWithRange> {
     val ranges = when (data) {
@@ -45,9 +42,8 @@ internal class QodanaRangeCalculator(
     if (revisionDocument == null) {
       return rangesInCurrentDocument
     }
-    val changes = Diff.buildChanges(revisionDocument.text, document.text)
-
-    val diffs = ByWordRt.compare(revisionDocument.text, document.text, ComparisonPolicy.DEFAULT, CancellationChecker.EMPTY)
+    val fragments = diffFragmentsCache.getFragments(revisionDocument)
+    val diffs = fragments.fragments
 
     return List(problems.size) { index ->
       val problem = problems[index]
@@ -55,7 +51,7 @@ internal class QodanaRangeCalculator(
       val localProblem = rangesInCurrentDocument[index]
 
       if (problem.startLine == null || problem.startLine >= revisionDocument.lineCount || problem.startColumn == null) return@List localProblem
-      if (problem.snippetText == null && Diff.translateLine(changes, problem.startLine) == -1) return@List problemWithNullRange
+      if (problem.snippetText == null && fragments.translateLine(problem.startLine) == -1) return@List problemWithNullRange
 
       val problemLength =
         problem.charLength ?:
@@ -11,6 +11,8 @@ import com.intellij.codeInsight.intention.IntentionAction
 import com.intellij.history.LocalHistory
 import com.intellij.navigation.JBProtocolRevisionResolver
 import com.intellij.openapi.application.runReadAction
+import com.intellij.openapi.diagnostic.debug
+import com.intellij.openapi.diagnostic.logger
 import com.intellij.openapi.editor.Editor
 import com.intellij.openapi.editor.EditorFactory
 import com.intellij.openapi.editor.impl.DocumentMarkupModel
@@ -39,6 +41,8 @@ import org.jetbrains.qodana.problem.buildDescription
 import java.util.concurrent.atomic.AtomicReference
 import kotlin.io.path.Path
 
+private val LOG = logger<QodanaReportHighlightingPass>()
+
 internal class QodanaReportHighlightingPass(
   private val myFile: PsiFile,
   private val editor: Editor,
@@ -51,6 +55,7 @@ internal class QodanaReportHighlightingPass(
   private val enabledInspections = AtomicReference<Set<String>>(emptySet())
 
   override fun doCollectInformation(progress: ProgressIndicator) {
+    val passStart = System.nanoTime()
     val virtualFile = myFile.virtualFile ?: return
     val projectDir = myProject.guessProjectDir()?.let { Path(it.canonicalPath ?: it.path) } ?: return
 
@@ -90,11 +95,13 @@ internal class QodanaReportHighlightingPass(
       return
     }
 
-    val rangesCalculator = QodanaRangeCalculator(myProject, myFile, document, highlightedReportData)
+    val rangesCalculator = QodanaRangeCalculator(myProject, myFile, document, highlightedReportData, passState.diffFragmentsCache)
 
+    val rangesStart = System.nanoTime()
     val relevantProblemsWithRanges = rangesCalculator.calculateTextRanges(
       relevantProblems, data!!
     )
+    val rangesCalculationNanos = System.nanoTime() - rangesStart
     highlights.addAll(relevantProblemsWithRanges.mapNotNull { (problem, range) ->
       val toolId = highlightedReportData.inspectionsInfoProvider.getSuppressIdByInspection(problem.inspectionId)
       buildHighlightInfo(problem, range, toolId)
@@ -110,6 +117,9 @@ internal class QodanaReportHighlightingPass(
     }
 
     myHighlightInfos.set(highlights)
+
+    val timing = QodanaHighlightingPassTiming(relevantProblems.size, rangesCalculationNanos, System.nanoTime() - passStart)
+    LOG.debug { "Qodana highlighting of ${myFile.name}: $timing" }
   }
 
   private fun isDataCorrect(data: QodanaRevisionData?, localIdeRunTimestamp: Long?, revisionIds: Set<String?>): Boolean {
@@ -263,4 +273,10 @@ internal fun getQodanaHighlightsDuplicatingIde(ideHighlighter: RangeHighlighter,
     val duplicate = QodanaHighlightInfoComparator.equals(ideHighlight, qodanaHighlight)
     duplicate
   }
-}
\ No newline at end of file
+}
+
+/**
+ * Durations of [QodanaReportHighlightingPass.doCollectInformation], logged at debug level: the whole collection and
+ * the translation of the problem ranges from the report revisions to the current document.
+ */
+internal data class QodanaHighlightingPassTiming(val problemsCount: Int, val rangesCalculationNanos: Long, val totalNanos: Long)
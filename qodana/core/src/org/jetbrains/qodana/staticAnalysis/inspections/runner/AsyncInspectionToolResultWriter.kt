@@ -13,9 +13,13 @@ import org.jetbrains.qodana.staticAnalysis.StaticAnalysisDispatchers
 import org.jetbrains.qodana.staticAnalysis.profile.QodanaProfile
 import org.jetbrains.qodana.staticAnalysis.sarif.fingerprints.BaselineEqualityV1
 import org.jetbrains.qodana.staticAnalysis.sarif.fingerprints.fingerprintOf
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
 
 private val LOG = logger<AsyncInspectionToolResultWriter>()
 
+private val RESULTS_BATCH_SIZE: Int = System.getProperty("qodana.results.writer.batch.size")?.toIntOrNull()?.coerceAtLeast(1) ?: 500
+
 internal class AsyncInspectionToolResultWriter(
   private val scope: CoroutineScope,
   val project: Project,
@@ -26,16 +30,27 @@ internal class AsyncInspectionToolResultWriter(
   private val channel: Channel<List<Problem>> = Channel(1000)
   private val gson = SarifUtil.createGson()
 
+  val statistics = ToolResultWriterStatistics()
+
   private val writerJob: Job =
     // WHY IO? – Database stuff, need to investigate and refactor
     // TODO – run database on IO dispatcher, not whole function stack
     scope.launch(StaticAnalysisDispatchers.IO, CoroutineStart.LAZY) {
       LOG.info("Async result writer started")
+      val batch = ArrayList<ToolResultInsert>(RESULTS_BATCH_SIZE)
       for (problems in channel) {
-        for (problem in problems) {
-          writeProblem(problem, profileState)
+        var received: List<Problem>? = problems
+        while (received != null) {
+          for (problem in received) {
+            batch.add(toInsert(problem, profileState) ?: continue)
+            if (batch.size >= RESULTS_BATCH_SIZE) writeBatch(batch)
+          }
+          // take what is already queued without suspending, so that one transaction covers it
+          received = channel.tryReceive().getOrNull()
         }
+        writeBatch(batch)
       }
+      LOG.info("Async result writer finished: $statistics")
     }
 
   private val consumerScope: CoroutineScope  = scope.childScope()
@@ -61,28 +76,98 @@ internal class AsyncInspectionToolResultWriter(
     scope.coroutineContext.job.cancelAndJoin()
   }
 
-  private suspend fun writeProblem(problem: Problem, profileState: QodanaProfile.QodanaProfileState) {
+  private suspend fun toInsert(problem: Problem, profileState: QodanaProfile.QodanaProfileState): ToolResultInsert? {
     try {
-      val sarif = problem.getSarif(macroManager, database) ?: return
+      val sarif = problem.getSarif(macroManager, database) ?: return null
       val inspectionGroup = profileState.stateByInspectionId[sarif.ruleId]!!.inspectionGroup.name
       val fingerprint = requireNotNull(sarif.fingerprintOf(BaselineEqualityV1)) { "Fingerprints not generated" }
-      withContext(StaticAnalysisDispatchers.IO) {
-        database.insert(inspectionGroup,
-                        sarif.ruleId,
-                        fingerprint,
-                        gson.toJson(sarif, Result::class.java))
-
-        val hashFrom = problem.getRelatedProblemHashFrom()
-        if (hashFrom != null) {
-          database.insertRelatedProblem(hashFrom, gson.toJson(sarif, Result::class.java))
-        }
-      }
+      val start = System.nanoTime()
+      val json = gson.toJson(sarif, Result::class.java)
+      statistics.serializationNanos.addAndGet(System.nanoTime() - start)
+      return ToolResultInsert(inspectionGroup, sarif.ruleId, fingerprint, json, problem.getRelatedProblemHashFrom())
     }
     catch (e: CancellationException) {
       throw e
     }
     catch(e: Exception) {
       LOG.warn(e)
+      return null
+    }
+  }
+
+  private suspend fun writeBatch(batch: MutableList<ToolResultInsert>) {
+    if (batch.isEmpty()) return
+    try {
+      withContext(StaticAnalysisDispatchers.IO) {
+        val start = System.nanoTime()
+        var written = batch.size
+        try {
+          database.insertBatch(batch)
+          statistics.batches.incrementAndGet()
+        }
+        catch (e: CancellationException) {
+          throw e
+        }
+        catch (e: Exception) {
+          // the transaction is rolled back, write the results one by one to lose only the broken ones
+          LOG.warn("Failed to write a batch of ${batch.size} results, writing them separately", e)
+          written = batch.count { writeSingle(it) }
+        }
+        statistics.results.addAndGet(written.toLong())
+        statistics.writeNanos.addAndGet(System.nanoTime() - start)
+      }
     }
+    finally {
+      batch.clear()
+    }
+  }
+
+  // the result and its related problem are committed separately, so a broken related problem doesn't lose the result
+  private fun writeSingle(result: ToolResultInsert): Boolean {
+    try {
+      database.insert(result.inspectionGroup, result.inspectionId, result.hash, result.json)
+    }
+    catch (e: Exception) {
+      LOG.warn(e)
+      return false
+    }
+    statistics.singleWrites.incrementAndGet()
+
+    val relatedProblemHash = result.relatedProblemHash ?: return true
+    try {
+      database.insertRelatedProblem(relatedProblemHash, result.json)
+    }
+    catch (e: Exception) {
+      LOG.warn("Result ${result.hash} of ${result.inspectionId} is written without its related problem $relatedProblemHash", e)
+      statistics.missingRelatedProblems.incrementAndGet()
+    }
+    return true
+  }
+}
+
+/**
+ * Throughput of [AsyncInspectionToolResultWriter]: the number of written results, of batch transactions and of results written
+ * one by one after a batch failed, the number of results written without their related problem,
+ * and the time spent on serializing the results to JSON and on writing them to the database
+ */
+internal class ToolResultWriterStatistics {
+  val results = AtomicLong()
+  val batches = AtomicLong()
+  val singleWrites = AtomicLong()
+  val missingRelatedProblems = AtomicLong()
+  val serializationNanos = AtomicLong()
+  val writeNanos = AtomicLong()
+
+  val resultsPerSecond: Long
+    get() {
+      val nanos = writeNanos.get()
+      return if (nanos == 0L) 0 else results.get() * TimeUnit.SECONDS.toNanos(1) / nanos
+    }
+
+  override fun toString(): String {
+    return "${results.get()} results in ${batches.get()} batches and ${singleWrites.get()} single writes, " +
+           "${missingRelatedProblems.get()} without their related problem, " +
+           "serialization ${TimeUnit.NANOSECONDS.toMillis(serializationNanos.get())} ms, " +
+           "database ${TimeUnit.NANOSECONDS.toMillis(writeNanos.get())} ms ($resultsPerSecond results/s)"
   }
 }
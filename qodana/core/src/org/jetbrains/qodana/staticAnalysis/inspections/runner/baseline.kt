@@ -21,21 +21,23 @@ import java.nio.file.Paths
 import kotlin.io.path.Path
 import kotlin.io.path.notExists
 
-private suspend fun readBaselineReport(
-  baseline: String,
-  projectPath: Path,
-  readResults: Boolean = true,
-): SarifReport? {
+/**
+ * Compares the current results with the `(ruleId, fingerprint)` index of the baseline instead of the whole baseline report,
+ * see [compareWithStreamingBaseline]. Not applied for the scripts that analyze only a part of the project.
+ */
+private val STREAMING_BASELINE: Boolean = System.getProperty("qodana.baseline.streaming", "false").toBoolean()
+
+private suspend fun resolveBaselineFile(baseline: String, projectPath: Path): Path? {
   val baselineFile = runInterruptible(StaticAnalysisDispatchers.IO) {
     Path(baseline).takeIf(Path::isAbsolute) ?: projectPath.resolve(baseline)
   }
+  return baselineFile.takeUnless { it.notExists() }
+}
 
-  if (baselineFile.notExists()) {
-    return null
-  }
+private suspend fun <T> readBaselineFile(baselineFile: Path, read: (Path) -> T): T {
   try {
     return runInterruptible(StaticAnalysisDispatchers.IO) {
-      SarifUtil.readReport(baselineFile, readResults)
+      read(baselineFile)
     }
   }
   catch (e: JsonSyntaxException) {
@@ -47,6 +49,15 @@ private suspend fun readBaselineReport(
   }
 }
 
+private suspend fun readBaselineReport(
+  baseline: String,
+  projectPath: Path,
+  readResults: Boolean = true,
+): SarifReport? {
+  val baselineFile = resolveBaselineFile(baseline, projectPath) ?: return null
+  return readBaselineFile(baselineFile) { SarifUtil.readReport(it, readResults) }
+}
+
 internal suspend fun getBaselineReport(config: QodanaConfig, includeResults: Boolean = true): SarifReport? =
   config.baseline?.let { readBaselineReport(config.baseline, config.projectPath, includeResults) }
 
@@ -57,6 +68,10 @@ internal suspend fun applyBaselineCalculation(
   reporter: QodanaMessageReporter
 ) {
   if (config.baseline == null) return
+  if (STREAMING_BASELINE && !isLimitedScope(config)) {
+    applyStreamingBaselineCalculation(report, config, reporter)
+    return
+  }
   val baseline = readBaselineReport(config.baseline, config.projectPath) ?: run {
     reporter.reportError("Can't find baseline report file: ${config.baseline}. Baseline will be calculated against empty report.")
     createSarifReport(emptyList())
@@ -67,10 +82,27 @@ internal suspend fun applyBaselineCalculation(
   BaselineCalculation.compare(report, baseline, options)
 }
 
-private fun getOptions(scope: QodanaAnalysisScope, config: QodanaConfig): BaselineCalculation.Options {
-  val limitedScope = config.script.name == TEAMCITY_CHANGES_SCRIPT_NAME || config.script.name == SCOPED_SCRIPT_NAME
+private suspend fun applyStreamingBaselineCalculation(report: SarifReport, config: QodanaConfig, reporter: QodanaMessageReporter) {
+  val run = report.runs.first()
+  val results = run.results ?: emptyList()
+  val baselineFile = resolveBaselineFile(config.baseline!!, config.projectPath)
+  if (baselineFile == null) {
+    reporter.reportError("Can't find baseline report file: ${config.baseline}. Baseline will be calculated against empty report.")
+    results.forEach { it.baselineState = Result.BaselineState.NEW }
+    return
+  }
+
+  val absent = readBaselineFile(baselineFile) { compareWithStreamingBaseline(results, it, config.includeAbsent) }
+  if (absent.isNotEmpty()) {
+    run.results = results + absent
+  }
+}
+
+private fun isLimitedScope(config: QodanaConfig): Boolean =
+  config.script.name == TEAMCITY_CHANGES_SCRIPT_NAME || config.script.name == SCOPED_SCRIPT_NAME
 
-  if (!limitedScope) return BaselineCalculation.Options(config.includeAbsent)
+private fun getOptions(scope: QodanaAnalysisScope, config: QodanaConfig): BaselineCalculation.Options {
+  if (!isLimitedScope(config)) return BaselineCalculation.Options(config.includeAbsent)
   val check: (Result) -> Boolean = { r ->
     r.locations.any {
       val virtualFile = it.physicalLocation?.artifactLocation?.toVirtualFile(config.projectPath)
@@ -0,0 +1,160 @@
+package org.jetbrains.qodana.staticAnalysis.inspections.runner
+
+import com.google.common.hash.Hashing
+import com.google.gson.stream.JsonReader
+import com.jetbrains.qodana.sarif.SarifUtil
+import com.jetbrains.qodana.sarif.model.Result
+import it.unimi.dsi.fastutil.ints.IntArrayList
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap
+import org.jetbrains.qodana.staticAnalysis.sarif.fingerprints.BaselineEqualityV1
+import org.jetbrains.qodana.staticAnalysis.sarif.fingerprints.BaselineEqualityV2
+import org.jetbrains.qodana.staticAnalysis.sarif.fingerprints.FingerprintCalculator
+import org.jetbrains.qodana.staticAnalysis.sarif.fingerprints.fingerprintOf
+import java.nio.file.Path
+import java.util.BitSet
+import kotlin.io.path.bufferedReader
+
+private val GSON = SarifUtil.createGson()
+
+/**
+ * The most precise fingerprint goes first. If both results have it, they are compared only by it, the other fingerprints are
+ * compared only if one of the results lacks the precise one.
+ */
+private val BASELINE_FINGERPRINTS: List<FingerprintCalculator> = listOf(BaselineEqualityV2, BaselineEqualityV1)
+
+/**
+ * Compact index of the baseline results by their `(ruleId, fingerprint)` pairs, each pair is stored as a 64-bit hash.
+ *
+ * Results of the baseline are identified by their position in the report, so that [forEachBaselineResult] can find the ones which
+ * were not [match]ed without keeping them in memory. Like [com.jetbrains.qodana.sarif.baseline.BaselineCalculation],
+ * every baseline result is matched by at most one current result.
+ */
+internal class BaselineFingerprintIndex private constructor(
+  private val lastEntryByKey: Long2IntOpenHashMap,
+  private val previousEntries: IntArray,
+  private val entryResults: IntArray,
+  private val resultsWithPreciseFingerprint: BitSet,
+  val resultCount: Int,
+) {
+  private val matched = BitSet(resultCount)
+
+  /**
+   * @return `true` if the [result] is in the baseline, the matched baseline result is not matched again
+   */
+  fun match(result: Result): Boolean {
+    val precise = BASELINE_FINGERPRINTS.first()
+    val hasPreciseFingerprint = result.fingerprintOf(precise) != null
+    for (calculator in BASELINE_FINGERPRINTS) {
+      val key = result.fingerprintKey(calculator) ?: continue
+      val bothHavePrecise = calculator !== precise && hasPreciseFingerprint
+      var entry = lastEntryByKey.get(key)
+      while (entry != -1) {
+        val index = entryResults[entry]
+        if (!matched[index] && !(bothHavePrecise && resultsWithPreciseFingerprint[index])) {
+          matched.set(index)
+          return true
+        }
+        entry = previousEntries[entry]
+      }
+    }
+    return false
+  }
+
+  fun isMatched(index: Int): Boolean = matched[index]
+
+  companion object {
+    fun build(baselineFile: Path): BaselineFingerprintIndex {
+      val lastEntryByKey = Long2IntOpenHashMap().apply { defaultReturnValue(-1) }
+      val previousEntries = IntArrayList()
+      val entryResults = IntArrayList()
+      val resultsWithPreciseFingerprint = BitSet()
+      var resultCount = 0
+      forEachBaselineResult(baselineFile) { index, result ->
+        resultCount = index + 1
+        // problems which were already absent in the baseline run are not compared
+        if (result.baselineState == Result.BaselineState.ABSENT) return@forEachBaselineResult
+        if (result.fingerprintOf(BASELINE_FINGERPRINTS.first()) != null) resultsWithPreciseFingerprint.set(index)
+        for (calculator in BASELINE_FINGERPRINTS) {
+          val key = result.fingerprintKey(calculator) ?: continue
+          previousEntries.add(lastEntryByKey.put(key, entryResults.size))
+          entryResults.add(index)
+        }
+      }
+      return BaselineFingerprintIndex(lastEntryByKey, previousEntries.toIntArray(), entryResults.toIntArray(),
+                                      resultsWithPreciseFingerprint, resultCount)
+    }
+  }
+}
+
+private fun Result.fingerprintKey(calculator: FingerprintCalculator): Long? {
+  val fingerprint = fingerprintOf(calculator) ?: return null
+  val ruleId = ruleId ?: rule?.id
+  return Hashing.murmur3_128().newHasher()
+    .putUnencodedChars(ruleId ?: "")
+    .putInt(calculator.version)
+    .putUnencodedChars(fingerprint)
+    .hash()
+    .asLong()
+}
+
+/**
+ * Reads the results of the first run of the SARIF report one by one, without building the whole report.
+ */
+internal fun forEachBaselineResult(baselineFile: Path, consumer: (index: Int, result: Result) -> Unit) {
+  JsonReader(baselineFile.bufferedReader()).use { reader ->
+    reader.beginObject()
+    while (reader.hasNext()) {
+      if (reader.nextName() != "runs") {
+        reader.skipValue()
+        continue
+      }
+      reader.beginArray()
+      if (reader.hasNext()) {
+        readRunResults(reader, consumer)
+      }
+      while (reader.hasNext()) {
+        reader.skipValue()
+      }
+      reader.endArray()
+    }
+    reader.endObject()
+  }
+}
+
+private fun readRunResults(reader: JsonReader, consumer: (index: Int, result: Result) -> Unit) {
+  reader.beginObject()
+  while (reader.hasNext()) {
+    if (reader.nextName() != "results") {
+      reader.skipValue()
+      continue
+    }
+    reader.beginArray()
+    var index = 0
+    while (reader.hasNext()) {
+      consumer(index++, GSON.fromJson(reader, Result::class.java))
+    }
+    reader.endArray()
+  }
+  reader.endObject()
+}
+
+/**
+ * Marks the current [results] as [Result.BaselineState.NEW] or [Result.BaselineState.UNCHANGED] using the fingerprint index
+ * of the baseline, and returns the baseline results which are absent in the current run if [includeAbsent] is set.
+ * The baseline report is read twice, but its results are never held in memory all at once.
+ */
+internal fun compareWithStreamingBaseline(results: List<Result>, baselineFile: Path, includeAbsent: Boolean): List<Result> {
+  val index = BaselineFingerprintIndex.build(baselineFile)
+  for (result in results) {
+    result.baselineState = if (index.match(result)) Result.BaselineState.UNCHANGED else Result.BaselineState.NEW
+  }
+  if (!includeAbsent) return emptyList()
+
+  val absent = mutableListOf<Result>()
+  forEachBaselineResult(baselineFile) { resultIndex, result ->
+    if (result.baselineState != Result.BaselineState.ABSENT && !index.isMatched(resultIndex)) {
+      absent.add(result.apply { baselineState = Result.BaselineState.ABSENT })
+    }
+  }
+  return absent
+}
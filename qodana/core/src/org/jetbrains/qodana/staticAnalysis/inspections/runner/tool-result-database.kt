@@ -59,6 +59,10 @@ private const val SELECT_DUPLICATES_STATEMENT = "SELECT json FROM duplicates WHE
 private const val INSERT_RELATED_PROBLEM = "INSERT INTO related_problem VALUES (?, ?);"
 private const val SELECT_RELATED_PROBLEM = "SELECT json FROM related_problem WHERE hash = ?;"
 
+private const val BEGIN_TRANSACTION = "BEGIN TRANSACTION;"
+private const val COMMIT_TRANSACTION = "COMMIT;"
+private const val ROLLBACK_TRANSACTION = "ROLLBACK;"
+
 internal const val QODANA_DB_FILENAME = "tool-results.db"
 
 /**
@@ -71,6 +75,9 @@ internal const val QODANA_DB_FILENAME = "tool-results.db"
  *  Note, there is no lock file provided, that prevents opening non-closed DB.
  */
 class QodanaToolResultDatabase private constructor(private val connection: SqliteConnection) : AutoCloseable by connection {
+  // all writes go through this lock, so that no statement runs on the connection inside the transaction of [insertBatch]
+  private val writeLock = Any()
+
   companion object {
     fun create(path: Path): QodanaToolResultDatabase {
       NioFiles.deleteRecursively(path.resolve(QODANA_DB_FILENAME))
@@ -86,22 +93,81 @@ class QodanaToolResultDatabase private constructor(private val connection: Sqlit
   }
 
   fun insert(inspectionGroup: String, inspectionId: String, hash: String, json: String) {
-    connection.execute(INSERT_STATEMENT, arrayOf(inspectionGroup, inspectionId, hash, json))
+    synchronized(writeLock) {
+      connection.execute(INSERT_STATEMENT, arrayOf(inspectionGroup, inspectionId, hash, json))
+    }
+  }
+
+  /**
+   * Inserts all [results] and their related problems with one prepared statement per table in a single transaction.
+   * If any of the inserts fails, the transaction is rolled back and none of the [results] is written.
+   */
+  fun insertBatch(results: List<ToolResultInsert>) {
+    if (results.isEmpty()) return
+    synchronized(writeLock) {
+      connection.execute(BEGIN_TRANSACTION)
+      try {
+        val resultsBinder = ObjectBinder(paramCount = 4, batchCountHint = results.size)
+        val resultsStatement = connection.prepareStatement(INSERT_STATEMENT, resultsBinder)
+        try {
+          for (result in results) {
+            resultsBinder.bindMultiple(result.inspectionGroup, result.inspectionId, result.hash, result.json)
+            resultsBinder.addBatch()
+          }
+          resultsStatement.executeBatch()
+        }
+        finally {
+          resultsStatement.close()
+        }
+
+        val relatedProblems = results.filter { it.relatedProblemHash != null }
+        if (relatedProblems.isNotEmpty()) {
+          val relatedBinder = ObjectBinder(paramCount = 2, batchCountHint = relatedProblems.size)
+          val relatedStatement = connection.prepareStatement(INSERT_RELATED_PROBLEM, relatedBinder)
+          try {
+            for (result in relatedProblems) {
+              relatedBinder.bindMultiple(result.relatedProblemHash, result.json)
+              relatedBinder.addBatch()
+            }
+            relatedStatement.executeBatch()
+          }
+          finally {
+            relatedStatement.close()
+          }
+        }
+        connection.execute(COMMIT_TRANSACTION)
+      }
+      catch (e: Throwable) {
+        try {
+          connection.execute(ROLLBACK_TRANSACTION)
+        }
+        catch (rollbackError: Exception) {
+          e.addSuppressed(rollbackError)
+        }
+        throw e
+      }
+    }
   }
 
   fun insertDuplicate(file: String, line: Int, start: Int, end: Int, hash: String, json: String) {
-    connection.execute(INSERT_DUPLICATES_STATEMENT, arrayOf(file, line, start, end, hash, json))
+    synchronized(writeLock) {
+      connection.execute(INSERT_DUPLICATES_STATEMENT, arrayOf(file, line, start, end, hash, json))
+    }
   }
 
   fun insertMetricsData(rowData: MetricTableRowData) {
     val metricTable: MetricTable = rowData.metricTable
     @Language("SQLite") val insertStatement: String = metricTable.getInsertStatement()
-    connection.execute(insertStatement, rowData.getValues())
+    synchronized(writeLock) {
+      connection.execute(insertStatement, rowData.getValues())
+    }
   }
 
   fun deleteMetricsDataForFile(filePath: String, metricTable: MetricTable) {
     @Language("SQLite") val deleteStatement: String = metricTable.getDeleteStatementForFile()
-    connection.execute(deleteStatement, arrayOf(filePath))
+    synchronized(writeLock) {
+      connection.execute(deleteStatement, arrayOf(filePath))
+    }
   }
 
   fun select(inspectionGroup: String): ToolResultsClosableQuery {
@@ -124,7 +190,9 @@ class QodanaToolResultDatabase private constructor(private val connection: Sqlit
   }
 
   fun insertRelatedProblem(hash: String, json: String) {
-    connection.execute(INSERT_RELATED_PROBLEM, arrayOf(hash, json))
+    synchronized(writeLock) {
+      connection.execute(INSERT_RELATED_PROBLEM, arrayOf(hash, json))
+    }
   }
 
   fun selectRelatedProblems(hash: String): StringColumnClosableQuery {
@@ -194,4 +262,15 @@ class QodanaToolResultDatabase private constructor(private val connection: Sqlit
   }
 }
 
+/**
+ * A row of the results table, [json] is also written to the related problems table when [relatedProblemHash] is set
+ */
+data class ToolResultInsert(
+  val inspectionGroup: String,
+  val inspectionId: String,
+  val hash: String,
+  val json: String,
+  val relatedProblemHash: String?,
+)
+
 data class ToolResultRecord(val inspectionId: String, val hash: String, val json: String)
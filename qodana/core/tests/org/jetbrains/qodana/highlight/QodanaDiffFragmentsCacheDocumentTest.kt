@@ -0,0 +1,57 @@
+package org.jetbrains.qodana.highlight
+
+import com.intellij.diff.comparison.ByWordRt
+import com.intellij.diff.comparison.CancellationChecker
+import com.intellij.diff.comparison.ComparisonPolicy
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.editor.EditorFactory
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+
+class QodanaDiffFragmentsCacheDocumentTest : BasePlatformTestCase() {
+  private val revisionText = """
+    class A {
+      fun first() = 1
+      fun second() = 2
+    }
+  """.trimIndent()
+
+  private val revisionDocument by lazy { EditorFactory.getInstance().createDocument(revisionText) }
+  private val document by lazy { EditorFactory.getInstance().createDocument(revisionText.replace("first", "one")) }
+  private val cache by lazy { QodanaDiffFragmentsCache.create(document, testRootDisposable) }
+
+  fun `test fragments are computed once while documents are unchanged`() {
+    val fragments = cache.getFragments(revisionDocument).fragments
+    assertThat(fragments).hasSize(1)
+    assertThat(fragments.single().startOffset2).isEqualTo(document.text.indexOf("one"))
+
+    assertThat(cache.getFragments(revisionDocument).fragments).isSameAs(fragments)
+  }
+
+  fun `test fragments and lines follow document changes`() {
+    cache.getFragments(revisionDocument)
+    WriteCommandAction.runWriteCommandAction(project) {
+      document.insertString(0, "// header\n")
+    }
+
+    val fragments = cache.getFragments(revisionDocument)
+    val expected = ByWordRt.compare(revisionDocument.text, document.text, ComparisonPolicy.DEFAULT, CancellationChecker.EMPTY)
+    assertThat(fragments.fragments.map { it.startOffset2 to it.endOffset2 }).isEqualTo(expected.map { it.startOffset2 to it.endOffset2 })
+    assertThat(fragments.translateLine(0)).isEqualTo(1)
+    assertThat(fragments.translateLine(1)).isEqualTo(-1)
+    assertThat(fragments.translateLine(2)).isEqualTo(3)
+  }
+
+  fun `test cancelled computation is not cached`() {
+    val indicator = EmptyProgressIndicator().apply { cancel() }
+    assertThatThrownBy {
+      ProgressManager.getInstance().runProcess({ cache.getFragments(revisionDocument) }, indicator)
+    }.isInstanceOf(ProcessCanceledException::class.java)
+
+    assertThat(cache.getFragments(revisionDocument).fragments).hasSize(1)
+  }
+}
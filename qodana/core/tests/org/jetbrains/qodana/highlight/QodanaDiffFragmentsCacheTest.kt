@@ -0,0 +1,68 @@
+package org.jetbrains.qodana.highlight
+
+import com.intellij.diff.comparison.ByWordRt
+import com.intellij.diff.comparison.CancellationChecker
+import com.intellij.diff.comparison.ComparisonPolicy
+import com.intellij.diff.fragments.DiffFragment
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class QodanaDiffFragmentsCacheTest {
+  private val revision = """
+    class A {
+      fun first() = 1
+      fun second() = 2
+      fun third() = 3
+    }
+  """.trimIndent()
+
+  private fun compare(text1: CharSequence, text2: CharSequence): List<DiffFragment> =
+    ByWordRt.compare(text1, text2, ComparisonPolicy.DEFAULT, CancellationChecker.EMPTY)
+
+  private fun replace(current: String, old: String, new: String): String {
+    val offset = current.indexOf(old)
+    val newText = current.replaceRange(offset, offset + old.length, new)
+    val updated = updateFragments(compare(revision, current), revision, newText, offset, old.length, new.length)
+
+    assertValidDiff(revision, newText, updated)
+    return newText
+  }
+
+  private fun assertValidDiff(text1: String, text2: String, fragments: List<DiffFragment>) {
+    var end1 = 0
+    var end2 = 0
+    for (fragment in fragments) {
+      assertThat(fragment.startOffset1).isGreaterThanOrEqualTo(end1)
+      assertThat(fragment.startOffset2).isGreaterThanOrEqualTo(end2)
+      assertThat(text1.substring(end1, fragment.startOffset1)).isEqualTo(text2.substring(end2, fragment.startOffset2))
+      end1 = fragment.endOffset1
+      end2 = fragment.endOffset2
+    }
+    assertThat(text1.substring(end1)).isEqualTo(text2.substring(end2))
+  }
+
+  @Test
+  fun `edit in unchanged text`() {
+    replace(revision, "second", "renamed")
+  }
+
+  @Test
+  fun `edit next to a changed fragment`() {
+    val current = replace(revision, "first", "one")
+    replace(current, "one", "uno")
+  }
+
+  @Test
+  fun `following fragments are shifted`() {
+    val current = revision.replace("third", "last")
+    replace(current, "fun first", "private fun first")
+  }
+
+  @Test
+  fun `revert to the revision text`() {
+    val current = revision.replace("second", "changed")
+    val offset = current.indexOf("changed")
+    val updated = updateFragments(compare(revision, current), revision, revision, offset, "changed".length, "second".length)
+    assertThat(updated).isEmpty()
+  }
+}
@@ -4,6 +4,7 @@ import com.intellij.testFramework.utils.io.deleteRecursively
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.Test
 import java.nio.file.Files
+import kotlin.concurrent.thread
 
 class QodanaToolResultDatabaseTest {
   @Test
@@ -21,4 +22,52 @@ class QodanaToolResultDatabaseTest {
       path.deleteRecursively()
     }
   }
+
+  @Test
+  fun `batch insert writes results and related problems`() {
+    val path = Files.createTempDirectory(javaClass.simpleName)
+    try {
+      QodanaToolResultDatabase.create(path).use {
+        it.insertBatch(listOf(
+          ToolResultInsert("sanity", "First", "hash1", "{\"first\": 1}", relatedProblemHash = null),
+          ToolResultInsert("sanity", "Second", "hash2", "{\"second\": 2}", relatedProblemHash = "root"),
+          ToolResultInsert("other", "Third", "hash3", "{\"third\": 3}", relatedProblemHash = null),
+        ))
+      }
+      QodanaToolResultDatabase.open(path)
+        .use {
+          val selection = it.select("sanity").executeQuery().toList()
+          assertThat(selection).containsExactly(ToolResultRecord("First", "hash1", "{\"first\": 1}"),
+                                                ToolResultRecord("Second", "hash2", "{\"second\": 2}"))
+          val related = it.selectRelatedProblems("root").use { query -> query.executeQuery().toList() }
+          assertThat(related).containsExactly("{\"second\": 2}")
+        }
+    }
+    finally {
+      path.deleteRecursively()
+    }
+  }
+
+  @Test
+  fun `duplicates written during batch inserts are kept`() {
+    val path = Files.createTempDirectory(javaClass.simpleName)
+    try {
+      QodanaToolResultDatabase.create(path).use { db ->
+        val duplicates = thread {
+          repeat(100) { db.insertDuplicate("file", it, 0, 1, "hash$it", "{}") }
+        }
+        repeat(100) {
+          db.insertBatch(listOf(ToolResultInsert("sanity", "Inspection", "hash$it", "{}", relatedProblemHash = null)))
+        }
+        duplicates.join()
+
+        assertThat(db.select("sanity").use { query -> query.executeQuery().count() }).isEqualTo(100)
+        val duplicate = db.selectDuplicate("file", 99, 0).use { query -> query.executeQuery().toList() }
+        assertThat(duplicate).containsExactly("{}")
+      }
+    }
+    finally {
+      path.deleteRecursively()
+    }
+  }
 }
@@ -0,0 +1,95 @@
+package org.jetbrains.qodana.staticAnalysis.inspections.runner
+
+import com.intellij.testFramework.utils.io.deleteRecursively
+import com.jetbrains.qodana.sarif.SarifUtil
+import com.jetbrains.qodana.sarif.baseline.BaselineCalculation
+import com.jetbrains.qodana.sarif.model.Message
+import com.jetbrains.qodana.sarif.model.Result
+import com.jetbrains.qodana.sarif.model.Result.BaselineState
+import com.jetbrains.qodana.sarif.model.Run
+import com.jetbrains.qodana.sarif.model.Tool
+import com.jetbrains.qodana.sarif.model.ToolComponent
+import com.jetbrains.qodana.sarif.model.VersionedMap
+import org.assertj.core.api.Assertions.assertThat
+import org.jetbrains.qodana.staticAnalysis.sarif.createSarifReport
+import org.jetbrains.qodana.staticAnalysis.sarif.fingerprints.withPartialFingerprints
+import org.junit.Test
+import java.nio.file.Files
+import java.nio.file.Path
+
+class StreamingBaselineTest {
+  private fun result(ruleId: String, message: String, state: BaselineState? = null): Result =
+    Result()
+      .withRuleId(ruleId)
+      .withMessage(Message().withText(message))
+      .withBaselineState(state)
+      .withPartialFingerprints()
+
+  private fun result(ruleId: String, v1: String, v2: String?): Result =
+    Result()
+      .withRuleId(ruleId)
+      .withMessage(Message().withText(v1))
+      .apply {
+        partialFingerprints = VersionedMap<String>().apply {
+          put(BaselineCalculation.EQUAL_INDICATOR, 1, v1)
+          if (v2 != null) put(BaselineCalculation.EQUAL_INDICATOR, 2, v2)
+        }
+      }
+
+  private fun <T> withBaseline(results: List<Result>, action: (Path) -> T): T {
+    val path = Files.createTempDirectory(javaClass.simpleName)
+    try {
+      val run = Run(Tool(ToolComponent("QDTEST"))).withResults(results)
+      val file = path.resolve("baseline.sarif.json")
+      Files.writeString(file, SarifUtil.createGson().toJson(createSarifReport(listOf(run))))
+      return action(file)
+    }
+    finally {
+      path.deleteRecursively()
+    }
+  }
+
+  @Test
+  fun `results are marked new or unchanged`() {
+    val current = listOf(result("First", "same"), result("Second", "changed"))
+    val absent = withBaseline(listOf(result("First", "same"), result("Second", "original"))) {
+      compareWithStreamingBaseline(current, it, includeAbsent = false)
+    }
+
+    assertThat(current.map { it.baselineState }).containsExactly(BaselineState.UNCHANGED, BaselineState.NEW)
+    assertThat(absent).isEmpty()
+  }
+
+  @Test
+  fun `each baseline result matches one current result`() {
+    val current = listOf(result("First", "same"), result("First", "same"))
+    withBaseline(listOf(result("First", "same"))) {
+      compareWithStreamingBaseline(current, it, includeAbsent = true)
+    }
+
+    assertThat(current.map { it.baselineState }).containsExactly(BaselineState.UNCHANGED, BaselineState.NEW)
+  }
+
+  @Test
+  fun `unmatched baseline results are absent`() {
+    val current = listOf(result("First", "same"))
+    val baseline = listOf(result("First", "same"), result("Second", "fixed"), result("Third", "fixed before", BaselineState.ABSENT))
+    val absent = withBaseline(baseline) {
+      compareWithStreamingBaseline(current, it, includeAbsent = true)
+    }
+
+    assertThat(absent.map { it.ruleId }).containsExactly("Second")
+    assertThat(absent.single().baselineState).isEqualTo(BaselineState.ABSENT)
+  }
+
+  @Test
+  fun `different precise fingerprints are not matched by the fallback one`() {
+    val current = listOf(result("First", "v1", "changed"), result("Second", "v1", null), result("Third", "v1", "v2"))
+    val baseline = listOf(result("First", "v1", "original"), result("Second", "v1", "v2"), result("Third", "v1", null))
+    withBaseline(baseline) {
+      compareWithStreamingBaseline(current, it, includeAbsent = false)
+    }
+
+    assertThat(current.map { it.baselineState }).containsExactly(BaselineState.NEW, BaselineState.UNCHANGED, BaselineState.UNCHANGED)
+  }
+}
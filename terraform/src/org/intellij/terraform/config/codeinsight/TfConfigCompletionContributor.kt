@@ -282,22 +282,24 @@ class TfConfigCompletionContributor : HCLCompletionContributor() {
         val message = HCLBundle.message("popup.advertisement.press.to.show.partner.community.providers", KeymapUtil.getFirstKeyboardShortcutText(IdeActions.ACTION_CODE_COMPLETION))
         result.addLookupAdvertisement(message)
       }
+      // bundled providers are parsed only if their tier and type names from the providers index pass the filters
+      val providerFilter = { tier: ProviderTier, fullName: String ->
+        parameters.invocationCount > 1 || tier in tiers || localProviders.values.any { it.equals(fullName, ignoreCase = true) }
+      }
+      val typeFilter = { name: String -> result.prefixMatcher.prefixMatches(name) }
       return when (type) {
         HCL_RESOURCE_IDENTIFIER -> {
-          typeModel.allResources().toPlow()
-            .filter { parameters.invocationCount > 1 || it.provider.tier in tiers || localProviders.containsValue(it.provider.fullName) }
+          typeModel.allResources(providerFilter, typeFilter).toPlow()
             .map { buildResourceOrDataLookupElement(it, position) }
             .processWith(consumer)
         }
         HCL_DATASOURCE_IDENTIFIER -> {
-          typeModel.allDatasources().toPlow()
-            .filter { parameters.invocationCount > 1 || it.provider.tier in tiers || localProviders.containsValue(it.provider.fullName) }
+          typeModel.allDatasources(providerFilter, typeFilter).toPlow()
             .map { buildResourceOrDataLookupElement(it, position) }
             .processWith(consumer)
         }
         HCL_PROVIDER_IDENTIFIER -> {
-          typeModel.allProviders().toPlow()
-            .filter { parameters.invocationCount > 1 || it.tier in tiers || localProviders.containsValue(it.fullName)}
+          typeModel.allProviders(providerFilter, typeFilter).toPlow()
             .map { buildProviderLookupElement(it, position) }
             .processWith(consumer)
         }
@@ -252,9 +252,9 @@ internal object TfModelHelper {
     val identifier = block.getNameElementUnquoted(1) ?: return emptyList()
     val model = TypeModelProvider.getModel(block)
     val types = when (typeString) {
-      HCL_RESOURCE_IDENTIFIER -> model.allResources().filter { it.type == identifier }.toList()
-      HCL_DATASOURCE_IDENTIFIER -> model.allDatasources().filter { it.type == identifier }.toList()
-      HCL_PROVIDER_IDENTIFIER -> model.allProviders().filter { it.type == identifier }.toList()
+      HCL_RESOURCE_IDENTIFIER -> model.findResources(identifier)
+      HCL_DATASOURCE_IDENTIFIER -> model.findDatasources(identifier)
+      HCL_PROVIDER_IDENTIFIER -> model.findProviders(identifier)
       else -> emptyList()
     }
     return types
@@ -0,0 +1,44 @@
+// Copyright 2000-2025 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package org.intellij.terraform.config.model
+
+class ProviderSchema(
+  val provider: ProviderType,
+  val resources: List<ResourceType>,
+  val dataSources: List<DataSourceType>,
+  val functions: List<TfFunction>,
+) {
+  val defaultPrefix: String? by lazy {
+    resources.firstNotNullOfOrNull { TypeModel.getResourcePrefix(it.type) }
+    ?: dataSources.firstNotNullOfOrNull { TypeModel.getResourcePrefix(it.type) }
+  }
+}
+
+/**
+ * A provider known from the bundled model index, its schema file is parsed only when the provider is accessed for the first time.
+ *
+ * @param fullName lowercase `namespace/name` of the provider, as in [TypeModel.providersByFullName]
+ * @param hasFunctions whether the provider defines functions, so that [TypeModel.providerDefinedFunctions] doesn't load the other providers
+ * @param tier tier of the provider, or null if the index doesn't record it
+ * @param resourceTypes names of the resources of the provider, or null if the index doesn't record them
+ * @param dataSourceTypes names of the data sources of the provider, or null if the index doesn't record them
+ */
+class LazyProviderSchema(
+  val fullName: String,
+  val hasFunctions: Boolean,
+  val tier: ProviderTier? = null,
+  val resourceTypes: Collection<String>? = null,
+  val dataSourceTypes: Collection<String>? = null,
+  loader: () -> ProviderSchema?,
+) {
+  private val lazySchema: Lazy<ProviderSchema?> = lazy(loader)
+
+  val schema: ProviderSchema?
+    get() = lazySchema.value
+
+  val isLoaded: Boolean
+    get() = lazySchema.isInitialized()
+
+  override fun toString(): String {
+    return "LazyProviderSchema (fullName='$fullName' loaded=$isLoaded)"
+  }
+}
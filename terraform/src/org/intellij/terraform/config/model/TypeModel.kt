@@ -61,18 +61,27 @@ class TypeModel(
   provisioners: List<ProvisionerType> = emptyList(),
   backends: List<BackendType> = emptyList(),
   functions: List<TfFunction> = emptyList(),
-  providerDefinedFunctions: List<TfFunction> = emptyList()
+  providerDefinedFunctions: List<TfFunction> = emptyList(),
+  lazyProviderSchemas: List<LazyProviderSchema> = emptyList()
 ) {
 
   val provisioners: List<ProvisionerType> = provisioners.sortedBy { it.type }
   val backends: List<BackendType> = backends.sortedBy { it.type }
   val functions: List<TfFunction> = functions.sortedBy { it.name }
-  val providerDefinedFunctions: List<TfFunction> = providerDefinedFunctions.sortedBy { it.name }
+  private val loadedProviderDefinedFunctions: List<TfFunction> = providerDefinedFunctions
+
+  private val loadedResourcesByProvider: Map<String, List<ResourceType>>
+  private val loadedDatasourcesByProvider: Map<String, List<DataSourceType>>
 
   val providersByFullName: Map<String, ProviderType>
   val resourcesByProvider: Map<String, List<ResourceType>>
   val datasourcesByProvider: Map<String, List<DataSourceType>>
 
+  /**
+   * Providers which are not parsed yet, by lowercase full name. Providers from [providersByFullName] take precedence over them.
+   */
+  internal val lazyProviders: Map<String, LazyProviderSchema>
+
   private val providerDefaultPrefixes: Map<String, String>
 
   init {
@@ -86,15 +95,27 @@ class TypeModel(
 
     val loadedProviders = providersByFullName.values.toSet()
 
-    resourcesByProvider = resources.filter { it.provider in loadedProviders }.groupBy { it.provider.fullName.lowercase() }
-    datasourcesByProvider = dataSources.filter { it.provider in loadedProviders }.groupBy { it.provider.fullName.lowercase() }
+    loadedResourcesByProvider = resources.filter { it.provider in loadedProviders }.groupBy { it.provider.fullName.lowercase() }
+    loadedDatasourcesByProvider = dataSources.filter { it.provider in loadedProviders }.groupBy { it.provider.fullName.lowercase() }
+
+    lazyProviders = lazyProviderSchemas
+      .filter { !providersByFullName.containsKey(it.fullName) }
+      .associateBy { it.fullName }
+
+    resourcesByProvider = ProviderTypesMap(loadedResourcesByProvider, lazyProviders) { it.resources }
+    datasourcesByProvider = ProviderTypesMap(loadedDatasourcesByProvider, lazyProviders) { it.dataSources }
 
     providerDefaultPrefixes = providersByFullName.mapNotNull { (name, provider) ->
-      val prefix = getDefaultPrefix(resourcesByProvider[name]) ?: getDefaultPrefix(datasourcesByProvider[name])
+      val prefix = getDefaultPrefix(loadedResourcesByProvider[name]) ?: getDefaultPrefix(loadedDatasourcesByProvider[name])
       prefix?.let { name to it }
     }.toMap()
   }
 
+  val providerDefinedFunctions: List<TfFunction> by lazy {
+    val lazyFunctions = lazyProviders.values.filter { it.hasFunctions }.flatMap { it.schema?.functions.orEmpty() }
+    (loadedProviderDefinedFunctions + lazyFunctions).sortedBy { it.name }
+  }
+
   @Suppress("MemberVisibilityCanBePrivate")
   companion object {
 
@@ -329,7 +350,7 @@ class TypeModel(
     val localNames = psiElement?.let { collectProviderLocalNames(it) } ?: emptyMap()
     val providerShortName = getResourcePrefix(identifier)
     val providerFullName = localNames[providerShortName]
-           ?: Constants.OFFICIAL_PROVIDERS_NAMESPACE.map { "$it/$providerShortName" }.firstOrNull { providersByFullName.containsKey(it) }
+           ?: Constants.OFFICIAL_PROVIDERS_NAMESPACE.map { "$it/$providerShortName" }.firstOrNull { hasProvider(it) }
            ?: "hashicorp/$providerShortName" //The last resort
     return providerFullName.lowercase()
   }
@@ -343,14 +364,22 @@ class TypeModel(
   private fun <T : ResourceOrDataSourceType> lookupType(name: String, psiElement: PsiElement?, typesMap: Map<String, List<T>>): T? {
     val providerName = getProviderNameForIdentifier(name, psiElement)
     val resourceId = getResourceName(name)
-    val defaultPrefix = providerDefaultPrefixes[providerName]?.takeIf { it != resourceId }
+    val defaultPrefix = getDefaultPrefix(providerName)?.takeIf { it != resourceId }
     val typesCollection = typesMap[providerName] ?: return null
     return typesCollection.firstOrNull { it.type == (defaultPrefix?.let { defaultPrefix + "_" + resourceId } ?: resourceId) }
   }
 
   fun getProviderType(name: String, psiElement: PsiElement? = null): ProviderType? {
     val providerName = getProviderNameForIdentifier(name, psiElement)
-    return providersByFullName[providerName]
+    return providersByFullName[providerName] ?: lazyProviders[providerName]?.schema?.provider
+  }
+
+  private fun hasProvider(fullName: String): Boolean {
+    return providersByFullName.containsKey(fullName) || lazyProviders.containsKey(fullName)
+  }
+
+  private fun getDefaultPrefix(providerName: String): String? {
+    return providerDefaultPrefixes[providerName] ?: lazyProviders[providerName]?.schema?.defaultPrefix
   }
 
   fun getProvisionerType(name: String): ProvisionerType? {
@@ -366,7 +395,10 @@ class TypeModel(
   }
 
   fun getProviderFunction(provider: String, functionName: String): TfFunction? {
-    return providerDefinedFunctions.find { it.name == functionName && it.providerType == provider }
+    return loadedProviderDefinedFunctions.find { it.name == functionName && it.providerType == provider }
+           ?: lazyProviders.values.asSequence()
+             .filter { it.hasFunctions && it.fullName.substringAfter('/') == provider }
+             .firstNotNullOfOrNull { lazyProvider -> lazyProvider.schema?.functions?.find { it.name == functionName } }
   }
 
   fun getByFQN(fqn: String, psiElement: PsiElement? = null): PropertyOrBlockType? {
@@ -401,7 +433,93 @@ class TypeModel(
 
   fun allResources(): Sequence<ResourceType> = resourcesByProvider.values.asSequence().flatten()
   fun allDatasources(): Sequence<DataSourceType> = datasourcesByProvider.values.asSequence().flatten()
-  fun allProviders(): Sequence<ProviderType> = providersByFullName.values.asSequence()
+  fun allProviders(): Sequence<ProviderType> =
+    providersByFullName.values.asSequence() + lazyProviders.values.asSequence().mapNotNull { it.schema?.provider }
+
+  /**
+   * Resources of the providers accepted by [providerFilter] (tier and full name of the provider) with types accepted by [typeFilter].
+   * Providers which are not parsed yet are checked against their index entry first, so only those which may contribute are parsed.
+   */
+  fun allResources(
+    providerFilter: (ProviderTier, String) -> Boolean,
+    typeFilter: (String) -> Boolean = { true },
+  ): Sequence<ResourceType> =
+    filterTypes(loadedResourcesByProvider, providerFilter, typeFilter, { it.resourceTypes }, { it.resources })
+
+  fun allDatasources(
+    providerFilter: (ProviderTier, String) -> Boolean,
+    typeFilter: (String) -> Boolean = { true },
+  ): Sequence<DataSourceType> =
+    filterTypes(loadedDatasourcesByProvider, providerFilter, typeFilter, { it.dataSourceTypes }, { it.dataSources })
+
+  fun allProviders(
+    providerFilter: (ProviderTier, String) -> Boolean,
+    typeFilter: (String) -> Boolean = { true },
+  ): Sequence<ProviderType> {
+    val loaded = providersByFullName.values.asSequence()
+      .filter { providerFilter(it.tier, it.fullName) && typeFilter(it.type) }
+    val lazy = lazyProviders.values.asSequence()
+      .filter { typeFilter(it.fullName.substringAfter('/')) && it.tier?.let { tier -> providerFilter(tier, it.fullName) } != false }
+      .mapNotNull { it.schema?.provider }
+      .filter { providerFilter(it.tier, it.fullName) && typeFilter(it.type) }
+    return loaded + lazy
+  }
+
+  /**
+   * Resources or data sources named [name] of all providers, whatever prefix they use. Providers which are not parsed yet are parsed
+   * only if their index entry lists [name] or has no type names.
+   */
+  fun findResources(name: String): List<ResourceType> = allResources({ _, _ -> true }) { it == name }.toList()
+
+  fun findDatasources(name: String): List<DataSourceType> = allDatasources({ _, _ -> true }) { it == name }.toList()
+
+  fun findProviders(name: String): List<ProviderType> = allProviders({ _, _ -> true }) { it == name }.toList()
+
+  private fun <T : ResourceOrDataSourceType> filterTypes(
+    loaded: Map<String, List<T>>,
+    providerFilter: (ProviderTier, String) -> Boolean,
+    typeFilter: (String) -> Boolean,
+    indexedTypes: (LazyProviderSchema) -> Collection<String>?,
+    selector: (ProviderSchema) -> List<T>,
+  ): Sequence<T> {
+    val loadedTypes = loaded.values.asSequence().flatten()
+      .filter { providerFilter(it.provider.tier, it.provider.fullName) && typeFilter(it.type) }
+    val lazyTypes = lazyProviders.values.asSequence()
+      .filter { lazyProvider -> lazyProvider.tier?.let { providerFilter(it, lazyProvider.fullName) } != false }
+      .filter { lazyProvider -> indexedTypes(lazyProvider)?.any(typeFilter) != false }
+      .flatMap { lazyProvider -> lazyProvider.schema?.let(selector).orEmpty() }
+      .filter { providerFilter(it.provider.tier, it.provider.fullName) && typeFilter(it.type) }
+    return loadedTypes + lazyTypes
+  }
+
+  internal fun loadedResources(): Sequence<ResourceType> = loadedResourcesByProvider.values.asSequence().flatten()
+  internal fun loadedDatasources(): Sequence<DataSourceType> = loadedDatasourcesByProvider.values.asSequence().flatten()
+  internal fun loadedProviders(): Sequence<ProviderType> = providersByFullName.values.asSequence()
+  internal fun loadedProviderDefinedFunctions(): List<TfFunction> = loadedProviderDefinedFunctions
+}
+
+/**
+ * Resources or data sources grouped by provider full name, the types of a lazy provider are parsed when they are requested
+ */
+private class ProviderTypesMap<T : ResourceOrDataSourceType>(
+  private val loaded: Map<String, List<T>>,
+  private val lazyProviders: Map<String, LazyProviderSchema>,
+  private val selector: (ProviderSchema) -> List<T>,
+) : AbstractMap<String, List<T>>() {
+
+  override fun get(key: String): List<T>? {
+    return loaded[key] ?: lazyProviders[key]?.schema?.let(selector)?.takeIf { it.isNotEmpty() }
+  }
+
+  override fun containsKey(key: String): Boolean = get(key) != null
+
+  override val entries: Set<Map.Entry<String, List<T>>> by lazy {
+    val result = LinkedHashMap(loaded)
+    for ((name, lazyProvider) in lazyProviders) {
+      lazyProvider.schema?.let(selector)?.takeIf { it.isNotEmpty() }?.let { result[name] = it }
+    }
+    result.entries
+  }
 }
 
 fun Collection<PropertyOrBlockType>.toMap(): Map<String, PropertyOrBlockType> {
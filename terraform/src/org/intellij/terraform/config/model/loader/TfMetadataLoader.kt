@@ -10,6 +10,7 @@ import com.intellij.openapi.progress.ProcessCanceledException
 import com.intellij.openapi.util.SystemInfo
 import com.intellij.openapi.util.io.FileUtil
 import com.intellij.util.SystemProperties
+import org.intellij.terraform.config.Constants.OFFICIAL_PROVIDERS_NAMESPACE
 import org.intellij.terraform.config.model.*
 import java.io.File
 import java.io.FileInputStream
@@ -50,13 +51,34 @@ class TfMetadataLoader {
 
   fun loadFrom(another: TypeModel) {
     val tmp = buildModel()
-    model.resources.addAll(another.allResources().filter { tmp.getResourceType(it.type) == null })
-    model.dataSources.addAll(another.allDatasources().filter { tmp.getDataSourceType(it.type) == null })
-    model.providers.addAll(another.allProviders().filter { tmp.getProviderType(it.type) == null })
+    model.resources.addAll(another.loadedResources().filter { tmp.getResourceType(it.type) == null })
+    model.dataSources.addAll(another.loadedDatasources().filter { tmp.getDataSourceType(it.type) == null })
+    model.providers.addAll(another.loadedProviders().filter { tmp.getProviderType(it.type) == null })
     model.provisioners.addAll(another.provisioners.filter { tmp.getProvisionerType(it.type) == null })
     model.backends.addAll(another.backends.filter { tmp.getBackendType(it.type) == null })
     model.functions.addAll(another.functions.filter { tmp.getFunction(it.name) == null })
-    model.providerDefinedFunctions.addAll(another.providerDefinedFunctions.filter { tmp.getFunction(it.name) == null })
+    model.providerDefinedFunctions.addAll(another.loadedProviderDefinedFunctions().filter { tmp.getFunction(it.name) == null })
+    // providers which are not parsed yet are passed as is, so that building a local model doesn't parse all of them
+    model.lazyProviders.addAll(another.lazyProviders.values.filter { tmp.getProviderType(it.fullName.substringAfter('/')) == null })
+  }
+
+  /**
+   * @return the providers loaded so far, each with its own resources, data sources and functions
+   */
+  internal fun getLoadedProviderSchemas(): List<ProviderSchema> {
+    return model.providers.map { model.createProviderSchema(it) }
+  }
+
+  /**
+   * Adds already parsed providers, the same instances may be shared by several models
+   */
+  internal fun loadProviderSchemas(schemas: Collection<ProviderSchema>) {
+    for (schema in schemas) {
+      model.providers.add(schema.provider)
+      model.resources.addAll(schema.resources)
+      model.dataSources.addAll(schema.dataSources)
+      model.providerDefinedFunctions.addAll(schema.functions)
+    }
   }
 
   fun buildModel(): TypeModel {
@@ -67,7 +89,8 @@ class TfMetadataLoader {
       model.provisioners,
       model.backends,
       model.functions,
-      model.providerDefinedFunctions
+      model.providerDefinedFunctions,
+      model.lazyProviders
     )
   }
 
@@ -103,9 +126,16 @@ class TfMetadataLoader {
 
   private fun loadBundled() {
     val resources: Collection<String> = getAllResourcesToLoad(ModelResourcesPrefix)
+    val index = loadProvidersIndex(ModelResourcesPrefix)
 
     for (it in resources) {
       val file = it.ensureHavePrefix("/")
+      val indexed = index[file]
+      if (indexed != null) {
+        registerLazyProviders(file, indexed)
+        continue
+      }
+
       val stream = getResource(file)
       if (stream == null) {
         LOG.warn("Resource '$file' was not found")
@@ -116,6 +146,27 @@ class TfMetadataLoader {
     }
   }
 
+  /**
+   * Providers of a bundled schema file listed in the providers index are parsed on the first access to any of them,
+   * see [LazyProviderSchema]
+   */
+  private fun registerLazyProviders(file: String, entries: List<ProviderIndexEntry>) {
+    val external = model.external
+    val fileModel = lazy { loadProvidersFile(file, external) }
+    for (entry in entries) {
+      val providerKey = "provider.${entry.key}"
+      if (model.loaded.containsKey(providerKey)) {
+        LOG.warn("Provider '${entry.key}' is already loaded from '${model.loaded[providerKey]}'")
+        continue
+      }
+      model.loaded[providerKey] = file
+      val lazyProvider = LazyProviderSchema(entry.fullName, entry.hasFunctions, entry.tier, entry.resourceTypes, entry.dataSourceTypes) {
+        fileModel.value.getProviderSchema(entry.fullName)
+      }
+      model.lazyProviders.add(lazyProvider)
+    }
+  }
+
   private fun loadExternal() {
     val schemas = getSharedSchemas()
     for (file in schemas) {
@@ -198,6 +249,79 @@ class TfMetadataLoader {
     internal val LOG: Logger by lazy { Logger.getInstance(TfMetadataLoader::class.java) }
     const val ModelResourcesPrefix: String = "/terraform/model"
 
+    private fun loadProvidersFile(file: String, external: Map<String, LoadingModel.Additional>): LoadingModel {
+      LOG.debug("Loading providers from '$file'")
+      val loader = TfMetadataLoader()
+      loader.model.external.putAll(external)
+      val stream = getResource(file)
+      if (stream == null) {
+        LOG.warn("Resource '$file' was not found")
+      }
+      else {
+        loader.loadOne(file, stream)
+      }
+      return loader.model
+    }
+
+    private fun LoadingModel.getProviderSchema(fullName: String): ProviderSchema? {
+      val provider = providers.find { it.fullName.lowercase() == fullName } ?: providers.singleOrNull() ?: return null
+      return createProviderSchema(provider)
+    }
+
+    private fun LoadingModel.createProviderSchema(provider: ProviderType): ProviderSchema {
+      return ProviderSchema(provider,
+                            resources.filter { it.provider === provider },
+                            dataSources.filter { it.provider === provider },
+                            providerDefinedFunctions.filter { it.providerType == provider.type })
+    }
+
+    internal class ProviderIndexEntry(
+      val key: String,
+      val fullName: String,
+      val hasFunctions: Boolean,
+      val tier: ProviderTier?,
+      val resourceTypes: List<String>?,
+      val dataSourceTypes: List<String>?,
+    )
+
+    /**
+     * Reads `providers.index` generated with the bundled model, each line is
+     * `<providers.list entry>\t<namespace/name from schema key>\t<full name of the provider type>\t[functions]\t<tier>`
+     * `\t<resources>\t<data sources>` with comma-separated type names. Indexes of older models have only the first three or four
+     * columns, the tier and the type names of their providers are unknown until the providers are parsed.
+     *
+     * @return entries by resource path of the provider schema file, or an empty map if the model has no index
+     */
+    internal fun loadProvidersIndex(prefix: String): Map<String, List<ProviderIndexEntry>> {
+      val stream = getResource("$prefix/providers.index") ?: return emptyMap()
+      try {
+        val result = HashMap<String, MutableList<ProviderIndexEntry>>()
+        stream.bufferedReader(Charsets.UTF_8).useLines { lines ->
+          for (line in lines) {
+            // empty type name columns at the end of the line are significant
+            val parts = line.trimEnd('\r').split('\t')
+            if (parts.size < 3) continue
+            val fullName = parts[2].lowercase()
+            val tier = parts.getOrNull(4)?.let { ProviderTier.findByLabel(it) }?.let {
+              // the same as in ProviderType
+              val official = OFFICIAL_PROVIDERS_NAMESPACE.contains(fullName.substringBefore('/'))
+              if (it == ProviderTier.TIER_NONE && official) ProviderTier.TIER_OFFICIAL else it
+            }
+            val entry = ProviderIndexEntry(parts[1], fullName, parts.getOrNull(3) == "functions", tier,
+                                           parts.getOrNull(5)?.let { parseTypeNames(it) }, parts.getOrNull(6)?.let { parseTypeNames(it) })
+            result.getOrPut("$prefix/providers/${parts[0]}.json") { ArrayList() }.add(entry)
+          }
+        }
+        return result
+      }
+      catch (e: Exception) {
+        LOG.warn("Cannot read 'providers.index': ${e.message}")
+        return emptyMap()
+      }
+    }
+
+    private fun parseTypeNames(column: String): List<String> = column.split(',').filter { it.isNotEmpty() }
+
     fun getResource(path: String): InputStream? {
       return TfMetadataLoader::class.java.getResourceAsStream(path)
     }
@@ -8,8 +8,12 @@ import org.intellij.terraform.config.Constants.HCL_PROVIDER_IDENTIFIER
 import org.intellij.terraform.config.Constants.LATEST_VERSION
 import org.intellij.terraform.config.Constants.PROVIDER_VERSION
 import org.intellij.terraform.config.model.ProviderType
+import org.intellij.terraform.hcl.psi.HCLArray
 import org.intellij.terraform.hcl.psi.HCLBlock
 import org.intellij.terraform.hcl.psi.HCLObject
+import org.intellij.terraform.hcl.psi.HCLStringLiteral
+
+private const val PROVIDER_HASHES = "hashes"
 
 internal fun collectProviders(lockFile: PsiFile): Map<String, ProviderInfo> = SyntaxTraverser.psiTraverser(lockFile)
   .filter(HCLBlock::class.java)
@@ -25,17 +29,32 @@ internal class ProviderInfo(block: HCLBlock) {
   val fullName: String
   val version: String
 
+  /**
+   * Provider address as written in the lock file, e.g. `registry.terraform.io/hashicorp/aws`
+   */
+  val address: String = block.name
+
+  /**
+   * Sorted checksums of the provider packages, empty if the lock file has none
+   */
+  val hashes: List<String>
+
   init {
     val coordinates = ProviderType.parseCoordinates(block.name)
     this.name = coordinates.name
     this.namespace = coordinates.namespace
     fullName = "$namespace/$name"
-    version = if (block.`object` != null && block.`object` is HCLObject) {
-      val providerVersion = (block.`object` as HCLObject).propertyList.firstOrNull { it.name == PROVIDER_VERSION }?.value?.text
+    val obj = block.`object` as? HCLObject
+    version = if (obj != null) {
+      val providerVersion = obj.propertyList.firstOrNull { it.name == PROVIDER_VERSION }?.value?.text
       StringUtil.unquoteString(providerVersion ?: LATEST_VERSION)
     }
     else {
       LATEST_VERSION
     }
+    hashes = (obj?.propertyList?.firstOrNull { it.name == PROVIDER_HASHES }?.value as? HCLArray)?.elements
+               ?.mapNotNull { (it as? HCLStringLiteral)?.value }
+               ?.sorted()
+             ?: emptyList()
   }
 }
@@ -1,6 +1,7 @@
 // Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
 package org.intellij.terraform.config.model.local
 
+import com.fasterxml.jackson.databind.JsonNode
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.databind.node.ObjectNode
 import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer
@@ -40,6 +41,7 @@ import kotlinx.coroutines.*
 import org.intellij.terraform.LatestInvocationRunner
 import org.intellij.terraform.config.Constants.PROVIDER_VERSION
 import org.intellij.terraform.config.TerraformFileType
+import org.intellij.terraform.config.model.ProviderSchema
 import org.intellij.terraform.config.model.ProviderTier
 import org.intellij.terraform.config.model.TypeModel
 import org.intellij.terraform.config.model.TypeModelProvider
@@ -72,6 +74,11 @@ class TfLocalSchemaService(val project: Project, val scope: CoroutineScope) {
 
   private val modelComputationCache = VirtualFileMap<Deferred<TypeModel>>(project)
 
+  private val providerSchemaCache = TfProviderSchemaCache()
+
+  // JSON files under localModelPath the schemas in providerSchemaCache were parsed from, to write the JSON of lock files served by it
+  private val providerSchemaSources = ConcurrentHashMap<ProviderSchemaKey, String>()
+
   @OptIn(ExperimentalCoroutinesApi::class)
   fun getModel(virtualFile: VirtualFile): TypeModel? {
     val lock = findLockFile(virtualFile) ?: return null
@@ -187,7 +194,7 @@ class TfLocalSchemaService(val project: Project, val scope: CoroutineScope) {
       val parallelism = RegistryManager.getInstance().intValue("terraform.registry.metadata.parallelism", 4)
       batch.completeByMapping(parallelism) { (lock, explicitlyAllowRunningProcess) ->
         logger<TfLocalSchemaService>().info("building local model: $lock")
-        buildModelFromJson(retrieveJsonForTfLock(lock, explicitlyAllowRunningProcess))
+        buildModelForLock(lock, explicitlyAllowRunningProcess)
       }
     }
   }
@@ -217,7 +224,9 @@ class TfLocalSchemaService(val project: Project, val scope: CoroutineScope) {
     }
   }
 
-  private suspend fun retrieveJsonForTfLock(lock: VirtualFile, explicitlyAllowRunningProcess: Boolean): String {
+  private class LocalModelJson(val path: String, val json: String)
+
+  private suspend fun retrieveJsonForTfLock(lock: VirtualFile, explicitlyAllowRunningProcess: Boolean): LocalModelJson {
     val lockData = readAction {
       WorkspaceModel.getInstance(project).currentSnapshot.entities<TfLocalMetaEntity>().firstOrNull {
         it.lockFile.virtualFile == lock
@@ -230,7 +239,7 @@ class TfLocalSchemaService(val project: Project, val scope: CoroutineScope) {
 
     if (lockData != null && lockData.timeStamp >= lock.timeStamp) {
       try {
-        return readLockDataJsonFile(lockData.jsonPath)
+        return LocalModelJson(lockData.jsonPath, readLockDataJsonFile(lockData.jsonPath))
       }
       catch (e: Exception) {
         if (e is CancellationException) throw e
@@ -267,7 +276,7 @@ class TfLocalSchemaService(val project: Project, val scope: CoroutineScope) {
 
     updateWorkspaceModel(lock, lockData, jsonFilePath)
 
-    return readLockDataJsonFile(jsonFilePath)
+    return LocalModelJson(jsonFilePath, readLockDataJsonFile(jsonFilePath))
   }
 
   private suspend fun readLockDataJsonFile(path: String): String {
@@ -292,6 +301,10 @@ class TfLocalSchemaService(val project: Project, val scope: CoroutineScope) {
   private suspend fun generateNewJsonFile(lock: VirtualFile, explicitlyAllowRunningProcess: Boolean): @NlsSafe String {
     if (!explicitlyAllowRunningProcess && !buildLocalMetadataAutomatically) throw IllegalStateException("generateNewJsonFile is not enabled")
     val jsonFromProcess = buildJsonFromTerraformProcess(project, lock)
+    return writeLocalModelJson(lock, jsonFromProcess)
+  }
+
+  private suspend fun writeLocalModelJson(lock: VirtualFile, jsonFromProcess: String): @NlsSafe String {
     val lockFileProviders = readAction { getLockFilePsi(lock)?.let { collectProviders(it).values } }
     val lockFileDataString = lockFileProviders?.let { buildProviderMeta(lockFileProviders) }
     val modelJson = addLockFileDataString(lockFileDataString, jsonFromProcess)
@@ -344,11 +357,97 @@ class TfLocalSchemaService(val project: Project, val scope: CoroutineScope) {
     }
   }
 
-  private fun buildModelFromJson(json: String): TypeModel {
+  private suspend fun buildModelForLock(lock: VirtualFile, explicitlyAllowRunningProcess: Boolean): TypeModel {
+    val providers = readAction { getLockFilePsi(lock)?.let { collectProviders(it).values.toList() } }.orEmpty()
+    val keys = providers.mapNotNull { info -> ProviderSchemaKey.of(info)?.let { info to it } }
+
+    if (!explicitlyAllowRunningProcess && keys.isNotEmpty() && keys.size == providers.size) {
+      val cached = providerSchemaCache.getAll(keys.map { it.second })
+      if (cached != null) {
+        logger<TfLocalSchemaService>().info("building local model from shared provider schemas: $lock")
+        persistSharedSchemas(lock, keys.map { it.second })
+        return buildModelFromSchemas(cached)
+      }
+    }
+
+    val reserved = providerSchemaCache.reserve(keys.map { it.second })
+    var built: Map<ProviderSchemaKey, ProviderSchema> = emptyMap()
+    val parsed = try {
+      val localModelJson = retrieveJsonForTfLock(lock, explicitlyAllowRunningProcess)
+      parseProviderSchemas(localModelJson.json).also { parsed ->
+        built = keys.mapNotNull { (info, key) ->
+          parsed.find { it.provider.fullName.equals(info.fullName, ignoreCase = true) }?.let { key to it }
+        }.toMap()
+        built.keys.forEach { providerSchemaSources[it] = localModelJson.path }
+      }
+    }
+    catch (e: Throwable) {
+      providerSchemaCache.publish(reserved, emptyMap())
+      throw e
+    }
+    val shared = providerSchemaCache.publish(reserved, built)
+
+    val sharedByProvider = built.entries.associate { (key, schema) -> schema to shared.getValue(key) }
+    return buildModelFromSchemas(parsed.map { sharedByProvider[it] ?: it })
+  }
+
+  /**
+   * Writes the JSON of [lock] whose model was built from [providerSchemaCache] and records it in the workspace model, the same as for
+   * the JSON written from the `terraform providers schema -json` output. The provider schemas are copied from the JSON files they were
+   * parsed from.
+   */
+  private suspend fun persistSharedSchemas(lock: VirtualFile, keys: Collection<ProviderSchemaKey>) {
+    val lockData = readAction {
+      WorkspaceModel.getInstance(project).currentSnapshot.entities<TfLocalMetaEntity>().firstOrNull { it.lockFile.virtualFile == lock }
+    }
+    if (lockData != null && lockData.timeStamp >= lock.timeStamp) return
+
+    val jsonFromSources = try {
+      withContext(Dispatchers.IO) { collectSchemasJson(keys) }
+    }
+    catch (e: Exception) {
+      if (e is CancellationException) throw e
+      logger<TfLocalSchemaService>().warn("Cannot read shared provider schemas for: $lock", e)
+      null
+    }
+    if (jsonFromSources == null) {
+      logger<TfLocalSchemaService>().info("shared provider schemas are not persisted for: ${lock.name}")
+      return
+    }
+    updateWorkspaceModel(lock, lockData, writeLocalModelJson(lock, jsonFromSources))
+  }
+
+  /**
+   * @return `terraform providers schema -json` output with the schemas of [keys], or `null` if a source JSON file doesn't have one of them
+   */
+  private fun collectSchemasJson(keys: Collection<ProviderSchemaKey>): String? {
+    val mapper = ObjectMapper()
+    val result = mapper.createObjectNode()
+    val providerSchemas = mapper.createObjectNode()
+    for ((path, pathKeys) in keys.groupBy { providerSchemaSources[it] ?: return null }) {
+      val schemas = mapper.readTree(localModelPath.resolve(path).toFile()).path("schemas")
+      schemas.get("format_version")?.let { result.putIfAbsent("format_version", it) }
+      for (key in pathKeys) {
+        val (address, schema) = schemas.path("provider_schemas").fields().asSequence()
+          .firstOrNull { it.key.equals(key.address, ignoreCase = true) } ?: return null
+        providerSchemas.set<JsonNode>(address, schema)
+      }
+    }
+    result.set<JsonNode>("provider_schemas", providerSchemas)
+    return mapper.writeValueAsString(result)
+  }
+
+  private fun parseProviderSchemas(json: String): List<ProviderSchema> {
     val loader = TfMetadataLoader()
     json.byteInputStream().use { input ->
       loader.loadOne("local-schema.json", input)
     }
+    return loader.getLoadedProviderSchemas()
+  }
+
+  private fun buildModelFromSchemas(schemas: Collection<ProviderSchema>): TypeModel {
+    val loader = TfMetadataLoader()
+    loader.loadProviderSchemas(schemas)
     loader.loadFrom(TypeModelProvider.globalModel)
     return loader.buildModel()
   }
@@ -0,0 +1,80 @@
+// Copyright 2000-2025 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package org.intellij.terraform.config.model.local
+
+import com.intellij.openapi.util.text.StringUtil
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import org.intellij.terraform.config.Constants.LATEST_VERSION
+import org.intellij.terraform.config.model.ProviderSchema
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Identifies the schema of a provider by its address, version and package checksums from the lock file,
+ * so lock files pinning the same provider build are served by a single parsed schema.
+ */
+internal data class ProviderSchemaKey(val address: String, val version: String, val hashesDigest: String) {
+  companion object {
+    /**
+     * @return `null` if the lock file doesn't pin the provider version, so its schema may change without the key changing
+     */
+    fun of(info: ProviderInfo): ProviderSchemaKey? {
+      if (info.version == LATEST_VERSION || info.hashes.isEmpty()) return null
+      return ProviderSchemaKey(info.address.lowercase(), info.version, StringUtil.join(info.hashes, ","))
+    }
+  }
+}
+
+/**
+ * Parsed provider schemas shared between the local models of all lock files.
+ *
+ * A lock file whose providers are all known here gets its model without running `terraform providers schema -json`.
+ * Otherwise, the model builder [reserve]s the missing keys, so that other lock files wait for its result instead of running
+ * the same process, and [publish]es the providers it has parsed.
+ */
+internal class TfProviderSchemaCache {
+  private val schemas = ConcurrentHashMap<ProviderSchemaKey, Deferred<ProviderSchema?>>()
+
+  /**
+   * @return schemas for all [keys], waiting for the ones that are being built, or `null` if some of them are not available
+   */
+  suspend fun getAll(keys: Collection<ProviderSchemaKey>): List<ProviderSchema>? {
+    val deferreds = keys.map { schemas[it] ?: return null }
+    return deferreds.map { it.await() ?: return null }
+  }
+
+  /**
+   * @return the keys which were not known before, the caller must pass them to [publish] even if the build fails
+   */
+  fun reserve(keys: Collection<ProviderSchemaKey>): Map<ProviderSchemaKey, CompletableDeferred<ProviderSchema?>> {
+    val reserved = HashMap<ProviderSchemaKey, CompletableDeferred<ProviderSchema?>>()
+    for (key in keys) {
+      val deferred = CompletableDeferred<ProviderSchema?>()
+      if (schemas.putIfAbsent(key, deferred) == null) {
+        reserved[key] = deferred
+      }
+    }
+    return reserved
+  }
+
+  /**
+   * Completes the [reserved] keys with the [built] schemas and drops the ones that were not built, so they are built again later.
+   *
+   * @return the schema instances to use for [built] keys, the already published instances take precedence over the new ones
+   */
+  @OptIn(ExperimentalCoroutinesApi::class)
+  fun publish(reserved: Map<ProviderSchemaKey, CompletableDeferred<ProviderSchema?>>,
+              built: Map<ProviderSchemaKey, ProviderSchema>): Map<ProviderSchemaKey, ProviderSchema> {
+    for ((key, deferred) in reserved) {
+      val schema = built[key]
+      if (schema == null) {
+        schemas.remove(key, deferred)
+      }
+      deferred.complete(schema)
+    }
+
+    return built.mapValues { (key, schema) ->
+      schemas[key]?.takeIf { it.isCompleted }?.getCompleted() ?: schema
+    }
+  }
+}
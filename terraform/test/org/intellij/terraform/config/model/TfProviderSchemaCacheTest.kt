@@ -0,0 +1,60 @@
+// Copyright 2000-2025 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package org.intellij.terraform.config.model
+
+import com.intellij.testFramework.common.timeoutRunBlocking
+import junit.framework.TestCase
+import kotlinx.coroutines.async
+import kotlinx.coroutines.yield
+import org.intellij.terraform.config.model.local.ProviderSchemaKey
+import org.intellij.terraform.config.model.local.TfProviderSchemaCache
+
+class TfProviderSchemaCacheTest : TestCase() {
+
+  private val awsKey = ProviderSchemaKey("registry.terraform.io/hashicorp/aws", "5.1.0", "h1:aaa")
+  private val googleKey = ProviderSchemaKey("registry.terraform.io/hashicorp/google", "4.0.0", "h1:bbb")
+
+  private fun schema(name: String): ProviderSchema {
+    return ProviderSchema(ProviderType(name, emptyList(), "hashicorp"), emptyList(), emptyList(), emptyList())
+  }
+
+  fun testUnknownKeys() = timeoutRunBlocking {
+    val cache = TfProviderSchemaCache()
+    assertNull(cache.getAll(listOf(awsKey)))
+  }
+
+  fun testPublishedSchemaIsShared() = timeoutRunBlocking {
+    val cache = TfProviderSchemaCache()
+    val aws = schema("aws")
+    val reserved = cache.reserve(listOf(awsKey))
+    assertEquals(setOf(awsKey), reserved.keys)
+    assertSame(aws, cache.publish(reserved, mapOf(awsKey to aws))[awsKey])
+
+    assertSame(aws, cache.getAll(listOf(awsKey))?.single())
+
+    // another lock file with the same provider gets the already published instance
+    assertEmpty(cache.reserve(listOf(awsKey)).keys)
+    assertSame(aws, cache.publish(emptyMap(), mapOf(awsKey to schema("aws")))[awsKey])
+  }
+
+  fun testWaitsForReservedSchema() = timeoutRunBlocking {
+    val cache = TfProviderSchemaCache()
+    val aws = schema("aws")
+    val reserved = cache.reserve(listOf(awsKey))
+
+    val waiting = async { cache.getAll(listOf(awsKey)) }
+    yield()
+    assertFalse(waiting.isCompleted)
+
+    cache.publish(reserved, mapOf(awsKey to aws))
+    assertSame(aws, waiting.await()?.single())
+  }
+
+  fun testFailedBuildIsDropped() = timeoutRunBlocking {
+    val cache = TfProviderSchemaCache()
+    val reserved = cache.reserve(listOf(awsKey, googleKey))
+    cache.publish(reserved, mapOf(awsKey to schema("aws")))
+
+    assertNull(cache.getAll(listOf(awsKey, googleKey)))
+    assertEquals(setOf(googleKey), cache.reserve(listOf(awsKey, googleKey)).keys)
+  }
+}
@@ -0,0 +1,114 @@
+// Copyright 2000-2025 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package org.intellij.terraform.config.model
+
+import junit.framework.TestCase
+
+class TypeModelLazyProvidersTest : TestCase() {
+
+  private fun lazyProvider(name: String,
+                           hasFunctions: Boolean = false,
+                           tier: ProviderTier? = null,
+                           indexed: Boolean = false): LazyProviderSchema {
+    val resourceTypes = if (indexed) listOf("${name}_instance") else null
+    val dataSourceTypes = if (indexed) listOf("${name}_image") else null
+    return LazyProviderSchema("hashicorp/$name", hasFunctions, tier, resourceTypes, dataSourceTypes) {
+      val provider = ProviderType(name, emptyList(), "hashicorp", tier ?: ProviderTier.TIER_NONE)
+      ProviderSchema(provider,
+                     listOf(ResourceType("${name}_instance", provider, emptyList())),
+                     listOf(DataSourceType("${name}_image", provider, emptyList())),
+                     if (hasFunctions) listOf(TfFunction("parse", Types.String, providerType = name)) else emptyList())
+    }
+  }
+
+  fun testProviderIsLoadedOnFirstAccess() {
+    val first = lazyProvider("first")
+    val second = lazyProvider("second")
+    val model = TypeModel(lazyProviderSchemas = listOf(first, second))
+    assertFalse(first.isLoaded)
+    assertFalse(second.isLoaded)
+
+    assertEquals("first_instance", model.getResourceType("first_instance")?.type)
+    assertTrue(first.isLoaded)
+    assertFalse(second.isLoaded)
+
+    assertEquals("second_image", model.getDataSourceType("second_image")?.type)
+    assertTrue(second.isLoaded)
+  }
+
+  fun testResourcesByProvider() {
+    val first = lazyProvider("first")
+    val second = lazyProvider("second")
+    val model = TypeModel(lazyProviderSchemas = listOf(first, second))
+
+    assertEquals(listOf("first_instance"), model.resourcesByProvider["hashicorp/first"]?.map { it.type })
+    assertFalse(second.isLoaded)
+    assertNull(model.resourcesByProvider["hashicorp/third"])
+
+    assertEquals(setOf("first_instance", "second_instance"), model.allResources().map { it.type }.toSet())
+  }
+
+  fun testLoadedProviderTakesPrecedence() {
+    val lazy = lazyProvider("first")
+    val loaded = ProviderType("first", emptyList(), "hashicorp")
+    val model = TypeModel(providers = listOf(loaded), lazyProviderSchemas = listOf(lazy))
+
+    assertSame(loaded, model.getProviderType("first"))
+    assertNull(model.getResourceType("first_instance"))
+    assertFalse(lazy.isLoaded)
+  }
+
+  fun testProviderDefinedFunctionsLoadOnlyProvidersWithFunctions() {
+    val withFunctions = lazyProvider("first", hasFunctions = true)
+    val withoutFunctions = lazyProvider("second")
+    val model = TypeModel(lazyProviderSchemas = listOf(withFunctions, withoutFunctions))
+
+    assertEquals(listOf("parse"), model.providerDefinedFunctions.map { it.name })
+    assertNotNull(model.getProviderFunction("first", "parse"))
+    assertFalse(withoutFunctions.isLoaded)
+  }
+
+  fun testFilteredTypesLoadOnlyMatchingProviders() {
+    val official = lazyProvider("first", tier = ProviderTier.TIER_OFFICIAL, indexed = true)
+    val community = lazyProvider("second", tier = ProviderTier.TIER_COMMUNITY, indexed = true)
+    val otherPrefix = lazyProvider("third", tier = ProviderTier.TIER_OFFICIAL, indexed = true)
+    val model = TypeModel(lazyProviderSchemas = listOf(official, community, otherPrefix))
+    val officialOnly = { tier: ProviderTier, _: String -> tier == ProviderTier.TIER_OFFICIAL }
+
+    assertEquals(listOf("first_instance"), model.allResources(officialOnly) { it.startsWith("fi") }.map { it.type }.toList())
+    assertTrue(official.isLoaded)
+    assertFalse(community.isLoaded)
+    assertFalse(otherPrefix.isLoaded)
+
+    assertEquals(listOf("first"), model.allProviders(officialOnly) { it.startsWith("fi") }.map { it.type }.toList())
+    assertFalse(otherPrefix.isLoaded)
+  }
+
+  fun testProvidersWithoutIndexedTypesAreFilteredAfterLoading() {
+    val unknown = lazyProvider("first")
+    val model = TypeModel(lazyProviderSchemas = listOf(unknown))
+
+    // the provider is in the official namespace, so it can't be a community one
+    assertEmpty(model.allDatasources({ tier, _ -> tier == ProviderTier.TIER_COMMUNITY }).toList())
+    assertTrue(unknown.isLoaded)
+  }
+
+  fun testFindResourcesOfAllProviders() {
+    fun sharedTypeProvider(namespace: String): LazyProviderSchema =
+      LazyProviderSchema("$namespace/shared", false, ProviderTier.TIER_COMMUNITY, listOf("shared_instance"), emptyList()) {
+        val provider = ProviderType("shared", emptyList(), namespace, ProviderTier.TIER_COMMUNITY)
+        ProviderSchema(provider, listOf(ResourceType("shared_instance", provider, emptyList())), emptyList(), emptyList())
+      }
+
+    val first = sharedTypeProvider("first")
+    val second = sharedTypeProvider("second")
+    val unrelated = lazyProvider("third", indexed = true)
+    val local = ProviderType("shared", emptyList(), "local")
+    val model = TypeModel(resources = listOf(ResourceType("shared_instance", local, emptyList())),
+                          providers = listOf(local),
+                          lazyProviderSchemas = listOf(first, second, unrelated))
+
+    assertEquals(setOf("local/shared", "first/shared", "second/shared"),
+                 model.findResources("shared_instance").map { it.provider.fullName }.toSet())
+    assertFalse(unrelated.isLoaded)
+  }
+}